@@ -0,0 +1,98 @@
+package com.martialdev.game.hanoitower.core.actor;
+
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.event.HanoiTowerListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+/** Keeps an actor for each game session, all of them run by the same executor.
+ *  Actors cost a controller and a small mailbox, so hundreds of thousands of sessions share a few threads.
+ *
+ * @see SessionActor
+ */
+public final class ActorSystem {
+
+    private final Executor _executor;
+    private final int _mailboxCapacity;
+    private final int _batchSize;
+    private final BiConsumer<String, Throwable> _failures;
+    private final ConcurrentHashMap<String, SessionActor> _actors = new ConcurrentHashMap<>();
+
+    /** Creates a system without actors.
+     *
+     * @param executor the executor running the actors, usually a pool with a thread per core.
+     * @param mailboxCapacity how many commands each actor keeps waiting, a power of two.
+     * @param batchSize how many commands an actor runs before giving its thread to other actors.
+     * @param failures called in the actor when a command fails, usually with an InvalidMoveException, or when
+     *                 the executor refuses to run the commands left by a batch.
+     */
+    public ActorSystem(Executor executor, int mailboxCapacity, int batchSize,
+                       BiConsumer<String, Throwable> failures) {
+        if (batchSize < 1) throw new IllegalArgumentException("Batches must have at least one command.");
+        _executor = executor;
+        _mailboxCapacity = mailboxCapacity;
+        _batchSize = batchSize;
+        _failures = failures;
+    }
+
+    /** Creates the actor of a session, with a new controller.  The controller listeners are called in the
+     *  actor.  Start the game by telling the actor to start it.
+     *
+     * @param sessionId id of the session.
+     * @param listeners listeners of the session controller.
+     * @return the actor.
+     * @throws IllegalArgumentException if the session already has an actor.
+     */
+    public SessionActor spawn(String sessionId, HanoiTowerListener... listeners) {
+        final HanoiTowerControl control = new HanoiTowerControl();
+        for (HanoiTowerListener listener : listeners) control.addListener(listener);
+        final SessionActor actor = new SessionActor(sessionId, control, _executor, _mailboxCapacity, _batchSize,
+                _failures);
+        if (_actors.putIfAbsent(sessionId, actor) != null) {
+            throw new IllegalArgumentException("Session " + sessionId + " already has an actor.");
+        }
+        return actor;
+    }
+
+    /** Returns the actor of a session.
+     *
+     * @param sessionId id of the session.
+     * @return the actor, or null if the session has none.
+     */
+    public SessionActor actor(String sessionId) {
+        return _actors.get(sessionId);
+    }
+
+    /** Sends a command to the actor of a session.
+     *
+     * @param sessionId id of the session.
+     * @param command the command.
+     * @return false if the mailbox of the actor is full and the command has been refused.
+     * @throws IllegalArgumentException if the session has no actor.
+     * @throws java.util.concurrent.RejectedExecutionException when the executor refuses to run the actor.
+     */
+    public boolean tell(String sessionId, SessionCommand command) {
+        final SessionActor actor = _actors.get(sessionId);
+        if (actor == null) throw new IllegalArgumentException("Session " + sessionId + " has no actor.");
+        return actor.tell(command);
+    }
+
+    /** Removes the actor of a session.  Commands already in its mailbox still run.
+     *
+     * @param sessionId id of the session.
+     * @return the removed actor, or null if the session had none.
+     */
+    public SessionActor stop(String sessionId) {
+        return _actors.remove(sessionId);
+    }
+
+    /** Returns how many sessions have actors.
+     *
+     * @return the quantity of actors.
+     */
+    public int size() {
+        return _actors.size();
+    }
+}
@@ -0,0 +1,57 @@
+package com.martialdev.game.hanoitower.core.actor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/** Bounded mailbox with many producers and a single consumer.
+ *  Producers claim a place with a compare and set on the tail and publish the command in it; the consumer
+ *  takes commands in order, waiting for a claimed place until its command is published.
+ */
+final class Mailbox {
+
+    private final AtomicReferenceArray<SessionCommand> _commands;
+    private final int _mask;
+    private final AtomicLong _tail = new AtomicLong();
+    private final AtomicLong _head = new AtomicLong();
+
+    Mailbox(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Mailbox capacity must be a power of two: " + capacity);
+        }
+        _commands = new AtomicReferenceArray<>(capacity);
+        _mask = capacity - 1;
+    }
+
+    boolean offer(SessionCommand command) {
+        long tail;
+        do {
+            tail = _tail.get();
+            if (tail - _head.get() > _mask) return false;
+        } while (!_tail.compareAndSet(tail, tail + 1));
+        _commands.lazySet((int) tail & _mask, command);
+        return true;
+    }
+
+    // only called by the consumer
+    SessionCommand poll() {
+        final long head = _head.get();
+        if (head == _tail.get()) return null;
+        final int index = (int) head & _mask;
+        SessionCommand command;
+        while ((command = _commands.get(index)) == null) {
+            // the place has been claimed but the command is not published yet
+            Thread.yield();
+        }
+        _commands.lazySet(index, null);
+        _head.lazySet(head + 1);
+        return command;
+    }
+
+    boolean isEmpty() {
+        return _head.get() == _tail.get();
+    }
+
+    int size() {
+        return (int) (_tail.get() - _head.get());
+    }
+}
@@ -0,0 +1,104 @@
+package com.martialdev.game.hanoitower.core.actor;
+
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+/** The owner of a game session.  All commands of the session run one at a time in the actor, so the
+ *  controller is used without locks and its listeners are called in the actor.
+ *  Actors have no threads of their own: an actor with commands in its mailbox is run by a shared executor,
+ *  processing a batch of commands before giving the thread to other actors.  The mailbox is bounded, and
+ *  telling a command to an actor with a full mailbox fails, so producers slow down instead of piling up
+ *  commands.
+ *
+ * @see ActorSystem
+ */
+public final class SessionActor implements Runnable {
+
+    private final String _sessionId;
+    private final HanoiTowerControl _control;
+    private final Mailbox _mailbox;
+    private final Executor _executor;
+    private final int _batchSize;
+    private final BiConsumer<String, Throwable> _failures;
+    private final AtomicBoolean _scheduled = new AtomicBoolean();
+
+    SessionActor(String sessionId, HanoiTowerControl control, Executor executor, int mailboxCapacity,
+                 int batchSize, BiConsumer<String, Throwable> failures) {
+        _sessionId = sessionId;
+        _control = control;
+        _mailbox = new Mailbox(mailboxCapacity);
+        _executor = executor;
+        _batchSize = batchSize;
+        _failures = failures;
+    }
+
+    /** Sends a command to the actor.  Any thread can send commands.
+     *
+     * @param command the command.
+     * @return false if the mailbox is full and the command has been refused.
+     * @throws RejectedExecutionException when the executor refuses to run the actor.  The command stays in the
+     *                                    mailbox, and the next command told tries to run the actor again.
+     */
+    public boolean tell(SessionCommand command) {
+        if (!_mailbox.offer(command)) return false;
+        schedule();
+        return true;
+    }
+
+    /** Returns how many commands are waiting in the mailbox.
+     *
+     * @return the quantity of commands not run yet.
+     */
+    public int backlog() {
+        return _mailbox.size();
+    }
+
+    /** Returns the id of the session owned by the actor.
+     *
+     * @return the session id.
+     */
+    public String getSessionId() {
+        return _sessionId;
+    }
+
+    /** Runs a batch of commands.  Called by the executor; never call it directly.
+     */
+    @Override
+    public void run() {
+        for (int i = 0; i < _batchSize; i++) {
+            final SessionCommand command = _mailbox.poll();
+            if (command == null) break;
+            try {
+                command.execute(_control);
+            } catch (InvalidMoveException | Exception e) {
+                // invalid moves (and failing commands) must not stop the actor; errors of the JVM do
+                _failures.accept(_sessionId, e);
+            }
+        }
+        _scheduled.set(false);
+        // commands told while the batch ran, or left by the batch, need another turn
+        if (!_mailbox.isEmpty()) {
+            try {
+                schedule();
+            } catch (RejectedExecutionException e) {
+                _failures.accept(_sessionId, e);
+            }
+        }
+    }
+
+    private void schedule() {
+        if (!_scheduled.compareAndSet(false, true)) return;
+        try {
+            _executor.execute(this);
+        } catch (RejectedExecutionException e) {
+            // not scheduled, so a later command may try again
+            _scheduled.set(false);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.martialdev.game.hanoitower.core.actor;
+
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+
+/** A command sent to the actor of a session, run with exclusive access to the session controller.
+ *
+ * @see SessionActor#tell(SessionCommand)
+ */
+@FunctionalInterface
+public interface SessionCommand {
+
+    /** Runs the command in the actor of the session.
+     *
+     * @param control the controller of the session.
+     * @throws InvalidMoveException when the command tries a move the game doesn't allow.
+     */
+    void execute(HanoiTowerControl control) throws InvalidMoveException;
+}
@@ -0,0 +1,186 @@
+package com.martialdev.game.hanoitower.core.batch;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+
+/** Plays many games at once, for simulations and bot training.
+ *  Games are kept in primitive arrays (a structure of arrays): each pin of each game is a bitmask where bit i
+ *  is set when the disk with size i + 1 is in the pin, so the top disk of a pin is its lowest set bit.
+ *  A step applies one move to every game in three passes over the arrays: legality, moves and game over,
+ *  each one a simple loop without branches on the game state.
+ *  Bicolor games are not supported, since their disks can't be told apart by their sizes.
+ *
+ * @see PinPosition
+ */
+public final class BatchEngine {
+
+    /** Result of a step: the move was refused by the rules, so the game didn't change.
+     */
+    public static final byte ILLEGAL = 0;
+    /** Result of a step: the disk has been moved.
+     */
+    public static final byte MOVED = 1;
+    /** Result of a step: the disk has been moved and the game is over.
+     */
+    public static final byte FINISHED = 2;
+    /** Result of a step: the game was already over, so the move has been ignored.
+     */
+    public static final byte OVER = 3;
+
+    /** The maximum capacity of a game.
+     */
+    public static final int MAX_DISKS = 62;
+
+    private static final int PINS = 3;
+
+    private final int _games;
+    private final boolean[] _transfers;
+    // pin masks, pin major: the mask of pin p of game g is in p * games + g
+    private final long[] _pins;
+    private final long[] _fullTower;
+    private final int[] _movesDone;
+    private final boolean[] _over;
+
+    /** Creates a batch of games.  Every game starts with no disks until it's reset.
+     *
+     * @param games how many games are played at once.
+     * @param variant rules of every game of the batch.
+     * @throws UnsupportedOperationException for bicolor games.
+     */
+    public BatchEngine(int games, GameVariant variant) {
+        if (variant.isBicolor()) {
+            throw new UnsupportedOperationException("Bicolor games can't be played in batches.");
+        }
+        _games = games;
+        _transfers = new boolean[PINS * PINS];
+        final PinPosition[] pins = PinPosition.values();
+        for (int from = 0; from < PINS; from++) {
+            for (int to = 0; to < PINS; to++) {
+                _transfers[from * PINS + to] = from != to && variant.allowsTransfer(pins[from], pins[to]);
+            }
+        }
+        _pins = new long[PINS * games];
+        _fullTower = new long[games];
+        _movesDone = new int[games];
+        _over = new boolean[games];
+    }
+
+    /** Starts a game again, with every disk in the first pin.
+     *
+     * @param game index of the game.
+     * @param disks how many disks the game has, up to MAX_DISKS.
+     */
+    public void reset(int game, int disks) {
+        if (disks < 1 || disks > MAX_DISKS) {
+            throw new IllegalArgumentException("Games must have from 1 to " + MAX_DISKS + " disks: " + disks);
+        }
+        _fullTower[game] = (1L << disks) - 1;
+        _pins[game] = _fullTower[game];
+        _pins[_games + game] = 0;
+        _pins[2 * _games + game] = 0;
+        _movesDone[game] = 0;
+        _over[game] = false;
+    }
+
+    /** Starts every game again with the same quantity of disks.
+     *
+     * @param disks how many disks the games have, up to MAX_DISKS.
+     */
+    public void resetAll(int disks) {
+        for (int game = 0; game < _games; game++) {
+            reset(game, disks);
+        }
+    }
+
+    /** Moves the top disk of a pin to another pin in every game.
+     *
+     * @param from ordinal of the pin where each game grabs a disk.
+     * @param to ordinal of the pin where each game drops the disk.
+     * @param results receives the result of each game: ILLEGAL, MOVED, FINISHED or OVER.
+     * @return how many games have moved a disk.
+     */
+    public int step(byte[] from, byte[] to, byte[] results) {
+        final int games = _games;
+        final long[] pins = _pins;
+
+        // legality: the top disk of the origin must be smaller than the top disk of the target
+        for (int game = 0; game < games; game++) {
+            final long source = pins[from[game] * games + game];
+            final long target = pins[to[game] * games + game];
+            final long sourceTop = source & -source;
+            final long targetTop = target & -target;
+            final boolean legal = sourceTop != 0 && (targetTop == 0 || sourceTop < targetTop)
+                    && _transfers[from[game] * PINS + to[game]] && !_over[game];
+            results[game] = legal ? MOVED : _over[game] ? OVER : ILLEGAL;
+        }
+
+        // moves: illegal moves move an empty mask
+        int moved = 0;
+        for (int game = 0; game < games; game++) {
+            final int legal = results[game] == MOVED ? 1 : 0;
+            final long source = pins[from[game] * games + game];
+            final long disk = source & -source & -(long) legal;
+            pins[from[game] * games + game] = source ^ disk;
+            pins[to[game] * games + game] |= disk;
+            _movesDone[game] += legal;
+            moved += legal;
+        }
+
+        // game over: the whole tower is in the third pin
+        final int third = 2 * games;
+        for (int game = 0; game < games; game++) {
+            final boolean finished = results[game] == MOVED && pins[third + game] == _fullTower[game];
+            _over[game] |= finished;
+            results[game] = finished ? FINISHED : results[game];
+        }
+        return moved;
+    }
+
+    /** Returns how many games are over.
+     *
+     * @return the quantity of finished games.
+     */
+    public int countGamesOver() {
+        int over = 0;
+        for (int game = 0; game < _games; game++) {
+            over += _over[game] ? 1 : 0;
+        }
+        return over;
+    }
+
+    /** Returns true if the game is over.
+     *
+     * @param game index of the game.
+     * @return true if the whole tower is in the third pin.
+     */
+    public boolean isGameOver(int game) {
+        return _over[game];
+    }
+
+    /** Returns how many disks have been moved in the game.
+     *
+     * @param game index of the game.
+     * @return the moves done since the game has been reset.
+     */
+    public int movesDone(int game) {
+        return _movesDone[game];
+    }
+
+    /** Returns the disks in a pin of a game.
+     *
+     * @param game index of the game.
+     * @param pin the pin.
+     * @return a mask where bit i is set when the disk with size i + 1 is in the pin.
+     */
+    public long pinMask(int game, PinPosition pin) {
+        return _pins[pin.ordinal() * _games + game];
+    }
+
+    /** Returns how many games are in the batch.
+     *
+     * @return the quantity of games.
+     */
+    public int games() {
+        return _games;
+    }
+}
@@ -0,0 +1,141 @@
+package com.martialdev.game.hanoitower.core.broadcast;
+
+import com.martialdev.game.hanoitower.core.control.Disk;
+import com.martialdev.game.hanoitower.core.control.GameSnapshot;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+
+import java.nio.ByteBuffer;
+
+/** An event of a game encoded once and shared by every spectator.
+ *  Frames are immutable: spectators read them through their own read only views of the same bytes.
+ *  The binary form (big endian) starts with a header:
+ *  <pre>
+ *  byte  0     : type
+ *  byte  1     : ordinal of the origin pin (GRAB and MOVE)
+ *  byte  2     : ordinal of the target pin (MOVE)
+ *  byte  3     : ordinal of the disk color (GRAB and MOVE)
+ *  bytes 4-7   : moves done
+ *  bytes 8-15  : sequence of the frame in the broadcast
+ *  </pre>
+ *  followed by the disk size (GRAB and MOVE), the score (GAME_OVER) or the game snapshot (KEYFRAME).
+ *
+ * @see GameBroadcast
+ */
+public final class Frame {
+
+    /** The whole game, sent when the game starts and periodically for spectators joining late.
+     */
+    public static final int KEYFRAME = 1;
+    /** A disk has been grabbed.
+     */
+    public static final int GRAB = 2;
+    /** The grabbed disk has been dropped.
+     */
+    public static final int MOVE = 3;
+    /** The game is over.
+     */
+    public static final int GAME_OVER = 4;
+
+    static final int HEADER_SIZE = 16;
+
+    private static final PinPosition[] PINS = PinPosition.values();
+    private static final Disk.Color[] COLORS = Disk.Color.values();
+
+    public final int type;
+    public final long sequence;
+    private final ByteBuffer _data;
+
+    private Frame(long sequence, ByteBuffer data) {
+        this.type = data.get(0);
+        this.sequence = sequence;
+        _data = data.asReadOnlyBuffer();
+    }
+
+    static Frame keyframe(long sequence, GameSnapshot snapshot) {
+        final ByteBuffer data = header(KEYFRAME, sequence, 0, 0, 0, snapshot.movesDone,
+                HEADER_SIZE + snapshot.encodedSize());
+        snapshot.writeTo(data, HEADER_SIZE);
+        return new Frame(sequence, data);
+    }
+
+    static Frame disk(int type, long sequence, Disk disk, int from, int to, int movesDone) {
+        final ByteBuffer data = header(type, sequence, from, to, disk.getColor().ordinal(), movesDone,
+                HEADER_SIZE + Integer.BYTES);
+        data.putInt(HEADER_SIZE, disk.getSize());
+        return new Frame(sequence, data);
+    }
+
+    static Frame gameOver(long sequence, int totalMoves, double score) {
+        final ByteBuffer data = header(GAME_OVER, sequence, 0, 0, 0, totalMoves, HEADER_SIZE + Double.BYTES);
+        data.putDouble(HEADER_SIZE, score);
+        return new Frame(sequence, data);
+    }
+
+    private static ByteBuffer header(int type, long sequence, int from, int to, int color, int movesDone,
+                                     int size) {
+        final ByteBuffer data = ByteBuffer.allocate(size);
+        data.put(0, (byte) type);
+        data.put(1, (byte) from);
+        data.put(2, (byte) to);
+        data.put(3, (byte) color);
+        data.putInt(4, movesDone);
+        data.putLong(8, sequence);
+        return data;
+    }
+
+    /** Returns the binary form of the frame, ready to be written to a channel.
+     *
+     * @return a read only view of the frame bytes; the bytes are not copied.
+     */
+    public ByteBuffer data() {
+        return _data.duplicate();
+    }
+
+    /** Returns the pin where the disk of a GRAB or MOVE frame has been grabbed.
+     *
+     * @return the origin pin.
+     */
+    public PinPosition from() {
+        return PINS[_data.get(1)];
+    }
+
+    /** Returns the pin where the disk of a MOVE frame has been dropped.
+     *
+     * @return the target pin.
+     */
+    public PinPosition to() {
+        return PINS[_data.get(2)];
+    }
+
+    /** Returns the disk of a GRAB or MOVE frame.
+     *
+     * @return a disk equal to the moved disk.
+     */
+    public Disk disk() {
+        return new Disk(_data.getInt(HEADER_SIZE), COLORS[_data.get(3)]);
+    }
+
+    /** Returns how many moves had been done when the frame was sent.
+     *
+     * @return the moves done.
+     */
+    public int movesDone() {
+        return _data.getInt(4);
+    }
+
+    /** Returns the score of a GAME_OVER frame.
+     *
+     * @return the final score.
+     */
+    public double score() {
+        return _data.getDouble(HEADER_SIZE);
+    }
+
+    /** Returns the game of a KEYFRAME frame.
+     *
+     * @return the snapshot of the game, to be restored in a controller.
+     */
+    public GameSnapshot snapshot() {
+        return GameSnapshot.readFrom(_data, HEADER_SIZE);
+    }
+}
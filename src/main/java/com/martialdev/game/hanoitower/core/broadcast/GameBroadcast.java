@@ -0,0 +1,116 @@
+package com.martialdev.game.hanoitower.core.broadcast;
+
+import com.martialdev.game.hanoitower.core.control.GameSnapshot;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.event.EventType;
+import com.martialdev.game.hanoitower.core.control.event.GameOverEvent;
+import com.martialdev.game.hanoitower.core.control.event.GameStartEvent;
+import com.martialdev.game.hanoitower.core.control.event.HanoiTowerListener;
+import com.martialdev.game.hanoitower.core.control.event.PinEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Broadcasts a game to any number of spectators.
+ *  Each event is encoded once in a frame and written to a ring shared by all spectators, so the player
+ *  pays the same for one spectator or for thousands of them and never waits for any of them.
+ *  Moves are sent as deltas (a disk grabbed in a pin, a disk moved from a pin to another); the whole game is
+ *  sent in a keyframe when the game starts and after every given quantity of moves, so spectators joining
+ *  late start from the latest keyframe.
+ *
+ * @see Spectator
+ * @see Frame
+ */
+public final class GameBroadcast implements HanoiTowerListener {
+
+    private final HanoiTowerControl _control;
+    private final Frame[] _frames;
+    private final int _mask;
+    private final int _keyframeInterval;
+    private final AtomicLong _published = new AtomicLong();
+    private volatile long _lastKeyframe = -1;
+    private int _movesSinceKeyframe;
+    private int _heldOrigin;
+
+    /** Creates a broadcast of the game played by the given controller and starts listening to it.
+     *
+     * @param control the controller playing the game.
+     * @param capacity how many frames are kept for slow spectators, a power of two at least four times the
+     *                 keyframe interval.
+     * @param keyframeInterval how many moves are sent as deltas between keyframes.
+     */
+    public GameBroadcast(HanoiTowerControl control, int capacity, int keyframeInterval) {
+        if (Integer.bitCount(capacity) != 1 || capacity < 4 * keyframeInterval || keyframeInterval < 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two at least four times the keyframe"
+                    + " interval: " + capacity + ", " + keyframeInterval);
+        }
+        _control = control;
+        _frames = new Frame[capacity];
+        _mask = capacity - 1;
+        _keyframeInterval = keyframeInterval;
+        control.addListener(this, EventType.mask(EventType.GAME_START, EventType.DISK_REMOVED, EventType.DISK_ADDED,
+                EventType.GAME_OVER));
+        if (control.snapshot().capacity > 0) publishKeyframe();
+    }
+
+    /** Starts watching the game from the latest keyframe.
+     *
+     * @return the cursor of the new spectator.
+     */
+    public Spectator watch() {
+        final long keyframe = _lastKeyframe;
+        return new Spectator(this, keyframe < 0 ? _published.get() : keyframe);
+    }
+
+    /** Returns how many frames have been published since the broadcast was created.
+     *
+     * @return the sequence of the next frame.
+     */
+    public long published() {
+        return _published.get();
+    }
+
+    Frame frame(long sequence) {
+        return _frames[(int) sequence & _mask];
+    }
+
+    @Override
+    public void hanoiTowerEvent(GameStartEvent event) {
+        publishKeyframe();
+    }
+
+    @Override
+    public void fireDiskRemoved(PinEvent event) {
+        _heldOrigin = event.pinPosition.ordinal();
+        publish(Frame.disk(Frame.GRAB, _published.get(), event.diskMoved, _heldOrigin, _heldOrigin,
+                event.currentMoves));
+    }
+
+    @Override
+    public void fireDiskAdded(PinEvent event) {
+        publish(Frame.disk(Frame.MOVE, _published.get(), event.diskMoved, _heldOrigin,
+                event.pinPosition.ordinal(), event.currentMoves));
+        if (++_movesSinceKeyframe >= _keyframeInterval) publishKeyframe();
+    }
+
+    @Override
+    public void hanoiTowerEvent(GameOverEvent event) {
+        publish(Frame.gameOver(_published.get(), event.totalMoves, event.score));
+    }
+
+    private void publishKeyframe() {
+        final GameSnapshot snapshot = _control.snapshot();
+        // keyframes are published after drops, while the controller still points to the dropped disk
+        final GameSnapshot keyframe = new GameSnapshot(snapshot.variant, snapshot.capacity, snapshot.position(),
+                -1, snapshot.movesDone, snapshot.score);
+        final long sequence = _published.get();
+        publish(Frame.keyframe(sequence, keyframe));
+        _lastKeyframe = sequence;
+        _movesSinceKeyframe = 0;
+    }
+
+    // only the thread playing the game publishes frames
+    private void publish(Frame frame) {
+        _frames[(int) frame.sequence & _mask] = frame;
+        _published.lazySet(frame.sequence + 1);
+    }
+}
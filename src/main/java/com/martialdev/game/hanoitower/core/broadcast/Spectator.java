@@ -0,0 +1,53 @@
+package com.martialdev.game.hanoitower.core.broadcast;
+
+/** A cursor of a spectator in a game broadcast.
+ *  Each spectator reads the shared frames at its own pace, from the thread that serves it.  A spectator
+ *  that falls so far behind that its next frame has been overwritten is shed: it stops receiving frames and
+ *  should watch the game again, starting from the latest keyframe.
+ *  A spectator must be read by one thread at a time.
+ *
+ * @see GameBroadcast#watch()
+ */
+public final class Spectator {
+
+    private final GameBroadcast _broadcast;
+    private long _next;
+    private boolean _shed;
+
+    Spectator(GameBroadcast broadcast, long first) {
+        _broadcast = broadcast;
+        _next = first;
+    }
+
+    /** Returns the next frame of the game.
+     *
+     * @return the frame, or null when there are no new frames or the spectator has been shed.
+     */
+    public Frame poll() {
+        if (_shed || _next >= _broadcast.published()) return null;
+        final Frame frame = _broadcast.frame(_next);
+        if (frame.sequence != _next) {
+            // the player has lapped this spectator
+            _shed = true;
+            return null;
+        }
+        _next++;
+        return frame;
+    }
+
+    /** Returns true if the spectator has been shed for being too slow.
+     *
+     * @return true if no more frames will be read.
+     */
+    public boolean isShed() {
+        return _shed;
+    }
+
+    /** Returns how many frames have been published and not read yet.
+     *
+     * @return the frames behind.
+     */
+    public long lag() {
+        return _broadcast.published() - _next;
+    }
+}
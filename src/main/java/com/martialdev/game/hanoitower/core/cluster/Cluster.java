@@ -0,0 +1,268 @@
+package com.martialdev.game.hanoitower.core.cluster;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/** Spreads game sessions across nodes by consistent hashing, and routes every command to the node owning
+ *  the session.
+ *  When a node joins, the sessions of the arcs it takes are handed off to it; when a node leaves, its
+ *  sessions are handed off to the nodes now owning them.  Commands wait while sessions are moving, so a
+ *  move never reaches a node that has just handed its game off.  The cluster keeps the sessions started
+ *  through it sorted by their hashes, so a join only visits the sessions of the arcs the new node takes.
+ *  Sessions leave that index when their games are ended through the cluster, or when a join finds that their
+ *  node has no game for them anymore.
+ *  A game refused by its new node goes back to the node that handed it off, and the join or leave is undone.
+ *  Listeners of a controller stay in the node that created it: they are not handed off with the game.
+ *
+ * @see HashRing
+ * @see ClusterNode
+ */
+public final class Cluster {
+
+    // a session handed off from a node to another, kept to undo a join or a leave that fails
+    private static final class Transfer {
+        final String sessionId;
+        final ClusterNode from;
+        final ClusterNode to;
+
+        Transfer(String sessionId, ClusterNode from, ClusterNode to) {
+            this.sessionId = sessionId;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    private final HashRing _ring;
+    // changed by commands under the read lock, so guarded by its own monitor; joins read it under the write lock
+    private final TreeMap<Long, Set<String>> _sessions = new TreeMap<>();
+    private final Map<String, ClusterNode> _nodes = new ConcurrentHashMap<>();
+    private final ReadWriteLock _lock = new ReentrantReadWriteLock();
+
+    /** Creates a cluster without nodes.
+     *
+     * @param virtualNodes how many times each node is placed in the hash ring.
+     */
+    public Cluster(int virtualNodes) {
+        _ring = new HashRing(virtualNodes);
+    }
+
+    /** Adds a node and hands off to it the sessions it now owns.
+     *
+     * @param node the node joining the cluster.
+     * @return how many sessions have been handed off to the node.
+     */
+    public int join(ClusterNode node) {
+        _lock.writeLock().lock();
+        try {
+            if (_nodes.putIfAbsent(node.getId(), node) != null) {
+                throw new IllegalArgumentException("Node " + node.getId() + " is already in the cluster.");
+            }
+            _ring.add(node.getId());
+            final List<Transfer> transfers = new ArrayList<>();
+            final List<String> ended = new ArrayList<>();
+            try {
+                for (HashRing.Arc arc : _ring.arcs(node.getId())) {
+                    final ClusterNode previousOwner = _nodes.get(arc.next);
+                    for (String sessionId : sessionsIn(arc.from, arc.to)) {
+                        if (!transfer(sessionId, previousOwner, node, transfers)) ended.add(sessionId);
+                    }
+                }
+            } catch (RuntimeException e) {
+                _ring.remove(node.getId());
+                undo(transfers, e);
+                _nodes.remove(node.getId());
+                throw e;
+            }
+            // sessions whose games have been ended out of the cluster
+            for (String sessionId : ended) unindex(sessionId);
+            return transfers.size();
+        } finally {
+            _lock.writeLock().unlock();
+        }
+    }
+
+    /** Removes a node, handing off its sessions to the nodes now owning them.
+     *
+     * @param nodeId id of the node leaving the cluster.
+     * @return how many sessions have been handed off.
+     */
+    public int leave(String nodeId) {
+        _lock.writeLock().lock();
+        try {
+            final ClusterNode node = _nodes.get(nodeId);
+            if (node == null) return 0;
+            if (_nodes.size() == 1 && !node.sessions().isEmpty()) {
+                throw new IllegalStateException("The last node can't leave while it has sessions.");
+            }
+            _ring.remove(nodeId);
+            final List<Transfer> transfers = new ArrayList<>();
+            try {
+                for (String sessionId : node.sessions()) {
+                    transfer(sessionId, node, _nodes.get(_ring.owner(sessionId)), transfers);
+                }
+            } catch (RuntimeException e) {
+                _ring.add(nodeId);
+                undo(transfers, e);
+                throw e;
+            }
+            _nodes.remove(nodeId);
+            return transfers.size();
+        } finally {
+            _lock.writeLock().unlock();
+        }
+    }
+
+    /** Returns the node owning a session.
+     *
+     * @param sessionId id of the session.
+     * @return the owning node.
+     * @throws IllegalStateException when the cluster has no nodes.
+     */
+    public ClusterNode route(String sessionId) {
+        final String owner = _ring.owner(sessionId);
+        if (owner == null) throw new IllegalStateException("The cluster has no nodes.");
+        return _nodes.get(owner);
+    }
+
+    /** Starts a game in the node owning the session.
+     *
+     * @param sessionId id of the session.
+     * @param capacity how many disk sizes the game has.
+     * @param variant rules of the game.
+     */
+    public void startGame(String sessionId, int capacity, GameVariant variant) {
+        _lock.readLock().lock();
+        try {
+            route(sessionId).startGame(sessionId, capacity, variant);
+            synchronized (_sessions) {
+                _sessions.computeIfAbsent(HashRing.hash(sessionId), hash -> new HashSet<>()).add(sessionId);
+            }
+        } finally {
+            _lock.readLock().unlock();
+        }
+    }
+
+    /** Ends the game of a session in the node owning it, and forgets the session.
+     *
+     * @param sessionId id of the session.
+     * @return true if the session had a game.
+     */
+    public boolean endGame(String sessionId) {
+        _lock.readLock().lock();
+        try {
+            final boolean ended = route(sessionId).endGame(sessionId);
+            unindex(sessionId);
+            return ended;
+        } finally {
+            _lock.readLock().unlock();
+        }
+    }
+
+    /** Grabs a disk in the game of a session, in the node owning it.
+     *
+     * @param sessionId id of the session.
+     * @param pin where the disk is grabbed.
+     * @throws InvalidMoveException if the move is not allowed.
+     */
+    public void grabDisk(String sessionId, PinPosition pin) throws InvalidMoveException {
+        _lock.readLock().lock();
+        try {
+            route(sessionId).grabDisk(sessionId, pin);
+        } finally {
+            _lock.readLock().unlock();
+        }
+    }
+
+    /** Drops the grabbed disk in the game of a session, in the node owning it.
+     *
+     * @param sessionId id of the session.
+     * @param pin where the disk is dropped.
+     * @throws InvalidMoveException if the move is not allowed.
+     */
+    public void dropDisk(String sessionId, PinPosition pin) throws InvalidMoveException {
+        _lock.readLock().lock();
+        try {
+            route(sessionId).dropDisk(sessionId, pin);
+        } finally {
+            _lock.readLock().unlock();
+        }
+    }
+
+    /** Returns the nodes of the cluster.
+     *
+     * @return the nodes, as a live view.
+     */
+    public Collection<ClusterNode> nodes() {
+        return _nodes.values();
+    }
+
+    // how many sessions the cluster keeps in its index
+    int indexedSessions() {
+        synchronized (_sessions) {
+            int count = 0;
+            for (Set<String> sessions : _sessions.values()) count += sessions.size();
+            return count;
+        }
+    }
+
+    private void unindex(String sessionId) {
+        final long hash = HashRing.hash(sessionId);
+        synchronized (_sessions) {
+            final Set<String> sessions = _sessions.get(hash);
+            if (sessions != null && sessions.remove(sessionId) && sessions.isEmpty()) _sessions.remove(hash);
+        }
+    }
+
+    // the sessions whose hashes are in an arc of the ring, copied so the index may change while they move
+    private List<String> sessionsIn(long from, long to) {
+        final List<String> sessions = new ArrayList<>();
+        synchronized (_sessions) {
+            if (from < to) {
+                for (Set<String> hashed : _sessions.subMap(from, false, to, true).values()) sessions.addAll(hashed);
+            } else {
+                for (Set<String> hashed : _sessions.tailMap(from, false).values()) sessions.addAll(hashed);
+                for (Set<String> hashed : _sessions.headMap(to, true).values()) sessions.addAll(hashed);
+            }
+        }
+        return sessions;
+    }
+
+    // the game goes back to the node that handed it off if the other node can't take it over; false when the
+    // node had no game for the session
+    private static boolean transfer(String sessionId, ClusterNode from, ClusterNode to, List<Transfer> transfers) {
+        final byte[] game = from.handOff(sessionId);
+        if (game == null) return false;
+        try {
+            to.takeOver(sessionId, game);
+        } catch (RuntimeException e) {
+            from.takeOver(sessionId, game);
+            throw e;
+        }
+        transfers.add(new Transfer(sessionId, from, to));
+        return true;
+    }
+
+    // brings back the sessions already handed off, from the last one
+    private static void undo(List<Transfer> transfers, RuntimeException failure) {
+        for (int i = transfers.size() - 1; i >= 0; i--) {
+            final Transfer done = transfers.get(i);
+            try {
+                transfer(done.sessionId, done.to, done.from, new ArrayList<>());
+            } catch (RuntimeException e) {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.martialdev.game.hanoitower.core.cluster;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+
+import java.util.Set;
+
+/** A node of the cluster, holding the games of the sessions it owns.
+ *  Nodes may live in this process or be stand-ins of remote processes.  Games move between nodes in the
+ *  binary form of their snapshots.
+ *
+ * @see Cluster
+ * @see LocalNode
+ * @see com.martialdev.game.hanoitower.core.control.GameSnapshot
+ */
+public interface ClusterNode {
+
+    /** Returns the id of the node, used to place it in the hash ring.
+     *
+     * @return the id of the node.
+     */
+    String getId();
+
+    /** Starts a game for a session, replacing any game the session had.
+     *
+     * @param sessionId id of the session.
+     * @param capacity how many disk sizes the game has.
+     * @param variant rules of the game.
+     */
+    void startGame(String sessionId, int capacity, GameVariant variant);
+
+    /** Grabs a disk in the game of a session.
+     *
+     * @param sessionId id of the session.
+     * @param pin where the disk is grabbed.
+     * @throws InvalidMoveException if the move is not allowed.
+     * @throws IllegalArgumentException if the node has no game for the session.
+     */
+    void grabDisk(String sessionId, PinPosition pin) throws InvalidMoveException;
+
+    /** Drops the grabbed disk in the game of a session.
+     *
+     * @param sessionId id of the session.
+     * @param pin where the disk is dropped.
+     * @throws InvalidMoveException if the move is not allowed.
+     * @throws IllegalArgumentException if the node has no game for the session.
+     */
+    void dropDisk(String sessionId, PinPosition pin) throws InvalidMoveException;
+
+    /** Ends the game of a session, removing it from the node.
+     *
+     * @param sessionId id of the session.
+     * @return true if the node had a game for the session.
+     */
+    boolean endGame(String sessionId);
+
+    /** Removes the game of a session and returns it in the binary form of its snapshot.
+     *
+     * @param sessionId id of the session.
+     * @return the game, or null if the node has no game for the session.
+     */
+    byte[] handOff(String sessionId);
+
+    /** Receives a game handed off by another node.
+     *
+     * @param sessionId id of the session.
+     * @param game the game, in the binary form of its snapshot.
+     */
+    void takeOver(String sessionId, byte[] game);
+
+    /** Returns the sessions whose games are in the node.
+     *
+     * @return a copy of the session ids.
+     */
+    Set<String> sessions();
+}
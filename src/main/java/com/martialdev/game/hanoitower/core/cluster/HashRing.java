@@ -0,0 +1,176 @@
+package com.martialdev.game.hanoitower.core.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/** Consistent hash ring with virtual nodes.
+ *  Each node is placed in the ring many times, so sessions are spread evenly and a node joining or leaving
+ *  only moves the sessions of its own ring arcs.  The ring is kept in two sorted arrays that are replaced
+ *  when the nodes change, so looking up the owner of a session is a lock free binary search.
+ *
+ * @see Cluster
+ */
+public final class HashRing {
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private static final class Points {
+        final long[] hashes;
+        final String[] nodes;
+
+        Points(long[] hashes, String[] nodes) {
+            this.hashes = hashes;
+            this.nodes = nodes;
+        }
+    }
+
+    /** An arc of the ring, from a hash (exclusive) to another (inclusive), that a node owns.  When the arc
+     *  wraps around the ring, its start is greater than its end.
+     */
+    static final class Arc {
+        final long from;
+        final long to;
+        // the node owning the arc if its owner left the ring
+        final String next;
+
+        Arc(long from, long to, String next) {
+            this.from = from;
+            this.to = to;
+            this.next = next;
+        }
+    }
+
+    private final int _virtualNodes;
+    private volatile Points _points = new Points(new long[0], new String[0]);
+
+    /** Creates an empty ring.
+     *
+     * @param virtualNodes how many times each node is placed in the ring.
+     */
+    public HashRing(int virtualNodes) {
+        if (virtualNodes < 1) throw new IllegalArgumentException("A node needs at least one virtual node.");
+        _virtualNodes = virtualNodes;
+    }
+
+    /** Places a node in the ring.  Adding a node twice changes nothing.
+     *
+     * @param node id of the node.
+     */
+    public synchronized void add(String node) {
+        if (contains(node)) return;
+        final Points points = _points;
+        final int size = points.hashes.length;
+        final long[] hashes = Arrays.copyOf(points.hashes, size + _virtualNodes);
+        final String[] nodes = Arrays.copyOf(points.nodes, size + _virtualNodes);
+        for (int i = 0; i < _virtualNodes; i++) {
+            hashes[size + i] = hash(node + '#' + i);
+            nodes[size + i] = node;
+        }
+        _points = sorted(hashes, nodes);
+    }
+
+    /** Takes a node out of the ring.
+     *
+     * @param node id of the node.
+     */
+    public synchronized void remove(String node) {
+        final Points points = _points;
+        final long[] hashes = new long[points.hashes.length];
+        final String[] nodes = new String[points.nodes.length];
+        int size = 0;
+        for (int i = 0; i < points.nodes.length; i++) {
+            if (!points.nodes[i].equals(node)) {
+                hashes[size] = points.hashes[i];
+                nodes[size++] = points.nodes[i];
+            }
+        }
+        _points = new Points(Arrays.copyOf(hashes, size), Arrays.copyOf(nodes, size));
+    }
+
+    /** Returns true if the node is in the ring.
+     *
+     * @param node id of the node.
+     * @return true if the node owns sessions.
+     */
+    public boolean contains(String node) {
+        for (String current : _points.nodes) {
+            if (current.equals(node)) return true;
+        }
+        return false;
+    }
+
+    /** Returns the node owning the given session: the first node found clockwise from the session hash.
+     *
+     * @param sessionId id of the session.
+     * @return id of the owning node, or null when the ring is empty.
+     */
+    public String owner(String sessionId) {
+        final Points points = _points;
+        if (points.hashes.length == 0) return null;
+        int index = Arrays.binarySearch(points.hashes, hash(sessionId));
+        if (index < 0) index = -index - 1;
+        return points.nodes[index == points.hashes.length ? 0 : index];
+    }
+
+    /** Returns the arcs owned by a node, each one with the node that would own it without this one.
+     *  No arcs are returned when the node is alone in the ring.
+     *
+     * @param node id of the node.
+     * @return the arcs ending in the points of the node.
+     */
+    List<Arc> arcs(String node) {
+        final Points points = _points;
+        final int size = points.hashes.length;
+        final List<Arc> arcs = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (!points.nodes[i].equals(node)) continue;
+            String next = null;
+            for (int j = 1; j < size && next == null; j++) {
+                final String candidate = points.nodes[(i + j) % size];
+                if (!candidate.equals(node)) next = candidate;
+            }
+            if (next == null) return Collections.emptyList();
+            arcs.add(new Arc(points.hashes[(i + size - 1) % size], points.hashes[i], next));
+        }
+        return arcs;
+    }
+
+    /** Returns how many nodes are in the ring.
+     *
+     * @return the quantity of nodes.
+     */
+    public int size() {
+        return _points.hashes.length / _virtualNodes;
+    }
+
+    /** Hashes a string with FNV-1a followed by a final mix, so similar ids land far from each other.
+     *
+     * @param key the string.
+     * @return the position of the string in the ring.
+     */
+    static long hash(String key) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * FNV_PRIME;
+        }
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static Points sorted(long[] hashes, String[] nodes) {
+        final Integer[] order = new Integer[hashes.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+        final long[] sortedHashes = new long[hashes.length];
+        final String[] sortedNodes = new String[nodes.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedHashes[i] = hashes[order[i]];
+            sortedNodes[i] = nodes[order[i]];
+        }
+        return new Points(sortedHashes, sortedNodes);
+    }
+}
@@ -0,0 +1,104 @@
+package com.martialdev.game.hanoitower.core.cluster;
+
+import com.martialdev.game.hanoitower.core.control.GameSnapshot;
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** A node living in this process, holding a controller for each session.
+ *  Moves of a session are serialized on its controller.
+ */
+public final class LocalNode implements ClusterNode {
+
+    private final String _id;
+    private final ConcurrentHashMap<String, HanoiTowerControl> _games = new ConcurrentHashMap<>();
+
+    /** Creates a node without games.
+     *
+     * @param id id of the node.
+     */
+    public LocalNode(String id) {
+        _id = id;
+    }
+
+    @Override
+    public String getId() {
+        return _id;
+    }
+
+    @Override
+    public void startGame(String sessionId, int capacity, GameVariant variant) {
+        final HanoiTowerControl control = new HanoiTowerControl();
+        control.startGame(capacity, variant);
+        _games.put(sessionId, control);
+    }
+
+    @Override
+    public void grabDisk(String sessionId, PinPosition pin) throws InvalidMoveException {
+        final HanoiTowerControl control = game(sessionId);
+        synchronized (control) {
+            control.grabDisk(pin);
+        }
+    }
+
+    @Override
+    public void dropDisk(String sessionId, PinPosition pin) throws InvalidMoveException {
+        final HanoiTowerControl control = game(sessionId);
+        synchronized (control) {
+            control.dropDisk(pin);
+        }
+    }
+
+    @Override
+    public boolean endGame(String sessionId) {
+        return _games.remove(sessionId) != null;
+    }
+
+    @Override
+    public byte[] handOff(String sessionId) {
+        final HanoiTowerControl control = _games.remove(sessionId);
+        if (control == null) return null;
+        final GameSnapshot snapshot;
+        synchronized (control) {
+            snapshot = control.snapshot();
+        }
+        final byte[] game = new byte[snapshot.encodedSize()];
+        snapshot.writeTo(ByteBuffer.wrap(game), 0);
+        return game;
+    }
+
+    @Override
+    public void takeOver(String sessionId, byte[] game) {
+        final HanoiTowerControl control = new HanoiTowerControl();
+        control.restore(GameSnapshot.readFrom(ByteBuffer.wrap(game), 0));
+        _games.put(sessionId, control);
+    }
+
+    @Override
+    public Set<String> sessions() {
+        return new HashSet<>(_games.keySet());
+    }
+
+    /** Returns the controller playing the game of a session.
+     *
+     * @param sessionId id of the session.
+     * @return the controller, or null if the node has no game for the session.
+     */
+    public HanoiTowerControl getGame(String sessionId) {
+        return _games.get(sessionId);
+    }
+
+    private HanoiTowerControl game(String sessionId) {
+        final HanoiTowerControl control = _games.get(sessionId);
+        if (control == null) {
+            throw new IllegalArgumentException("Node " + _id + " has no game for session " + sessionId);
+        }
+        return control;
+    }
+}
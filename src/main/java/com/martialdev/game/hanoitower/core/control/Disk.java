@@ -17,16 +17,35 @@ public class Disk implements Comparable<Disk>{
 	 */
 	public final static Disk DISK_ZERO = new Disk(0);
 	private final int _size;
+	private final Color _color;
 	private final String _toString;
 
+	/** Colors a disk can have.  Only bicolor games paint their disks, the other games use PLAIN disks.
+	 */
+	public enum Color {
+		PLAIN, LIGHT, DARK
+	}
+
 	/**
 	 * A Disk element must be constructed with a size.
 	 *
 	 * @param size - size of the disk
 	 */
 	public Disk(int size) {
+		this(size, Color.PLAIN);
+	}
+
+	/**
+	 * Constructs a painted disk.  The color doesn't take part in comparisons: two disks with the same size
+	 * are still equal, no matter their colors.
+	 *
+	 * @param size - size of the disk
+	 * @param color - color of the disk
+	 */
+	public Disk(int size, Color color) {
 		_size = size;
-		_toString = "disk sizing " + size;
+		_color = color;
+		_toString = color == Color.PLAIN ? "disk sizing " + size : color.name().toLowerCase() + " disk sizing " + size;
 	}
 
 	/** Returns the size of the disk.
@@ -37,6 +56,14 @@ public class Disk implements Comparable<Disk>{
 		return _size;
 	}
 
+	/** Returns the color of the disk.
+	 *
+	 * @return the color of the disk.
+	 */
+	public Color getColor() {
+		return _color;
+	}
+
 	/** Returns the size of the object minus the size of the compared object it.
 	 * For example:
 	 * 	- if both elements have the same size, it returns zero.
@@ -31,7 +31,7 @@ public class DiskStack implements GenericStack<Disk, Disk> {
 	 */
 	public void reset(int newCapacity) {
 		_capacity = newCapacity;
-		_stack = new Disk[_capacity];
+		if (_stack == null || _stack.length != _capacity) _stack = new Disk[_capacity];
 		fullFilStackWithZeroDisks();
 		iPos = 0;
 	}
@@ -79,6 +79,11 @@ public class DiskStack implements GenericStack<Disk, Disk> {
 		return _stack[iPos - 1];
 	}
 
+	// the disk in the given place from the bottom of the stack
+	Disk get(int position) {
+		return _stack[position];
+	}
+
 	/** A clone of the list of disks included in the stack
 	 *
 	 * @return the disks included (clone of the list).
@@ -0,0 +1,118 @@
+package com.martialdev.game.hanoitower.core.control;
+
+import java.nio.ByteBuffer;
+
+/** The whole state of a game, used to keep a game out of its controller and bring it back later.
+ *  Snapshots have a compact binary form (big endian):
+ *  <pre>
+ *  byte  0     : variant ordinal + 1 (zero never starts a snapshot, so it can mark empty records)
+ *  byte  1     : ordinal of the pin the grabbed disk came from + 1, or zero when no disk is grabbed
+ *  bytes 2-3   : capacity
+ *  bytes 4-7   : moves done
+ *  bytes 8-15  : score
+ *  bytes 16-   : encoded position, one long per word
+ *  </pre>
+ *
+ * @see HanoiTowerControl#snapshot()
+ * @see HanoiTowerControl#restore(GameSnapshot)
+ * @see PositionEncoding
+ */
+public final class GameSnapshot {
+
+    private static final int HEADER_SIZE = 16;
+    private static final GameVariant[] VARIANTS = GameVariant.values();
+
+    public final GameVariant variant;
+    public final int capacity;
+    public final int heldOrigin;
+    public final int movesDone;
+    public final double score;
+    private final long[] _position;
+
+    /** Creates a snapshot.
+     *
+     * @param variant rules of the game.
+     * @param capacity how many disk sizes the game has.
+     * @param position the encoded position.
+     * @param heldOrigin ordinal of the pin where the grabbed disk came from, or -1 if no disk is grabbed.
+     * @param movesDone how many moves have been done.
+     * @param score the score of the game.
+     */
+    public GameSnapshot(GameVariant variant, int capacity, long[] position, int heldOrigin, int movesDone,
+                        double score) {
+        this.variant = variant;
+        this.capacity = capacity;
+        this.heldOrigin = heldOrigin;
+        this.movesDone = movesDone;
+        this.score = score;
+        _position = position.clone();
+    }
+
+    /** Returns the encoded position of the game.
+     *
+     * @return a copy of the encoded position.
+     */
+    public long[] position() {
+        return _position.clone();
+    }
+
+    /** Returns how many bytes the binary form of a snapshot takes.
+     *
+     * @param variant rules of the game.
+     * @param capacity how many disk sizes the game has.
+     * @return the size of the snapshot in bytes.
+     */
+    public static int encodedSize(GameVariant variant, int capacity) {
+        return HEADER_SIZE + Long.BYTES * PositionEncoding.words(variant, capacity);
+    }
+
+    /** Returns how many bytes the binary form of this snapshot takes.
+     *
+     * @return the size of the snapshot in bytes.
+     */
+    public int encodedSize() {
+        return HEADER_SIZE + Long.BYTES * _position.length;
+    }
+
+    /** Writes the binary form of the snapshot at the given index, without moving the buffer position.
+     *
+     * @param buffer where the snapshot is written.
+     * @param index where the snapshot starts.
+     * @return how many bytes have been written.
+     */
+    public int writeTo(ByteBuffer buffer, int index) {
+        buffer.put(index, (byte) (variant.ordinal() + 1));
+        buffer.put(index + 1, (byte) (heldOrigin + 1));
+        buffer.putShort(index + 2, (short) capacity);
+        buffer.putInt(index + 4, movesDone);
+        buffer.putDouble(index + 8, score);
+        for (int word = 0; word < _position.length; word++) {
+            buffer.putLong(index + HEADER_SIZE + word * Long.BYTES, _position[word]);
+        }
+        return encodedSize();
+    }
+
+    /** Reads a snapshot written at the given index, without moving the buffer position.
+     *
+     * @param buffer where the snapshot has been written.
+     * @param index where the snapshot starts.
+     * @return the snapshot.
+     * @throws IllegalArgumentException when there is no snapshot at the index.
+     */
+    public static GameSnapshot readFrom(ByteBuffer buffer, int index) {
+        final int variantCode = buffer.get(index);
+        final int heldOrigin = buffer.get(index + 1) - 1;
+        final int capacity = buffer.getShort(index + 2);
+        if (variantCode < 1 || variantCode > VARIANTS.length || heldOrigin < -1 || heldOrigin > 2
+                || capacity < 1) {
+            throw new IllegalArgumentException("No game snapshot at index " + index);
+        }
+        final GameVariant variant = VARIANTS[variantCode - 1];
+        final long[] position = new long[PositionEncoding.words(variant, capacity)];
+        for (int word = 0; word < position.length; word++) {
+            position[word] = buffer.getLong(index + HEADER_SIZE + word * Long.BYTES);
+        }
+        return new GameSnapshot(variant, capacity, position, heldOrigin, buffer.getInt(index + 4),
+                buffer.getDouble(index + 8));
+    }
+}
@@ -0,0 +1,119 @@
+package com.martialdev.game.hanoitower.core.control;
+
+/** Rule variants of the Hanoi Tower game.
+ *  Every variant starts with the tower in the first pin and ends when the tower is rebuilt in the third pin.
+ *  <ul>
+ *      <li>CLASSIC: a disk can be moved to any pin.</li>
+ *      <li>CYCLIC: disks can only move clockwise: first to second, second to third and third to first.</li>
+ *      <li>ADJACENT: disks can only move between neighbour pins, so first and third pins never exchange disks.</li>
+ *      <li>BICOLOR: there are two disks of each size, a dark one under a light one, and disks with the same
+ *      size can be stacked.  The tower must be rebuilt with the colors in the original order.</li>
+ *  </ul>
+ *  The rules of each variant are kept in plain tables, so the controller checks a move without calling
+ *  any variant specific code.
+ *
+ * @see HanoiTowerControl
+ */
+public enum GameVariant {
+
+    CLASSIC(new boolean[] {
+            false, true, true,
+            true, false, true,
+            true, true, false}, false),
+    CYCLIC(new boolean[] {
+            false, true, false,
+            false, false, true,
+            true, false, false}, false),
+    ADJACENT(new boolean[] {
+            false, true, false,
+            true, false, true,
+            false, true, false}, false),
+    BICOLOR(new boolean[] {
+            false, true, true,
+            true, false, true,
+            true, true, false}, true);
+
+    private static final int PINS = 3;
+
+    private final boolean[] _transfers;
+    private final boolean _bicolor;
+
+    GameVariant(boolean[] transfers, boolean bicolor) {
+        _transfers = transfers;
+        _bicolor = bicolor;
+    }
+
+    /** Returns true if a disk can be moved from the given pin to the other given pin.
+     *
+     * @param from pin where the disk has been grabbed.
+     * @param to pin where the disk is being dropped.
+     * @return true if the variant allows the move.
+     */
+    public boolean allowsTransfer(HanoiTowerControl.PinPosition from, HanoiTowerControl.PinPosition to) {
+        return allowsTransfer(from.ordinal(), to.ordinal());
+    }
+
+    boolean allowsTransfer(int from, int to) {
+        return _transfers[from * PINS + to];
+    }
+
+    /** Returns true if the variant plays with two disks of each size, painted with different colors.
+     *
+     * @return true for bicolor games.
+     */
+    public boolean isBicolor() {
+        return _bicolor;
+    }
+
+    /** Returns how many disks are in a game with the given quantity of disk sizes.
+     *
+     * @param sizes how many disk sizes the game has (the capacity provided when the game starts).
+     * @return how many disks will be moved in the game.
+     */
+    public int disksInTheGame(int sizes) {
+        return _bicolor ? sizes * 2 : sizes;
+    }
+
+    /** Returns the minimum number of moves required to finish a game with the given quantity of disk sizes.
+     *  CLASSIC games require 2^n - 1 moves, ADJACENT games require 3^n - 1 moves, CYCLIC games follow the
+     *  recurrence of clockwise moves and BICOLOR games require 2^(n+2) - 5 moves.
+     *
+     * @param sizes how many disk sizes the game has (the capacity provided when the game starts).
+     * @return the minimum number of moves to finish the game.
+     * @throws IllegalArgumentException when the moves don't fit in a long.
+     */
+    public long minimumMoves(int sizes) {
+        if (sizes <= 0) return 0;
+        try {
+            switch (this) {
+                case CYCLIC:
+                    // one step clockwise (q) and two steps clockwise (r) of a tower with i disks
+                    long q = 0;
+                    long r = 0;
+                    for (int i = 1; i <= sizes; i++) {
+                        long nextQ = Math.addExact(Math.multiplyExact(2, r), 1);
+                        r = Math.addExact(Math.addExact(Math.multiplyExact(2, r), q), 2);
+                        q = nextQ;
+                    }
+                    return r;
+                case ADJACENT:
+                    long power = 1;
+                    for (int i = 0; i < sizes; i++) power = Math.multiplyExact(power, 3);
+                    return power - 1;
+                case BICOLOR:
+                    return Math.subtractExact(Math.multiplyExact(4, powerOfTwo(sizes)), 5);
+                default:
+                    // 2^63 - 1 is the largest long, though 2^63 is not a long
+                    return sizes == Long.SIZE - 1 ? Long.MAX_VALUE : powerOfTwo(sizes) - 1;
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("The moves of a " + this + " game with " + sizes
+                    + " disk sizes don't fit in a long.");
+        }
+    }
+
+    private static long powerOfTwo(int exponent) {
+        if (exponent >= Long.SIZE - 1) throw new ArithmeticException("long overflow");
+        return 1L << exponent;
+    }
+}
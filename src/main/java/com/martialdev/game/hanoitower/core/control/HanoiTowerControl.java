@@ -5,15 +5,25 @@
  */
 package com.martialdev.game.hanoitower.core.control;
 
+import com.martialdev.game.hanoitower.core.control.event.EventType;
 import com.martialdev.game.hanoitower.core.control.event.GameOverEvent;
+import com.martialdev.game.hanoitower.core.control.event.GameRestoredEvent;
 import com.martialdev.game.hanoitower.core.control.event.GameStartEvent;
 import com.martialdev.game.hanoitower.core.control.event.HanoiTowerListener;
+import com.martialdev.game.hanoitower.core.control.event.ListenerRegistration;
 import com.martialdev.game.hanoitower.core.control.event.PinEvent;
+import com.martialdev.game.hanoitower.core.control.event.ProgressEvent;
+import com.martialdev.game.hanoitower.core.control.event.TimeoutEvent;
 import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import com.martialdev.game.hanoitower.core.solver.Hint;
+import com.martialdev.game.hanoitower.core.solver.HintCache;
+import com.martialdev.game.hanoitower.core.solver.OptimalityTracker;
+import com.martialdev.game.hanoitower.core.timer.Timeout;
+import com.martialdev.game.hanoitower.core.timer.TimingWheel;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /** Hanoi Tower Control manages a Hanoi Tower Game.
  *
@@ -25,11 +35,31 @@ public class HanoiTowerControl {
     private static final int PINS_AVAILABLE = 3;
     private final Pin[] _gamePins;
     private Disk _currentDisk;
+    private int _currentDiskOrigin;
     private int _pinCapacity;
     private Disk[] _disksInTheGame;
     private double _score;
-    private int _minimumMovesRequired;
-    private final List<HanoiTowerListener> _hanoiTowerListener;
+    private long _minimumMovesRequired;
+    private GameVariant _variant;
+    private long[] _position;
+    private long _positionHash;
+    private HintCache _hintCache;
+    private OptimalityTracker _optimalityTracker;
+    private TimingWheel _timingWheel;
+    private long _gameTimeLimit;
+    private long _moveTimeLimit;
+    private long _idleTimeLimit;
+    private Timeout _gameTimeout;
+    private Timeout _moveTimeout;
+    private Timeout _idleTimeout;
+    // read by the thread advancing the timing wheel
+    private volatile int _clockGeneration;
+    private volatile int _activity;
+    private volatile int _timedMoves;
+    private volatile boolean _timeIsOver;
+    private final Object _listenerLock = new Object();
+    private volatile ListenerEntry[] _listeners;
+    private volatile int _interests;
 
     /** Enumeration of pins indicating it's position.
      */
@@ -47,8 +77,10 @@ public class HanoiTowerControl {
         _gamePins = new Pin[PINS_AVAILABLE];
         _currentDisk = Disk.DISK_ZERO;
         _disksInTheGame = new Disk[0];
+        _variant = GameVariant.CLASSIC;
+        _position = new long[0];
 
-        _hanoiTowerListener = new ArrayList<>();
+        _listeners = new ListenerEntry[0];
 
     }
 
@@ -60,49 +92,203 @@ public class HanoiTowerControl {
         restartGame(pinCapacity);
     }
 
+    /** Indicate how many disks a Hanoi Tower game will have initially and which rules will be used.
+     *
+     * @param pinCapacity how many disk sizes will be in stake during the game in the first moment.
+     * @param variant the rules of the game.
+     */
+    public void startGame(int pinCapacity, GameVariant variant) {
+        restartGame(pinCapacity, variant);
+    }
+
     /** Indicate how many disks will be moved during the Hanoi Tower game now.
      * Info: Broadcasts a GameStartEvent!!!
      *
      * @param pinCapacity how many disks will be moved during the game now.
      */
     public void restartGame(int pinCapacity) {
+        restartGame(pinCapacity, _variant);
+    }
+
+    /** Indicate how many disks will be moved during the Hanoi Tower game now and which rules will be used.
+     * Bicolor games have two disks of each size, so the pins hold twice the given capacity.
+     * Info: Broadcasts a GameStartEvent!!!
+     *
+     * @param pinCapacity how many disk sizes will be moved during the game now.
+     * @param variant the rules of the game.
+     * @throws IllegalArgumentException when the minimum moves of the game don't fit in a long.
+     */
+    public void restartGame(int pinCapacity, GameVariant variant) {
+        final boolean sameGame = prepareGame(pinCapacity, variant);
+        final int disksInTheGame = _disksInTheGame.length;
+
+        // include all disks in the first pin
+        try {
+            for (int i = disksInTheGame - 1; i >= 0; i--)
+                _gamePins[PinPosition.FIRST_PIN.ordinal()].add(_disksInTheGame[i]);
+        } catch (InvalidMoveException e) {
+            throw new RuntimeException("No exception were expected here.  Something goes wrong and requires immediate action.");
+        }
+
+        if (sameGame) {
+            PositionEncoding.reset(_position, variant, _pinCapacity);
+        } else {
+            _position = PositionEncoding.initial(variant, _pinCapacity);
+        }
+        _positionHash = Zobrist.initial(variant, _pinCapacity);
+        // bicolor games have no optimality tracking, since their continuations are not known
+        if (variant.isBicolor()) {
+            _optimalityTracker = null;
+        } else if (sameGame && _optimalityTracker != null) {
+            _optimalityTracker.reset();
+        } else {
+            _optimalityTracker = new OptimalityTracker(variant, _pinCapacity);
+        }
+        startClocks();
+
+        if (wants(EventType.GAME_START)) broadCastEvent(new GameStartEvent(this._pinCapacity));
+    }
+
+    /** Sets the time limits of the games started or restored from now on.  A zero limit means no limit.
+     *  Timeouts are broadcast as TimeoutEvents from the thread advancing the timing wheel.  When the game
+     *  time or the time of a move is over no more moves are allowed; idle timeouts are only broadcast.
+     *
+     * @param timingWheel the wheel keeping the time, usually shared by many games.
+     * @param gameLimit time to finish the game.
+     * @param moveLimit time to finish each move, counted from the previous move (or from the start).
+     * @param idleLimit time without grabbing or dropping disks before an idle timeout.
+     * @param unit the unit of the limits.
+     */
+    public void setTimeLimits(TimingWheel timingWheel, long gameLimit, long moveLimit, long idleLimit,
+                              TimeUnit unit) {
+        _timingWheel = timingWheel;
+        _gameTimeLimit = unit.toNanos(gameLimit);
+        _moveTimeLimit = unit.toNanos(moveLimit);
+        _idleTimeLimit = unit.toNanos(idleLimit);
+    }
+
+    /** Returns true if the game time or the time of a move is over.
+     *
+     * @return true if the game has timed out.
+     */
+    public boolean isTimeOver() {
+        return _timeIsOver;
+    }
+
+    /** Brings back a game kept in a snapshot.  Listeners are kept, and a GameRestoredEvent tells them that the
+     *  game they were following has been replaced.
+     *
+     * @param snapshot the state of the game.
+     * @throws IllegalArgumentException when the snapshot doesn't hold a valid position.
+     */
+    public void restore(GameSnapshot snapshot) {
+        final GameVariant variant = snapshot.variant;
+        final int sizes = snapshot.capacity;
+        if (sizes < 1) throw new IllegalArgumentException("Snapshot holds a game without disks: " + sizes);
+        if (snapshot.heldOrigin < -1 || snapshot.heldOrigin >= PINS_AVAILABLE) {
+            throw new IllegalArgumentException("Snapshot holds a grabbed disk from no pin: " + snapshot.heldOrigin);
+        }
+        final long[] position = snapshot.position();
+        if (position.length != PositionEncoding.words(variant, sizes)) {
+            throw new IllegalArgumentException("Snapshot position does not match a game with " + sizes + " disks.");
+        }
+        prepareGame(sizes, variant);
+
+        // place the disks from the largest one, so every pin receives them in order
+        try {
+            for (int i = _disksInTheGame.length - 1; i >= 0; i--) {
+                int disk = i;
+                if (variant.isBicolor()) {
+                    // the disk under the other disk of the same size is placed first
+                    final int light = i - i % 2;
+                    final boolean darkUnderLight = PositionEncoding.isDarkUnderLight(position, sizes, light / 2 + 1);
+                    disk = (i % 2 == 1) == darkUnderLight ? light + 1 : light;
+                }
+                final int pin = PositionEncoding.pinOf(position, disk);
+                if (pin == PositionEncoding.HELD) {
+                    if (!Disk.DISK_ZERO.equals(_currentDisk) || snapshot.heldOrigin < 0) {
+                        throw new IllegalArgumentException("Snapshot holds an invalid grabbed disk.");
+                    }
+                    _currentDisk = _disksInTheGame[disk];
+                } else {
+                    _gamePins[pin].add(_disksInTheGame[disk]);
+                }
+            }
+        } catch (InvalidMoveException e) {
+            throw new IllegalArgumentException("Snapshot holds an invalid position: " + e.getMessage());
+        }
+
+        _currentDiskOrigin = Math.max(0, snapshot.heldOrigin);
+        _movesDone = snapshot.movesDone;
+        _score = snapshot.score;
+        _position = position;
+        _positionHash = Zobrist.hash(_position, variant, sizes);
+        if (variant.isBicolor()) {
+            _optimalityTracker = null;
+        } else {
+            final int[] pins = new int[sizes];
+            for (int disk = 0; disk < sizes; disk++) {
+                final int pin = PositionEncoding.pinOf(position, disk);
+                pins[disk] = pin == PositionEncoding.HELD ? _currentDiskOrigin : pin;
+            }
+            _optimalityTracker = new OptimalityTracker(variant, pins);
+        }
+        startClocks();
+
+        if (wants(EventType.GAME_RESTORED)) broadCastEvent(new GameRestoredEvent(snapshot));
+    }
+
+    /** Takes a snapshot of the game, that can be restored later in this or in another controller.
+     *
+     * @return the state of the game.
+     */
+    public GameSnapshot snapshot() {
+        final int heldOrigin = Disk.DISK_ZERO.equals(_currentDisk) ? -1 : _currentDiskOrigin;
+        return new GameSnapshot(_variant, _pinCapacity, _position, heldOrigin, _movesDone, _score);
+    }
+
+    // creates empty pins and the disks of a game
+    private boolean prepareGame(int pinCapacity, GameVariant variant) {
+        // checked before changing anything, so a game too big to be scored leaves the current game as it is
+        final long minimumMoves = variant.minimumMoves(pinCapacity);
+        // pins, disks and trackers of the previous game are reused when the new game has the same shape
+        final boolean sameGame = variant == _variant && pinCapacity == _pinCapacity;
         // set disk capacity of the pins
         this._pinCapacity = pinCapacity;
+        this._variant = variant;
+        final int disksInTheGame = variant.disksInTheGame(pinCapacity);
 
         //initiate pins
         for (int i = 0; i < PINS_AVAILABLE; i++) {
-            this._gamePins[i] = new Pin(this._pinCapacity);
+            if (!sameGame || this._gamePins[i] == null) {
+                this._gamePins[i] = new Pin(disksInTheGame, variant.isBicolor());
+            }
         }
         // no disks are selected, then set it to Disk size zero
-        _currentDisk = new Disk(0);
+        _currentDisk = Disk.DISK_ZERO;
         _movesDone = 0; // no moves done yet
 
         //including disks in the game based on pin capacity
-        _disksInTheGame = new Disk[this._pinCapacity];
-        // initialize disks with size from 1 to pin capacity
-        for (int i = 0; i < this._pinCapacity; i++) {
-            _disksInTheGame[i] = new Disk(i + 1);
+        if (!sameGame) {
+            _disksInTheGame = new Disk[disksInTheGame];
+            // initialize disks with size from 1 to pin capacity, bicolor games have a light disk above a dark one
+            for (int i = 0; i < disksInTheGame; i++) {
+                _disksInTheGame[i] = variant.isBicolor()
+                        ? new Disk(i / 2 + 1, i % 2 == 0 ? Disk.Color.LIGHT : Disk.Color.DARK)
+                        : new Disk(i + 1);
+            }
         }
 
         // indicate that pins will be able to stack the given pin capacity
         for (int i = 0; i < PINS_AVAILABLE; i++) {
-            _gamePins[i].reset(this._pinCapacity);
-        }
-
-        // include all disks in the first pin
-        try {
-            for (int i = this._pinCapacity - 1; i >= 0; i--)
-                _gamePins[PinPosition.FIRST_PIN.ordinal()].add(_disksInTheGame[i]);
-        } catch (InvalidMoveException e) {
-            throw new RuntimeException("No exception were expected here.  Something goes wrong and requires immediate action.");
+            _gamePins[i].reset(disksInTheGame);
         }
 
         //start score and moves
         _movesDone = 0;
         _score = 0.0d;
-        _minimumMovesRequired = (int) Math.pow(2, _pinCapacity) - 1;
-
-        broadCastEvent(new GameStartEvent(this._pinCapacity));
+        _minimumMovesRequired = minimumMoves;
+        return sameGame;
     }
 
     /** Remove a disk from a given pin position.  Returns the removed disk.
@@ -117,83 +303,418 @@ public class HanoiTowerControl {
             throw new InvalidMoveException("Game is over. No more moves allowed.");
         }
 
+        if (_timeIsOver) {
+            throw new InvalidMoveException("Time is over. No more moves allowed.");
+        }
+
         if (!Disk.DISK_ZERO.equals(_currentDisk)) {
             throw new InvalidMoveException("Only one disk can be grabbed per move");
         }
 
         Pin pinSelected = _gamePins[pinPosition.ordinal()];
         _currentDisk = pinSelected.removeDisk();
+        _currentDiskOrigin = pinPosition.ordinal();
+        diskRemoved(_currentDisk, pinPosition.ordinal(), pinSelected.countDisks());
+        restartIdleClock();
 
-        fireDiskRemoved(new PinEvent(this._currentDisk, pinPosition, pinSelected, this._movesDone));
+        if (wants(EventType.DISK_REMOVED)) {
+            fireDiskRemoved(new PinEvent(this._currentDisk, pinPosition, pinSelected, this._movesDone));
+        }
     }
 
     /** Include the given disk in the pin located in the given pin position.
-     * Info: Broadcasts disk added event and game over event (when game is over, of course).
+     * Info: Broadcasts disk added event, progress event (except in bicolor games) and game over event
+     * (when game is over, of course).
      *
      * @param pinPosition FIRST, SECOND or THIRD.
      *
-     * @throws InvalidMoveException - when game is over or no disk is selected
+     * @throws InvalidMoveException - when game is over, no disk is selected or the game rules don't allow the move
      */
     public void dropDisk(PinPosition pinPosition) throws InvalidMoveException {
         if (isGameOver()) {
             throw new InvalidMoveException("Game is over.  No more moves are allowed.");
         }
 
+        if (_timeIsOver) {
+            throw new InvalidMoveException("Time is over.  No more moves are allowed.");
+        }
+
         if (Disk.DISK_ZERO.equals(_currentDisk)) {
             throw new InvalidMoveException("No disk to be dropped has been selected.");
         }
 
+        if (_currentDiskOrigin != pinPosition.ordinal()
+                && !_variant.allowsTransfer(_currentDiskOrigin, pinPosition.ordinal())) {
+            throw new InvalidMoveException(_variant + " rules don't allow moving a disk from "
+                    + PinPosition.values()[_currentDiskOrigin] + " to " + pinPosition);
+        }
+
         Pin pinSelected = _gamePins[pinPosition.ordinal()];
         pinSelected.add(_currentDisk);
+        diskAdded(_currentDisk, pinPosition.ordinal(), pinSelected.countDisks() - 1);
         _movesDone++;
+        restartMoveClock();
+        restartIdleClock();
 
         // calculating rating
         if (_movesDone >= _minimumMovesRequired) {
             _score = (double) _minimumMovesRequired / (double) _movesDone;
         }
 
-        fireDiskAdded(new PinEvent(_currentDisk, pinPosition, pinSelected, this._movesDone));
+        if (wants(EventType.DISK_ADDED)) {
+            fireDiskAdded(new PinEvent(_currentDisk, pinPosition, pinSelected, this._movesDone));
+        }
+
+        if (_optimalityTracker != null) {
+            final boolean optimalMove = _optimalityTracker.diskMoved(_currentDisk.getSize() - 1, pinPosition.ordinal());
+            if (wants(EventType.PROGRESS)) {
+                final long remainingMoves = _optimalityTracker.distance();
+                final long projectedMoves = _movesDone + remainingMoves;
+                broadCastEvent(new ProgressEvent(optimalMove, remainingMoves, projectedMoves - _minimumMovesRequired,
+                        projectedMoves == 0 ? 1d : (double) _minimumMovesRequired / projectedMoves));
+            }
+        }
 
         _currentDisk = Disk.DISK_ZERO;
 
         if (isGameOver()) {
-            broadCastEvent(new GameOverEvent(this._movesDone, this._score));
+            stopClocks();
+            if (wants(EventType.GAME_OVER)) broadCastEvent(new GameOverEvent(this._movesDone, this._score));
         }
     }
 
-    // test if the game is over
+    // schedules the time limits of a game that has just started
+    private void startClocks() {
+        stopClocks();
+        _timeIsOver = false;
+        if (_timingWheel == null) return;
+        final int generation = _clockGeneration;
+        if (_gameTimeLimit > 0) {
+            _gameTimeout = _timingWheel.schedule(() -> timedOut(TimeoutEvent.Kind.GAME, generation, 0),
+                    _gameTimeLimit, TimeUnit.NANOSECONDS);
+        }
+        restartMoveClock();
+        restartIdleClock();
+    }
+
+    private void restartMoveClock() {
+        if (_timingWheel == null || _moveTimeLimit <= 0) return;
+        if (_moveTimeout != null) _moveTimeout.cancel();
+        final int generation = _clockGeneration;
+        final int moves = _movesDone;
+        _timedMoves = moves;
+        _moveTimeout = _timingWheel.schedule(() -> timedOut(TimeoutEvent.Kind.MOVE, generation, moves),
+                _moveTimeLimit, TimeUnit.NANOSECONDS);
+    }
+
+    private void restartIdleClock() {
+        final int activity = ++_activity;
+        if (_timingWheel == null || _idleTimeLimit <= 0) return;
+        if (_idleTimeout != null) _idleTimeout.cancel();
+        final int generation = _clockGeneration;
+        _idleTimeout = _timingWheel.schedule(() -> timedOut(TimeoutEvent.Kind.IDLE, generation, activity),
+                _idleTimeLimit, TimeUnit.NANOSECONDS);
+    }
+
+    private void stopClocks() {
+        _clockGeneration++;
+        if (_gameTimeout != null) _gameTimeout.cancel();
+        if (_moveTimeout != null) _moveTimeout.cancel();
+        if (_idleTimeout != null) _idleTimeout.cancel();
+        _gameTimeout = null;
+        _moveTimeout = null;
+        _idleTimeout = null;
+    }
+
+    // runs in the thread advancing the timing wheel; stale timeouts are ignored
+    private void timedOut(TimeoutEvent.Kind kind, int generation, int stamp) {
+        if (generation != _clockGeneration) return;
+        if (kind == TimeoutEvent.Kind.IDLE && stamp != _activity) return;
+        if (kind == TimeoutEvent.Kind.MOVE && stamp != _timedMoves) return;
+        if (kind != TimeoutEvent.Kind.IDLE) _timeIsOver = true;
+        if (wants(EventType.TIMEOUT)) broadCastEvent(new TimeoutEvent(kind, _movesDone));
+    }
+
+    // test if the game is over, without copying the pins
     private boolean isGameOver() {
-        if (Arrays.stream(_gamePins[PinPosition.FIRST_PIN.ordinal()].getDisks())
-                .anyMatch(disk -> !Disk.DISK_ZERO.equals(disk))) {
-            return false; 
+        if (_gamePins[PinPosition.FIRST_PIN.ordinal()].countDisks() > 0) {
+            return false;
         }
 
-        return Arrays.stream(_gamePins[PinPosition.THIRD_PIN.ordinal()].getDisks())
-                .noneMatch(Disk.DISK_ZERO::equals);
+        final Pin thirdPin = _gamePins[PinPosition.THIRD_PIN.ordinal()];
+        if (thirdPin.countDisks() < _disksInTheGame.length) {
+            return false;
+        }
+
+        // bicolor towers must be rebuilt with the colors in the original order
+        if (_variant.isBicolor()) {
+            for (int i = 0; i < _disksInTheGame.length; i++) {
+                if (thirdPin.diskAt(i).getColor() != _disksInTheGame[_disksInTheGame.length - 1 - i].getColor()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // keep position encoding and hash up to date
+    private void diskRemoved(Disk disk, int pin, int height) {
+        final int diskIndex = PositionEncoding.diskIndex(disk, _variant.isBicolor());
+        PositionEncoding.setPin(_position, diskIndex, PositionEncoding.HELD);
+        if (_variant.isBicolor()) {
+            PositionEncoding.setDarkUnderLight(_position, _pinCapacity, disk.getSize(), false);
+        }
+        _positionHash ^= Zobrist.key(diskIndex, pin, height) ^ Zobrist.heldKey(diskIndex);
+    }
+
+    private void diskAdded(Disk disk, int pin, int height) {
+        final int diskIndex = PositionEncoding.diskIndex(disk, _variant.isBicolor());
+        PositionEncoding.setPin(_position, diskIndex, pin);
+        if (_variant.isBicolor() && disk.getColor() == Disk.Color.LIGHT
+                && PositionEncoding.pinOf(_position, diskIndex + 1) == pin) {
+            // the dark disk of the same size can only be right under the light disk
+            PositionEncoding.setDarkUnderLight(_position, _pinCapacity, disk.getSize(), true);
+        }
+        _positionHash ^= Zobrist.heldKey(diskIndex) ^ Zobrist.key(diskIndex, pin, height);
+    }
+
+    /** Returns the Zobrist hash of the current position, updated in constant time on every move.
+     *  Equal positions of the same game have equal hashes; use matchesPosition to rule out collisions.
+     *
+     * @return the hash of the position.
+     * @see Zobrist
+     */
+    public long positionHash() {
+        return _positionHash;
+    }
+
+    /** Returns the encoding of the current position.
+     *
+     * @return a copy of the encoded position.
+     * @see PositionEncoding
+     */
+    public long[] encodePosition() {
+        return _position.clone();
+    }
+
+    /** Returns true if the current position is the given encoded position.
+     *
+     * @param encoded an encoded position of a game with the same variant and capacity.
+     * @return true if the positions are equal.
+     */
+    public boolean matchesPosition(long[] encoded) {
+        return PositionEncoding.equals(_position, encoded);
+    }
+
+    /** Returns the optimal continuation of the game from the current position.
+     *  Hints are taken from the hint cache, so positions reached by many players are solved only once.
+     *  When a disk is grabbed, the hint considers it back in the pin it came from.
+     *
+     * @return the hint.
+     * @throws UnsupportedOperationException when the game is bicolor.
+     * @throws IllegalStateException when no game has been started.
+     */
+    public Hint hint() {
+        if (_pinCapacity < 0) throw new IllegalStateException("No game has been started.");
+        final int heldOrigin = Disk.DISK_ZERO.equals(_currentDisk) ? -1 : _currentDiskOrigin;
+        final HintCache hintCache = _hintCache != null ? _hintCache : HintCache.shared();
+        return hintCache.hint(_variant, _pinCapacity, _position, heldOrigin);
+    }
+
+    /** Replaces the cache consulted by hint requests.  Controllers use HintCache.shared() unless told otherwise.
+     *
+     * @param hintCache the cache to be used.
+     */
+    public void setHintCache(HintCache hintCache) {
+        _hintCache = hintCache;
+    }
+
+    /** Returns the disks in the pin located in the given position, from the bottom to the top of the pin.
+     *  Empty places of the pin hold DISK_ZERO.
+     *
+     * @param pinPosition FIRST, SECOND or THIRD.
+     * @return a copy of the disks in the pin (empty before the game starts).  No changes in the returned
+     * array affect the game.
+     */
+    public Disk[] getDisks(PinPosition pinPosition) {
+        final Pin pin = _gamePins[pinPosition.ordinal()];
+        return pin == null ? new Disk[0] : pin.getDisks();
+    }
+
+    /** Returns the rules of the current game.
+     *
+     * @return the variant being played.
+     */
+    public GameVariant getVariant() {
+        return _variant;
     }
 
     /** Include an event listener that will receive Hanoi Tower game notifications.
      *
      * @param listener the object that will be called when an event is risen.
+     * @return the registration, used to remove the listener.
      */
-    public void addListener(HanoiTowerListener listener) {
-        this._hanoiTowerListener.add(listener);
+    public ListenerRegistration addListener(HanoiTowerListener listener) {
+        return addListener(listener, EventType.ALL);
+    }
+
+    /** Include an event listener that will receive only the given types of events.  Events no listener wants
+     *  are not even created.
+     *
+     * @param listener the object that will be called when an event is risen.
+     * @param interests mask of the wanted event types (see EventType.mask).
+     * @return the registration, used to remove the listener.
+     */
+    public ListenerRegistration addListener(HanoiTowerListener listener, int interests) {
+        final ListenerEntry entry = new ListenerEntry(listener, interests);
+        synchronized (_listenerLock) {
+            final ListenerEntry[] listeners = Arrays.copyOf(_listeners, _listeners.length + 1);
+            listeners[listeners.length - 1] = entry;
+            publishListeners(listeners);
+        }
+        return () -> removeEntry(entry);
+    }
+
+    /** Subscribe to a single type of event.
+     *
+     * @param type the type of the events.
+     * @param consumer called with each event of the type.
+     * @param <E> the class of the events.
+     * @return the registration, used to cancel the subscription.
+     */
+    @SuppressWarnings("unchecked")
+    public <E> ListenerRegistration subscribe(EventType<E> type, Consumer<? super E> consumer) {
+        final Consumer<Object> forward = (Consumer<Object>) consumer;
+        // the interest mask makes sure only the methods of the given type are called
+        return addListener(new HanoiTowerListener() {
+            @Override
+            public void hanoiTowerEvent(GameOverEvent event) {
+                forward.accept(event);
+            }
+
+            @Override
+            public void fireDiskRemoved(PinEvent event) {
+                forward.accept(event);
+            }
+
+            @Override
+            public void fireDiskAdded(PinEvent event) {
+                forward.accept(event);
+            }
+
+            @Override
+            public void hanoiTowerEvent(GameStartEvent event) {
+                forward.accept(event);
+            }
+
+            @Override
+            public void hanoiTowerEvent(ProgressEvent event) {
+                forward.accept(event);
+            }
+
+            @Override
+            public void hanoiTowerEvent(TimeoutEvent event) {
+                forward.accept(event);
+            }
+
+            @Override
+            public void hanoiTowerEvent(GameRestoredEvent event) {
+                forward.accept(event);
+            }
+        }, type.mask);
+    }
+
+    /** Remove every registration of the given listener.
+     *
+     * @param listener the listener.
+     * @return true if the listener had been added.
+     */
+    public boolean removeListener(HanoiTowerListener listener) {
+        synchronized (_listenerLock) {
+            final ListenerEntry[] listeners = new ListenerEntry[_listeners.length];
+            int count = 0;
+            for (ListenerEntry entry : _listeners) {
+                if (entry.listener != listener) listeners[count++] = entry;
+            }
+            if (count == _listeners.length) return false;
+            publishListeners(Arrays.copyOf(listeners, count));
+            return true;
+        }
+    }
+
+    private void removeEntry(ListenerEntry removed) {
+        synchronized (_listenerLock) {
+            final ListenerEntry[] listeners = new ListenerEntry[_listeners.length];
+            int count = 0;
+            for (ListenerEntry entry : _listeners) {
+                if (entry != removed) listeners[count++] = entry;
+            }
+            if (count < _listeners.length) publishListeners(Arrays.copyOf(listeners, count));
+        }
+    }
+
+    // listeners are copied on write, so broadcasts read a stable array and listeners may be removed meanwhile
+    private void publishListeners(ListenerEntry[] listeners) {
+        int interests = 0;
+        for (ListenerEntry entry : listeners) interests |= entry.interests;
+        _listeners = listeners;
+        _interests = interests;
+    }
+
+    private boolean wants(EventType<?> type) {
+        return (_interests & type.mask) != 0;
+    }
+
+    private static final class ListenerEntry {
+        final HanoiTowerListener listener;
+        final int interests;
+
+        ListenerEntry(HanoiTowerListener listener, int interests) {
+            this.listener = listener;
+            this.interests = interests;
+        }
     }
 
     // event broadcaster
     private void fireDiskAdded(PinEvent event) {
-        _hanoiTowerListener.forEach(listener -> listener.fireDiskAdded(event));
+        for (ListenerEntry entry : _listeners) {
+            if ((entry.interests & EventType.DISK_ADDED.mask) != 0) entry.listener.fireDiskAdded(event);
+        }
     }
 
     private void broadCastEvent(GameOverEvent event) {
-        _hanoiTowerListener.forEach(listener -> listener.hanoiTowerEvent(event));
+        for (ListenerEntry entry : _listeners) {
+            if ((entry.interests & EventType.GAME_OVER.mask) != 0) entry.listener.hanoiTowerEvent(event);
+        }
     }
 
     private void fireDiskRemoved(PinEvent event) {
-        _hanoiTowerListener.forEach(listener -> listener.fireDiskRemoved(event));
+        for (ListenerEntry entry : _listeners) {
+            if ((entry.interests & EventType.DISK_REMOVED.mask) != 0) entry.listener.fireDiskRemoved(event);
+        }
+    }
+
+    private void broadCastEvent(ProgressEvent event) {
+        for (ListenerEntry entry : _listeners) {
+            if ((entry.interests & EventType.PROGRESS.mask) != 0) entry.listener.hanoiTowerEvent(event);
+        }
+    }
+
+    private void broadCastEvent(TimeoutEvent event) {
+        for (ListenerEntry entry : _listeners) {
+            if ((entry.interests & EventType.TIMEOUT.mask) != 0) entry.listener.hanoiTowerEvent(event);
+        }
+    }
+
+    private void broadCastEvent(GameRestoredEvent event) {
+        for (ListenerEntry entry : _listeners) {
+            if ((entry.interests & EventType.GAME_RESTORED.mask) != 0) entry.listener.hanoiTowerEvent(event);
+        }
     }
 
     private void broadCastEvent(GameStartEvent event) {
-        _hanoiTowerListener.forEach(listener -> listener.hanoiTowerEvent(event));
+        for (ListenerEntry entry : _listeners) {
+            if ((entry.interests & EventType.GAME_START.mask) != 0) entry.listener.hanoiTowerEvent(event);
+        }
     }
-}
\ No newline at end of file
+}
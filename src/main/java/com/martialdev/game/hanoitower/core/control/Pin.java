@@ -15,19 +15,32 @@ import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveExceptio
  */
 public class Pin {
     private final DiskStack diskStack;
+    private final boolean acceptsEqualSizes;
 
     /** Initialize a Pin with a capacity.
      *
      * @param howManyDisks - provide how many disks a pin must have
      */
     public Pin(int howManyDisks) {
+        this(howManyDisks, false);
+    }
+
+    /** Initialize a Pin with a capacity, indicating if disks with the same size can be stacked on each other.
+     *  Bicolor games have two disks of each size, so their pins must accept equal sizes.
+     *
+     * @param howManyDisks - provide how many disks a pin must have
+     * @param acceptsEqualSizes - true if a disk can be put above another disk with the same size
+     */
+    public Pin(int howManyDisks, boolean acceptsEqualSizes) {
 
         diskStack = new DiskStack(howManyDisks);
+        this.acceptsEqualSizes = acceptsEqualSizes;
     }
 
     /** Add a disk in the Pin.
      *  If a disk has size zero, throws an InvalidMoveException.
      *  If the disk on the top of this pin is lesser than the disk to be stacked, throws an InvalidMoveException.
+     *  A disk with the same size of the top disk is refused too, unless the pin accepts equal sizes.
      *
      * @param diskToBeStacked - disk that must be put in the pin
      * @throws InvalidMoveException - when disk is zero or disk is bigger than last disk added
@@ -39,7 +52,8 @@ public class Pin {
             diskStack.push(diskToBeStacked);
             return;
         }
-        if (diskStack.top().compareTo(diskToBeStacked) < 1) {
+        int comparison = diskStack.top().compareTo(diskToBeStacked);
+        if (comparison < 0 || (comparison == 0 && !acceptsEqualSizes)) {
             throw new InvalidMoveException(
                     "This pin can't receive " + diskToBeStacked + " since it's greater than " + diskStack.top());
         } else diskStack.push(diskToBeStacked);
@@ -66,6 +80,19 @@ public class Pin {
         return diskStack.content();
     }
 
+    // the disk in the given place from the bottom of the pin, without copying the disks
+    Disk diskAt(int position) {
+        return diskStack.get(position);
+    }
+
+    /** Return how many disks are in the pin.
+     *
+     * @return the quantity of disks stacked in the pin.
+     */
+    public int countDisks() {
+        return diskStack.size();
+    }
+
     /** Provide a new capacity for the pin.
      *
      * @param howManyDisks the new capacity of the pin.
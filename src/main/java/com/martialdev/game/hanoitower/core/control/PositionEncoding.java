@@ -0,0 +1,126 @@
+package com.martialdev.game.hanoitower.core.control;
+
+import java.util.Arrays;
+
+/** Compact encoding of a game position: where each disk is.
+ *  Disks are numbered from the smallest one (in bicolor games the light disk of a size comes before the
+ *  dark one) and each disk takes two bits: the ordinal of its pin, or HELD when the disk is grabbed.
+ *  Bicolor positions have one more bit for each size, set when the dark disk lies right under the light disk
+ *  of the same size.  In the other variants the order of the disks in a pin follows from their sizes.
+ *
+ * @see HanoiTowerControl#encodePosition()
+ */
+public final class PositionEncoding {
+
+    /** Code of a disk that has been grabbed.
+     */
+    public static final int HELD = 3;
+
+    private static final int DISKS_PER_WORD = 32;
+
+    private PositionEncoding() {
+    }
+
+    /** Returns how many longs encode a position of the given game.
+     *
+     * @param variant rules of the game.
+     * @param sizes how many disk sizes the game has.
+     * @return the length of the encoding.
+     */
+    public static int words(GameVariant variant, int sizes) {
+        final int diskWords = (variant.disksInTheGame(sizes) + DISKS_PER_WORD - 1) / DISKS_PER_WORD;
+        return variant.isBicolor() ? diskWords + (sizes + 63) / 64 : diskWords;
+    }
+
+    /** Returns the number of a disk in the encoding.
+     *
+     * @param disk the disk.
+     * @param bicolor true if the disk is in a bicolor game.
+     * @return the number of the disk, starting from zero.
+     */
+    public static int diskIndex(Disk disk, boolean bicolor) {
+        return bicolor ? (disk.getSize() - 1) * 2 + (disk.getColor() == Disk.Color.DARK ? 1 : 0) : disk.getSize() - 1;
+    }
+
+    /** Returns where the given disk is.
+     *
+     * @param encoded the encoded position.
+     * @param disk the number of the disk.
+     * @return the ordinal of the pin holding the disk, or HELD.
+     */
+    public static int pinOf(long[] encoded, int disk) {
+        return (int) (encoded[disk / DISKS_PER_WORD] >>> ((disk % DISKS_PER_WORD) * 2)) & 3;
+    }
+
+    static void setPin(long[] encoded, int disk, int pin) {
+        final int word = disk / DISKS_PER_WORD;
+        final int shift = (disk % DISKS_PER_WORD) * 2;
+        encoded[word] = (encoded[word] & ~(3L << shift)) | ((long) pin << shift);
+    }
+
+    /** Returns true if the dark disk of the given size lies right under the light disk of the same size.
+     *
+     * @param encoded the encoded position of a bicolor game.
+     * @param sizes how many disk sizes the game has.
+     * @param size the size of the disks.
+     * @return true if the dark disk is under the light disk.
+     */
+    public static boolean isDarkUnderLight(long[] encoded, int sizes, int size) {
+        final int bit = size - 1;
+        return (encoded[orderWord(sizes, bit)] & (1L << (bit % 64))) != 0;
+    }
+
+    static void setDarkUnderLight(long[] encoded, int sizes, int size, boolean darkUnderLight) {
+        final int bit = size - 1;
+        final int word = orderWord(sizes, bit);
+        encoded[word] = darkUnderLight ? encoded[word] | (1L << (bit % 64)) : encoded[word] & ~(1L << (bit % 64));
+    }
+
+    private static int orderWord(int sizes, int bit) {
+        return (sizes * 2 + DISKS_PER_WORD - 1) / DISKS_PER_WORD + bit / 64;
+    }
+
+    /** Encodes the initial position of a game: the whole tower in the first pin.
+     *
+     * @param variant rules of the game.
+     * @param sizes how many disk sizes the game has.
+     * @return the encoded position.
+     */
+    public static long[] initial(GameVariant variant, int sizes) {
+        final long[] encoded = new long[words(variant, sizes)];
+        reset(encoded, variant, sizes);
+        return encoded;
+    }
+
+    // rewrites an encoding of the same game with the initial position
+    static void reset(long[] encoded, GameVariant variant, int sizes) {
+        Arrays.fill(encoded, 0L);
+        if (variant.isBicolor()) {
+            for (int size = 1; size <= sizes; size++) {
+                setDarkUnderLight(encoded, sizes, size, true);
+            }
+        }
+    }
+
+    /** Encodes a position of a game without colors from the pin of each disk.
+     *
+     * @param pins the ordinal of the pin of each disk, from the smallest disk.
+     * @param encoded where the position is written, with the length given by words.
+     */
+    public static void encode(int[] pins, long[] encoded) {
+        Arrays.fill(encoded, 0L);
+        for (int disk = 0; disk < pins.length; disk++) {
+            encoded[disk / DISKS_PER_WORD] |= (long) pins[disk] << ((disk % DISKS_PER_WORD) * 2);
+        }
+    }
+
+    /** Returns true if both encoded positions are the same.
+     *
+     * @param encoded1 an encoded position.
+     * @param encoded2 another encoded position.
+     * @return true if the positions are equal.
+     */
+    public static boolean equals(long[] encoded1, long[] encoded2) {
+        return Arrays.equals(encoded1, encoded2);
+    }
+}
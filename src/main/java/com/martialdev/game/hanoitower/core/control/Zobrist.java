@@ -0,0 +1,112 @@
+package com.martialdev.game.hanoitower.core.control;
+
+/** Zobrist hashing of game positions.
+ *  The hash of a position is the XOR of a key for each disk, chosen by the disk, its pin and its height in
+ *  the pin (or by the disk alone when it's grabbed), plus a key for the game.  Moving a disk changes two keys,
+ *  so the hash is updated in constant time.  Keys are derived from their indexes by a mixing function, so no
+ *  tables are needed.
+ *
+ * @see HanoiTowerControl#positionHash()
+ */
+public final class Zobrist {
+
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final int PINS = 3;
+
+    private Zobrist() {
+    }
+
+    /** Returns the key of a disk lying in a pin.
+     *
+     * @param disk number of the disk (see PositionEncoding).
+     * @param pin ordinal of the pin.
+     * @param height how many disks are under the disk.
+     * @return the key.
+     */
+    public static long key(int disk, int pin, int height) {
+        return mix(((long) (disk * (PINS + 1) + pin) << 16) | height);
+    }
+
+    /** Returns the key of a grabbed disk.
+     *
+     * @param disk number of the disk (see PositionEncoding).
+     * @return the key.
+     */
+    public static long heldKey(int disk) {
+        return mix((long) (disk * (PINS + 1) + PositionEncoding.HELD) << 16);
+    }
+
+    /** Returns the key of a game, so equal looking positions of different games have different hashes.
+     *
+     * @param variant rules of the game.
+     * @param sizes how many disk sizes the game has.
+     * @return the key.
+     */
+    public static long gameKey(GameVariant variant, int sizes) {
+        return mix(~(((long) variant.ordinal() << 32) | sizes));
+    }
+
+    /** Calculates the hash of an encoded position from scratch.
+     *
+     * @param encoded the encoded position.
+     * @param variant rules of the game.
+     * @param sizes how many disk sizes the game has.
+     * @return the hash of the position, equal to the hash kept by a controller in the same position.
+     */
+    public static long hash(long[] encoded, GameVariant variant, int sizes) {
+        final boolean bicolor = variant.isBicolor();
+        final int[] heights = new int[PINS];
+        long hash = gameKey(variant, sizes);
+        // placing disks from the largest one gives the height of each disk
+        for (int size = sizes; size >= 1; size--) {
+            if (!bicolor) {
+                hash ^= placedKey(size - 1, PositionEncoding.pinOf(encoded, size - 1), heights);
+                continue;
+            }
+            final int light = (size - 1) * 2;
+            final int dark = light + 1;
+            if (PositionEncoding.isDarkUnderLight(encoded, sizes, size)) {
+                hash ^= placedKey(dark, PositionEncoding.pinOf(encoded, dark), heights);
+                hash ^= placedKey(light, PositionEncoding.pinOf(encoded, light), heights);
+            } else {
+                hash ^= placedKey(light, PositionEncoding.pinOf(encoded, light), heights);
+                hash ^= placedKey(dark, PositionEncoding.pinOf(encoded, dark), heights);
+            }
+        }
+        return hash;
+    }
+
+    /** Returns the hash of the position a game starts from, with every disk in the first pin.
+     *
+     * @param variant rules of the game.
+     * @param sizes how many disk sizes the game has.
+     * @return the hash of the initial position, equal to hash(PositionEncoding.initial(variant, sizes), ...).
+     */
+    public static long initial(GameVariant variant, int sizes) {
+        long hash = gameKey(variant, sizes);
+        for (int size = sizes; size >= 1; size--) {
+            if (!variant.isBicolor()) {
+                hash ^= key(size - 1, 0, sizes - size);
+                continue;
+            }
+            // the dark disk starts under the light one
+            final int light = (size - 1) * 2;
+            hash ^= key(light + 1, 0, (sizes - size) * 2);
+            hash ^= key(light, 0, (sizes - size) * 2 + 1);
+        }
+        return hash;
+    }
+
+    private static long placedKey(int disk, int pin, int[] heights) {
+        return pin == PositionEncoding.HELD ? heldKey(disk) : key(disk, pin, heights[pin]++);
+    }
+
+    // finalizer of SplitMix64
+    private static long mix(long index) {
+        long z = SEED + index * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
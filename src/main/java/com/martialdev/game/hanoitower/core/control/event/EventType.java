@@ -0,0 +1,38 @@
+package com.martialdev.game.hanoitower.core.control.event;
+
+/** Types of the events broadcast by the controller, used to subscribe to a single type of event or to tell
+ *  the controller which events a listener wants.  Each type has a bit in the interest masks.
+ *
+ * @param <E> the class of the events of the type.
+ */
+public final class EventType<E> {
+
+    public static final EventType<GameStartEvent> GAME_START = new EventType<>(0);
+    public static final EventType<PinEvent> DISK_REMOVED = new EventType<>(1);
+    public static final EventType<PinEvent> DISK_ADDED = new EventType<>(2);
+    public static final EventType<ProgressEvent> PROGRESS = new EventType<>(3);
+    public static final EventType<GameOverEvent> GAME_OVER = new EventType<>(4);
+    public static final EventType<TimeoutEvent> TIMEOUT = new EventType<>(5);
+    public static final EventType<GameRestoredEvent> GAME_RESTORED = new EventType<>(6);
+
+    /** Interest mask of all event types.
+     */
+    public static final int ALL = (1 << 7) - 1;
+
+    public final int mask;
+
+    private EventType(int bit) {
+        this.mask = 1 << bit;
+    }
+
+    /** Returns the interest mask of the given event types.
+     *
+     * @param types the event types.
+     * @return the mask with the bits of the types.
+     */
+    public static int mask(EventType<?>... types) {
+        int mask = 0;
+        for (EventType<?> type : types) mask |= type.mask;
+        return mask;
+    }
+}
@@ -0,0 +1,12 @@
+package com.martialdev.game.hanoitower.core.control.event;
+
+import com.martialdev.game.hanoitower.core.control.GameSnapshot;
+
+public class GameRestoredEvent {
+
+    public final GameSnapshot snapshot;
+
+    public GameRestoredEvent(GameSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+}
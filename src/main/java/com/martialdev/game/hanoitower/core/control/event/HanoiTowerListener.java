@@ -2,8 +2,11 @@ package com.martialdev.game.hanoitower.core.control.event;
 
 public interface HanoiTowerListener {
 
-    void hanoiTowerEvent(GameOverEvent event);
-    void fireDiskRemoved(PinEvent event);
-    void fireDiskAdded(PinEvent event);
-    void hanoiTowerEvent(GameStartEvent event);
+    default void hanoiTowerEvent(GameOverEvent event) {}
+    default void fireDiskRemoved(PinEvent event) {}
+    default void fireDiskAdded(PinEvent event) {}
+    default void hanoiTowerEvent(GameStartEvent event) {}
+    default void hanoiTowerEvent(ProgressEvent event) {}
+    default void hanoiTowerEvent(TimeoutEvent event) {}
+    default void hanoiTowerEvent(GameRestoredEvent event) {}
 }
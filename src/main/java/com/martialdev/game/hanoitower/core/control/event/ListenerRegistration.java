@@ -0,0 +1,12 @@
+package com.martialdev.game.hanoitower.core.control.event;
+
+/** Handle of a listener added to a controller, used to remove it.
+ */
+@FunctionalInterface
+public interface ListenerRegistration {
+
+    /** Stops sending events to the listener.  Can be called while events are broadcast, even by the listener
+     *  itself; removing a listener twice does nothing.
+     */
+    void remove();
+}
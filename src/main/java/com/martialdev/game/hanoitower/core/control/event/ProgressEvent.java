@@ -0,0 +1,16 @@
+package com.martialdev.game.hanoitower.core.control.event;
+
+public class ProgressEvent {
+
+    public final boolean optimalMove;
+    public final long remainingMoves;
+    public final long extraMoves;
+    public final double efficiency;
+
+    public ProgressEvent(boolean optimalMove, long remainingMoves, long extraMoves, double efficiency) {
+        this.optimalMove = optimalMove;
+        this.remainingMoves = remainingMoves;
+        this.extraMoves = extraMoves;
+        this.efficiency = efficiency;
+    }
+}
@@ -0,0 +1,16 @@
+package com.martialdev.game.hanoitower.core.control.event;
+
+public class TimeoutEvent {
+
+    public enum Kind {
+        GAME, MOVE, IDLE
+    }
+
+    public final Kind kind;
+    public final int movesDone;
+
+    public TimeoutEvent(Kind kind, int movesDone) {
+        this.kind = kind;
+        this.movesDone = movesDone;
+    }
+}
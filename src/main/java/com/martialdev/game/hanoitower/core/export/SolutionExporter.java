@@ -0,0 +1,92 @@
+package com.martialdev.game.hanoitower.core.export;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.solver.MoveSequence;
+import com.martialdev.game.hanoitower.core.solver.Solutions;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static com.martialdev.game.hanoitower.core.export.SolutionFormat.HEADER_SIZE;
+import static com.martialdev.game.hanoitower.core.export.SolutionFormat.MOVES_PER_WORD;
+import static com.martialdev.game.hanoitower.core.export.SolutionFormat.MOVE_BITS;
+import static com.martialdev.game.hanoitower.core.export.SolutionFormat.WINDOW_SIZE;
+
+/** Writes the optimal solution of a game to a file, with each move packed in 3 bits.
+ *  The file is written through memory mapped windows, so moves go from the solution to the page cache
+ *  without passing through streams or intermediate buffers.
+ *
+ * @see SolutionReader
+ * @see SolutionFormat
+ */
+public final class SolutionExporter {
+
+    private SolutionExporter() {
+    }
+
+    /** Writes the optimal solution of a game.
+     *
+     * @param variant rules of the game.
+     * @param disks how many disks (disk sizes in bicolor games) the game has.
+     * @param file where the solution is written; an existing file is replaced.
+     * @return how many moves have been written.
+     * @throws IOException when the file can't be written.
+     */
+    public static long export(GameVariant variant, int disks, Path file) throws IOException {
+        final long moves = variant.minimumMoves(disks);
+        final long fileSize = SolutionFormat.fileSize(moves);
+        final MoveSequence solution = Solutions.optimal(variant, disks);
+        try (RandomAccessFile output = new RandomAccessFile(file.toFile(), "rw");
+             FileChannel channel = output.getChannel()) {
+            output.setLength(fileSize);
+            final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.order(SolutionFormat.ORDER);
+            header.putLong(0, SolutionFormat.MAGIC);
+            header.putInt(8, SolutionFormat.VERSION);
+            header.putInt(12, variant.ordinal());
+            header.putInt(16, disks);
+            header.putLong(24, moves);
+
+            long position = HEADER_SIZE;
+            while (position < fileSize) {
+                final long windowSize = Math.min(WINDOW_SIZE, fileSize - position);
+                final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_WRITE, position, windowSize);
+                window.order(SolutionFormat.ORDER);
+                for (int index = 0; index < windowSize; index += Long.BYTES) {
+                    long word = 0;
+                    for (int move = 0; move < MOVES_PER_WORD && solution.next(); move++) {
+                        word |= (long) SolutionFormat.code(solution.from().ordinal(), solution.to().ordinal())
+                                << (move * MOVE_BITS);
+                    }
+                    window.putLong(index, word);
+                }
+                window.force();
+                position += windowSize;
+            }
+        }
+        return moves;
+    }
+
+    /** Command line entry point: SolutionExporter disks file [variant].
+     *
+     * @param args the quantity of disks, the file and optionally the variant (CLASSIC by default).
+     * @throws IOException when the file can't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SolutionExporter <disks> <file> [CLASSIC|CYCLIC|ADJACENT|BICOLOR]");
+            System.exit(1);
+        }
+        final int disks = Integer.parseInt(args[0]);
+        final GameVariant variant = args.length > 2 ? GameVariant.valueOf(args[2].toUpperCase()) : GameVariant.CLASSIC;
+        final long start = System.nanoTime();
+        final long moves = export(variant, disks, Paths.get(args[1]));
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d moves of %s with %d disks written in %.2f s (%.0f moves/s)%n", moves, variant, disks,
+                seconds, moves / seconds);
+    }
+}
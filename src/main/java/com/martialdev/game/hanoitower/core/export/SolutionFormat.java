@@ -0,0 +1,41 @@
+package com.martialdev.game.hanoitower.core.export;
+
+import java.nio.ByteOrder;
+
+/** Layout of solution files (little endian):
+ *  <pre>
+ *  bytes 0-7   : magic number
+ *  bytes 8-11  : version
+ *  bytes 12-15 : variant ordinal
+ *  bytes 16-19 : disks (the capacity of the game)
+ *  bytes 20-23 : reserved
+ *  bytes 24-31 : quantity of moves
+ *  bytes 32-   : moves, 21 moves of 3 bits in each long, from the lowest bits
+ *  </pre>
+ *  The 3 bits of a move are the index of the pair of pins (from, to) among the six possible pairs.
+ */
+final class SolutionFormat {
+
+    static final long MAGIC = 0x4C4F53494F4E4148L; // "HANOISOL" read as little endian
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int MOVES_PER_WORD = 21;
+    static final int MOVE_BITS = 3;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+    // regions are mapped in windows, since a mapped buffer holds at most 2 GB
+    static final long WINDOW_SIZE = 1L << 30;
+
+    static final int[] FROM = {0, 0, 1, 1, 2, 2};
+    static final int[] TO = {1, 2, 0, 2, 0, 1};
+
+    private SolutionFormat() {
+    }
+
+    static int code(int from, int to) {
+        return from * 2 + (to > from ? to - 1 : to);
+    }
+
+    static long fileSize(long moves) {
+        return HEADER_SIZE + (moves + MOVES_PER_WORD - 1) / MOVES_PER_WORD * Long.BYTES;
+    }
+}
@@ -0,0 +1,167 @@
+package com.martialdev.game.hanoitower.core.export;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import com.martialdev.game.hanoitower.core.solver.MoveSequence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.martialdev.game.hanoitower.core.export.SolutionFormat.HEADER_SIZE;
+import static com.martialdev.game.hanoitower.core.export.SolutionFormat.MOVES_PER_WORD;
+import static com.martialdev.game.hanoitower.core.export.SolutionFormat.MOVE_BITS;
+import static com.martialdev.game.hanoitower.core.export.SolutionFormat.WINDOW_SIZE;
+
+/** Reads a solution file as a move sequence.  The file is mapped in windows and moves are decoded straight
+ *  from the mapped pages, without copying them.
+ *
+ * @see SolutionExporter
+ */
+public final class SolutionReader implements MoveSequence, Closeable {
+
+    private static final PinPosition[] PINS = PinPosition.values();
+    private static final GameVariant[] VARIANTS = GameVariant.values();
+
+    private final FileChannel _channel;
+    private final long _fileSize;
+    private final GameVariant _variant;
+    private final int _disks;
+    private final long _totalMoves;
+    private MappedByteBuffer _window;
+    private long _windowStart;
+    private int _windowIndex;
+    private long _word;
+    private int _moveInWord = MOVES_PER_WORD;
+    private long _remaining;
+    private int _code;
+
+    /** Opens a solution file.
+     *
+     * @param file the file written by the exporter.
+     * @throws IOException when the file can't be read or isn't a solution file.
+     */
+    public SolutionReader(Path file) throws IOException {
+        _channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            _fileSize = _channel.size();
+            if (_fileSize < HEADER_SIZE) throw new IOException("Not a solution file: " + file);
+            final MappedByteBuffer header = _channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(SolutionFormat.ORDER);
+            if (header.getLong(0) != SolutionFormat.MAGIC || header.getInt(8) != SolutionFormat.VERSION) {
+                throw new IOException("Not a solution file: " + file);
+            }
+            final int variant = header.getInt(12);
+            if (variant < 0 || variant >= VARIANTS.length) {
+                throw new IOException("Solution file has an unknown variant " + variant + ": " + file);
+            }
+            _variant = VARIANTS[variant];
+            _disks = header.getInt(16);
+            _totalMoves = header.getLong(24);
+            if (SolutionFormat.fileSize(_totalMoves) != _fileSize) {
+                throw new IOException("Solution file is truncated: " + file);
+            }
+            _remaining = _totalMoves;
+            _windowStart = HEADER_SIZE;
+        } catch (IOException | RuntimeException e) {
+            _channel.close();
+            throw e;
+        }
+    }
+
+    /** Returns the rules of the game solved in the file.
+     *
+     * @return the variant.
+     */
+    public GameVariant getVariant() {
+        return _variant;
+    }
+
+    /** Returns how many disks the game solved in the file has.
+     *
+     * @return the capacity of the game.
+     */
+    public int getDisks() {
+        return _disks;
+    }
+
+    /** Returns how many moves the file holds.
+     *
+     * @return the quantity of moves.
+     */
+    public long totalMoves() {
+        return _totalMoves;
+    }
+
+    @Override
+    public boolean next() {
+        if (_remaining == 0) return false;
+        if (_moveInWord == MOVES_PER_WORD) {
+            try {
+                _word = nextWord();
+            } catch (IOException e) {
+                throw new IllegalStateException("Solution file can't be read", e);
+            }
+            _moveInWord = 0;
+        }
+        _code = (int) (_word >>> (_moveInWord++ * MOVE_BITS)) & 7;
+        _remaining--;
+        return true;
+    }
+
+    @Override
+    public PinPosition from() {
+        return PINS[SolutionFormat.FROM[_code]];
+    }
+
+    @Override
+    public PinPosition to() {
+        return PINS[SolutionFormat.TO[_code]];
+    }
+
+    @Override
+    public long remaining() {
+        return _remaining;
+    }
+
+    /** Plays the next moves of the file in a controller.
+     *
+     * @param control the controller, with a game at the position where the moves start.
+     * @param moves how many moves are played at most.
+     * @return how many moves have been played.
+     * @throws InvalidMoveException when the controller refuses a move.
+     */
+    public long play(HanoiTowerControl control, long moves) throws InvalidMoveException {
+        long played = 0;
+        while (played < moves && next()) {
+            control.grabDisk(from());
+            control.dropDisk(to());
+            played++;
+        }
+        return played;
+    }
+
+    @Override
+    public void close() throws IOException {
+        _window = null;
+        _channel.close();
+    }
+
+    private long nextWord() throws IOException {
+        if (_window == null || _windowIndex == _window.limit()) {
+            if (_window != null) _windowStart += _window.limit();
+            final long windowSize = Math.min(WINDOW_SIZE, _fileSize - _windowStart);
+            _window = _channel.map(FileChannel.MapMode.READ_ONLY, _windowStart, windowSize);
+            _window.order(SolutionFormat.ORDER);
+            _windowIndex = 0;
+        }
+        final long word = _window.getLong(_windowIndex);
+        _windowIndex += Long.BYTES;
+        return word;
+    }
+}
@@ -0,0 +1,27 @@
+package com.martialdev.game.hanoitower.core.history;
+
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+
+/** The first move that left the optimal path, and how many games made it.
+ *
+ * @see GameHistory#firstDeviations(com.martialdev.game.hanoitower.core.control.GameVariant, int)
+ */
+public final class Deviation {
+
+    public final int moveNumber;
+    public final PinPosition from;
+    public final PinPosition to;
+    public final long games;
+
+    public Deviation(int moveNumber, PinPosition from, PinPosition to, long games) {
+        this.moveNumber = moveNumber;
+        this.from = from;
+        this.to = to;
+        this.games = games;
+    }
+
+    @Override
+    public String toString() {
+        return games + " games left the optimal path in move " + moveNumber + ", from " + from + " to " + to;
+    }
+}
@@ -0,0 +1,287 @@
+package com.martialdev.game.hanoitower.core.history;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+import com.martialdev.game.hanoitower.core.control.event.EventType;
+import com.martialdev.game.hanoitower.core.control.event.ListenerRegistration;
+import com.martialdev.game.hanoitower.core.solver.OptimalityTracker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/** History of finished games, stored by column for queries over all of them.
+ *  Games are appended to an open block, which is sealed in a compressed segment when it's full.  Every segment
+ *  keeps the minimum and the maximum of its columns, so queries skip the segments that can't have the games
+ *  they look for, and scan the others a batch of rows at a time.
+ *  A history opened in a directory writes each segment to a file when it's sealed, and reads the segments of
+ *  the directory when it's opened.  Files are written by a thread of the history, so the thread ending a game
+ *  never waits for the disk, and write failures are reported to a handler instead of the game.  Games of the
+ *  open block are only written when the history is flushed or closed, and closing the history waits for the
+ *  writes.
+ *
+ * @see GameRecord
+ */
+public final class GameHistory implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "games-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int MAGIC = 0x48474853; // "HGHS"
+    private static final int VERSION = 1;
+
+    private final Path _directory;
+    private final int _segmentRows;
+    private final ExecutorService _writer;
+    private final Consumer<Throwable> _onWriteFailure;
+    private final List<GameRecord> _open = new ArrayList<>();
+    private final List<Segment> _segments = new ArrayList<>();
+    private int _nextSegment;
+
+    /** Creates a history kept in memory.
+     *
+     * @param segmentRows how many games a segment has.
+     */
+    public GameHistory(int segmentRows) {
+        if (segmentRows <= 0) throw new IllegalArgumentException("Segments must have at least one game.");
+        _directory = null;
+        _segmentRows = segmentRows;
+        _writer = null;
+        _onWriteFailure = null;
+    }
+
+    /** Opens a history in a directory, reading the segments already written in it.  Failures writing segments
+     *  are reported to the uncaught exception handler of the writing thread.
+     *
+     * @param directory where the segments are written.
+     * @param segmentRows how many games a new segment has.
+     * @throws IOException when the directory or its segments can't be read.
+     */
+    public GameHistory(Path directory, int segmentRows) throws IOException {
+        this(directory, segmentRows, failure -> {
+            final Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, failure);
+        });
+    }
+
+    /** Opens a history in a directory, reading the segments already written in it.
+     *
+     * @param directory where the segments are written.
+     * @param segmentRows how many games a new segment has.
+     * @param onWriteFailure receives the failures writing segments.  The games of a segment not written are
+     *                       still in the history until it's closed.
+     * @throws IOException when the directory or its segments can't be read.
+     */
+    public GameHistory(Path directory, int segmentRows, Consumer<Throwable> onWriteFailure) throws IOException {
+        if (segmentRows <= 0) throw new IllegalArgumentException("Segments must have at least one game.");
+        _directory = directory;
+        _segmentRows = segmentRows;
+        _onWriteFailure = onWriteFailure;
+        Files.createDirectories(directory);
+        final TreeMap<Integer, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : segments) {
+                final String name = file.getFileName().toString();
+                try {
+                    files.put(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())), file);
+                } catch (NumberFormatException e) {
+                    throw new IOException(file + " is not a segment of games.");
+                }
+            }
+        }
+        for (Map.Entry<Integer, Path> file : files.entrySet()) {
+            _segments.add(read(file.getValue()));
+            _nextSegment = file.getKey() + 1;
+        }
+        _writer = Executors.newSingleThreadExecutor(task -> {
+            final Thread thread = new Thread(task, "game-history-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Records the games played in a controller, from their start to their end.  Games restored from a snapshot
+     *  are not recorded, since their first moves are not known.
+     *
+     * @param control the controller of the games.
+     * @return the registration of the recorder, to stop recording.
+     */
+    public ListenerRegistration record(HanoiTowerControl control) {
+        return control.addListener(new GameRecorder(control, this), EventType.mask(EventType.GAME_START,
+                EventType.GAME_RESTORED, EventType.DISK_REMOVED, EventType.DISK_ADDED, EventType.GAME_OVER));
+    }
+
+    /** Appends a finished game.
+     *
+     * @param game the game.
+     */
+    public synchronized void append(GameRecord game) {
+        _open.add(game);
+        if (_open.size() >= _segmentRows) seal();
+    }
+
+    /** Seals the games of the open block in a segment, even if it's not full.
+     */
+    public synchronized void flush() {
+        if (!_open.isEmpty()) seal();
+    }
+
+    /** Counts the scores of the games of a variant, for each capacity.  Scores go from 0 to 1 in buckets of the
+     *  same width, and a score of 1 is counted in the last bucket.
+     *
+     * @param variant rules of the games.
+     * @param buckets how many buckets the scores are counted in.
+     * @return the counts of each bucket by capacity, from the smallest one.
+     */
+    public SortedMap<Integer, long[]> scoreDistribution(GameVariant variant, int buckets) {
+        if (buckets <= 0) throw new IllegalArgumentException("At least one bucket is required.");
+        final TreeMap<Integer, long[]> distribution = new TreeMap<>();
+        for (Segment segment : scanned()) {
+            segment.scoreDistribution(variant.ordinal(), buckets, distribution);
+        }
+        return distribution;
+    }
+
+    /** Finds the first move out of the optimal path of each game with the given rules and disks, and counts how
+     *  many games made each of those moves.  Games played optimally to the end are not counted.
+     *
+     * @param variant rules of the games.
+     * @param capacity how many disks the games have.
+     * @return the deviations, from the most common one.
+     * @throws UnsupportedOperationException for bicolor games, since their optimal paths are not known.
+     */
+    public List<Deviation> firstDeviations(GameVariant variant, int capacity) {
+        final OptimalityTracker tracker = new OptimalityTracker(variant, capacity);
+        final Map<Long, long[]> counts = new HashMap<>();
+        for (Segment segment : scanned()) {
+            segment.firstDeviations(variant.ordinal(), capacity, tracker, counts);
+        }
+
+        final PinPosition[] pins = PinPosition.values();
+        final List<Deviation> deviations = new ArrayList<>(counts.size());
+        for (Map.Entry<Long, long[]> count : counts.entrySet()) {
+            final long key = count.getKey();
+            final int code = (int) (key & 0xF);
+            deviations.add(new Deviation((int) (key >>> 4) + 1, pins[code / 3], pins[code % 3], count.getValue()[0]));
+        }
+        deviations.sort((deviation1, deviation2) -> deviation1.games != deviation2.games
+                ? Long.compare(deviation2.games, deviation1.games)
+                : Integer.compare(deviation1.moveNumber, deviation2.moveNumber));
+        return deviations;
+    }
+
+    /** Returns how many games are in the history.
+     *
+     * @return the quantity of games.
+     */
+    public synchronized long size() {
+        long size = _open.size();
+        for (Segment segment : _segments) size += segment.rows;
+        return size;
+    }
+
+    /** Returns how many segments have been sealed.
+     *
+     * @return the quantity of segments.
+     */
+    public synchronized int segments() {
+        return _segments.size();
+    }
+
+    /** Returns the bytes taken by the columns of the sealed segments.
+     *
+     * @return the size of the segments.
+     */
+    public synchronized long sizeInBytes() {
+        long size = 0;
+        for (Segment segment : _segments) size += segment.sizeInBytes();
+        return size;
+    }
+
+    /** Seals and writes the games of the open block, and waits for the segments being written.
+     */
+    @Override
+    public void close() {
+        flush();
+        if (_writer == null) return;
+        _writer.shutdown();
+        try {
+            _writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // the sealed segments and the open block, sealed apart so it's scanned the same way
+    private synchronized Segment[] scanned() {
+        final Segment[] segments = _segments.toArray(new Segment[_segments.size() + (_open.isEmpty() ? 0 : 1)]);
+        if (!_open.isEmpty()) segments[segments.length - 1] = Segment.of(_open);
+        return segments;
+    }
+
+    private void seal() {
+        final Segment segment = Segment.of(_open);
+        if (_writer != null) {
+            final int id = _nextSegment;
+            try {
+                _writer.execute(() -> {
+                    try {
+                        write(segment, id);
+                    } catch (RuntimeException e) {
+                        _onWriteFailure.accept(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                _onWriteFailure.accept(new IllegalStateException("Segment " + id + " sealed after the history was closed."));
+            }
+        }
+        _nextSegment++;
+        _segments.add(segment);
+        _open.clear();
+    }
+
+    // a segment file is written apart and renamed, so a failed write leaves no segment behind
+    private void write(Segment segment, int id) {
+        final Path file = _directory.resolve(SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+        final Path written = _directory.resolve(SEGMENT_PREFIX + id + SEGMENT_SUFFIX + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(written)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                segment.writeTo(out);
+            }
+            Files.move(written, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Segment read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException(file + " is not a segment of games.");
+            }
+            return Segment.readFrom(in);
+        }
+    }
+}
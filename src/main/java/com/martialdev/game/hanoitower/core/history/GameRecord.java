@@ -0,0 +1,59 @@
+package com.martialdev.game.hanoitower.core.history;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+
+/** A finished game kept in the history.
+ *  Each move is coded as from * 3 + to, with the ordinals of the pins, so a disk dropped back in the pin it
+ *  came from is a move too, as it is for the controller.
+ *
+ * @see GameHistory
+ */
+public final class GameRecord {
+
+    public final GameVariant variant;
+    public final int capacity;
+    public final int totalMoves;
+    public final double score;
+    public final long durationMillis;
+    private final byte[] _moves;
+
+    public GameRecord(GameVariant variant, int capacity, byte[] moves, double score, long durationMillis) {
+        for (byte move : moves) {
+            if (move < 0 || move >= 9) throw new IllegalArgumentException("Invalid move code: " + move);
+        }
+        this.variant = variant;
+        this.capacity = capacity;
+        this.totalMoves = moves.length;
+        this.score = score;
+        this.durationMillis = durationMillis;
+        _moves = moves.clone();
+    }
+
+    /** Returns the code of a move.
+     *
+     * @param from the pin where the disk is grabbed.
+     * @param to the pin where the disk is dropped.
+     * @return the code of the move.
+     */
+    public static byte move(PinPosition from, PinPosition to) {
+        return (byte) (from.ordinal() * 3 + to.ordinal());
+    }
+
+    /** Returns the code of the given move.
+     *
+     * @param index index of the move, starting from zero.
+     * @return the code of the move.
+     */
+    public int moveAt(int index) {
+        return _moves[index];
+    }
+
+    /** Returns the moves of the game.
+     *
+     * @return a copy of the move codes.
+     */
+    public byte[] moves() {
+        return _moves.clone();
+    }
+}
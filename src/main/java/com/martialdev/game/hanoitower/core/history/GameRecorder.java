@@ -0,0 +1,69 @@
+package com.martialdev.game.hanoitower.core.history;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.event.GameOverEvent;
+import com.martialdev.game.hanoitower.core.control.event.GameRestoredEvent;
+import com.martialdev.game.hanoitower.core.control.event.GameStartEvent;
+import com.martialdev.game.hanoitower.core.control.event.HanoiTowerListener;
+import com.martialdev.game.hanoitower.core.control.event.PinEvent;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// collects the moves of the games of a controller and appends each game to the history when it's over
+final class GameRecorder implements HanoiTowerListener {
+
+    private final HanoiTowerControl _control;
+    private final GameHistory _history;
+    private byte[] _moves = new byte[64];
+    private int _count;
+    private int _origin;
+    private GameVariant _variant;
+    private int _capacity;
+    private long _startNanos;
+    private boolean _started;
+
+    GameRecorder(HanoiTowerControl control, GameHistory history) {
+        _control = control;
+        _history = history;
+    }
+
+    @Override
+    public void hanoiTowerEvent(GameStartEvent event) {
+        _variant = _control.getVariant();
+        _capacity = event.capacity;
+        _count = 0;
+        _startNanos = System.nanoTime();
+        _started = true;
+    }
+
+    @Override
+    public void hanoiTowerEvent(GameRestoredEvent event) {
+        // the restored game didn't start under the recorder, so its moves from the start are not known
+        _started = false;
+        _count = 0;
+    }
+
+    @Override
+    public void fireDiskRemoved(PinEvent event) {
+        _origin = event.pinPosition.ordinal();
+    }
+
+    @Override
+    public void fireDiskAdded(PinEvent event) {
+        if (!_started) return;
+        if (_count == _moves.length) _moves = Arrays.copyOf(_moves, _count * 2);
+        _moves[_count++] = (byte) (_origin * 3 + event.pinPosition.ordinal());
+    }
+
+    @Override
+    public void hanoiTowerEvent(GameOverEvent event) {
+        // games started before the recorder are not known from the start
+        if (!_started) return;
+        _started = false;
+        final long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - _startNanos);
+        _history.append(new GameRecord(_variant, _capacity, Arrays.copyOf(_moves, _count),
+                event.score, duration));
+    }
+}
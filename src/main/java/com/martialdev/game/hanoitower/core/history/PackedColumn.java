@@ -0,0 +1,106 @@
+package com.martialdev.game.hanoitower.core.history;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/** Column of integers stored as their distance to the minimum, packed with the bits the maximum needs.
+ *  The minimum and the maximum are kept as statistics, so scans may skip a segment without unpacking it.
+ *  A column where every value is the same takes no words at all.
+ */
+final class PackedColumn {
+
+    final long min;
+    final long max;
+    final int bits;
+    private final long[] _words;
+
+    private PackedColumn(long min, long max, int bits, long[] words) {
+        this.min = min;
+        this.max = max;
+        this.bits = bits;
+        _words = words;
+    }
+
+    static PackedColumn pack(long[] values, int count) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        if (count == 0) {
+            min = 0;
+            max = 0;
+        }
+        final int bits = 64 - Long.numberOfLeadingZeros(max - min);
+        final long[] words = new long[(int) (((long) count * bits + 63) >>> 6)];
+        for (int i = 0; bits > 0 && i < count; i++) {
+            final long value = values[i] - min;
+            final long bit = (long) i * bits;
+            final int word = (int) (bit >>> 6);
+            final int shift = (int) (bit & 63);
+            words[word] |= value << shift;
+            // the value goes on in the next word
+            if (shift + bits > 64) words[word + 1] |= value >>> (64 - shift);
+        }
+        return new PackedColumn(min, max, bits, words);
+    }
+
+    long get(int index) {
+        if (bits == 0) return min;
+        final long bit = (long) index * bits;
+        final int word = (int) (bit >>> 6);
+        final int shift = (int) (bit & 63);
+        long value = _words[word] >>> shift;
+        if (shift + bits > 64) value |= _words[word + 1] << (64 - shift);
+        return min + (value & mask());
+    }
+
+    /** Unpacks a batch of values, the unit of work of the scans.
+     */
+    void unpack(int from, int count, long[] values) {
+        if (bits == 0) {
+            for (int i = 0; i < count; i++) values[i] = min;
+            return;
+        }
+        final long mask = mask();
+        long bit = (long) from * bits;
+        for (int i = 0; i < count; i++, bit += bits) {
+            final int word = (int) (bit >>> 6);
+            final int shift = (int) (bit & 63);
+            long value = _words[word] >>> shift;
+            if (shift + bits > 64) value |= _words[word + 1] << (64 - shift);
+            values[i] = min + (value & mask);
+        }
+    }
+
+    boolean mayContain(long value) {
+        return value >= min && value <= max;
+    }
+
+    long sizeInBytes() {
+        return 2 * Long.BYTES + Integer.BYTES + (long) _words.length * Long.BYTES;
+    }
+
+    private long mask() {
+        return bits == 64 ? -1L : (1L << bits) - 1;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(min);
+        out.writeLong(max);
+        out.writeInt(bits);
+        out.writeInt(_words.length);
+        for (long word : _words) out.writeLong(word);
+    }
+
+    static PackedColumn readFrom(DataInput in) throws IOException {
+        final long min = in.readLong();
+        final long max = in.readLong();
+        final int bits = in.readInt();
+        final long[] words = new long[in.readInt()];
+        for (int i = 0; i < words.length; i++) words[i] = in.readLong();
+        return new PackedColumn(min, max, bits, words);
+    }
+}
@@ -0,0 +1,183 @@
+package com.martialdev.game.hanoitower.core.history;
+
+import com.martialdev.game.hanoitower.core.solver.OptimalityTracker;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/** An immutable block of games stored by column.
+ *  Variants, capacities, moves and durations are packed columns.  Scores are kept as they are, with their
+ *  minimum and maximum.  The moves of all games are a single stream of 4 bit codes, 16 in each long, and the
+ *  offset of each game in the stream is the sum of the moves of the games before it, so the offsets are delta
+ *  encoded by the moves column.
+ *  Scans unpack the columns in batches and loop over the batch, so the checks of each row are a few array reads.
+ */
+final class Segment {
+
+    static final int BATCH = 1024;
+    private static final int MOVE_BITS = 4;
+    private static final int MOVES_PER_WORD = 64 / MOVE_BITS;
+
+    final int rows;
+    final PackedColumn variants;
+    final PackedColumn capacities;
+    final PackedColumn totalMoves;
+    final PackedColumn durations;
+    final double minScore;
+    final double maxScore;
+    private final double[] _scores;
+    private final long[] _moves;
+
+    private Segment(int rows, PackedColumn variants, PackedColumn capacities, PackedColumn totalMoves,
+                    PackedColumn durations, double[] scores, long[] moves) {
+        this.rows = rows;
+        this.variants = variants;
+        this.capacities = capacities;
+        this.totalMoves = totalMoves;
+        this.durations = durations;
+        _scores = scores;
+        _moves = moves;
+        double min = rows == 0 ? 0 : Double.MAX_VALUE;
+        double max = rows == 0 ? 0 : -Double.MAX_VALUE;
+        for (double score : scores) {
+            min = Math.min(min, score);
+            max = Math.max(max, score);
+        }
+        minScore = min;
+        maxScore = max;
+    }
+
+    static Segment of(List<GameRecord> records) {
+        final int rows = records.size();
+        final long[] variants = new long[rows];
+        final long[] capacities = new long[rows];
+        final long[] totalMoves = new long[rows];
+        final long[] durations = new long[rows];
+        final double[] scores = new double[rows];
+        long moveCount = 0;
+        for (int i = 0; i < rows; i++) {
+            final GameRecord record = records.get(i);
+            variants[i] = record.variant.ordinal();
+            capacities[i] = record.capacity;
+            totalMoves[i] = record.totalMoves;
+            durations[i] = record.durationMillis;
+            scores[i] = record.score;
+            moveCount += record.totalMoves;
+        }
+
+        final long[] moves = new long[Math.toIntExact((moveCount + MOVES_PER_WORD - 1) / MOVES_PER_WORD)];
+        long index = 0;
+        for (GameRecord record : records) {
+            for (int move = 0; move < record.totalMoves; move++, index++) {
+                moves[(int) (index / MOVES_PER_WORD)] |= (long) record.moveAt(move) << (index % MOVES_PER_WORD * MOVE_BITS);
+            }
+        }
+        return new Segment(rows, PackedColumn.pack(variants, rows), PackedColumn.pack(capacities, rows),
+                PackedColumn.pack(totalMoves, rows), PackedColumn.pack(durations, rows), scores, moves);
+    }
+
+    int move(long index) {
+        return (int) (_moves[(int) (index / MOVES_PER_WORD)] >>> (index % MOVES_PER_WORD * MOVE_BITS)) & 0xF;
+    }
+
+    /** Counts the scores of the games of a variant in buckets of the same width, for each capacity.
+     */
+    void scoreDistribution(int variant, int buckets, Map<Integer, long[]> distribution) {
+        if (!variants.mayContain(variant)) return;
+        final int lowestCapacity = (int) capacities.min;
+        final long[][] counts = new long[(int) (capacities.max - capacities.min) + 1][buckets];
+        final long[] variantBatch = new long[BATCH];
+        final long[] capacityBatch = new long[BATCH];
+        for (int start = 0; start < rows; start += BATCH) {
+            final int size = Math.min(BATCH, rows - start);
+            variants.unpack(start, size, variantBatch);
+            capacities.unpack(start, size, capacityBatch);
+            for (int i = 0; i < size; i++) {
+                if (variantBatch[i] != variant) continue;
+                final int bucket = Math.max(0, Math.min(buckets - 1, (int) (_scores[start + i] * buckets)));
+                counts[(int) capacityBatch[i] - lowestCapacity][bucket]++;
+            }
+        }
+
+        for (int i = 0; i < counts.length; i++) {
+            if (Arrays.stream(counts[i]).allMatch(count -> count == 0)) continue;
+            final long[] total = distribution.computeIfAbsent(lowestCapacity + i, capacity -> new long[buckets]);
+            for (int bucket = 0; bucket < buckets; bucket++) total[bucket] += counts[i][bucket];
+        }
+    }
+
+    /** Replays the games of a variant and capacity until their first move out of the optimal path, and counts
+     *  those moves by their number and pins.  Keys are (move index &lt;&lt; 4) | move code.
+     */
+    void firstDeviations(int variant, int capacity, OptimalityTracker tracker, Map<Long, long[]> deviations) {
+        if (!variants.mayContain(variant) || !capacities.mayContain(capacity)) return;
+        final int[] pins = new int[capacity];
+        final long[] variantBatch = new long[BATCH];
+        final long[] capacityBatch = new long[BATCH];
+        final long[] movesBatch = new long[BATCH];
+        long offset = 0;
+        for (int start = 0; start < rows; start += BATCH) {
+            final int size = Math.min(BATCH, rows - start);
+            variants.unpack(start, size, variantBatch);
+            capacities.unpack(start, size, capacityBatch);
+            totalMoves.unpack(start, size, movesBatch);
+            for (int i = 0; i < size; i++) {
+                if (variantBatch[i] == variant && capacityBatch[i] == capacity) {
+                    final long deviation = firstDeviation(offset, (int) movesBatch[i], tracker, pins);
+                    if (deviation >= 0) deviations.computeIfAbsent(deviation, key -> new long[1])[0]++;
+                }
+                offset += movesBatch[i];
+            }
+        }
+    }
+
+    private long firstDeviation(long offset, int moves, OptimalityTracker tracker, int[] pins) {
+        tracker.reset();
+        Arrays.fill(pins, 0);
+        for (int index = 0; index < moves; index++) {
+            final int code = move(offset + index);
+            final int from = code / 3;
+            final int to = code % 3;
+            // the disk on the top of a pin is the smallest disk in it
+            int disk = 0;
+            while (disk < pins.length && pins[disk] != from) disk++;
+            if (disk == pins.length) return -1;
+            pins[disk] = to;
+            if (!tracker.diskMoved(disk, to)) return ((long) index << 4) | code;
+        }
+        return -1;
+    }
+
+    long sizeInBytes() {
+        return variants.sizeInBytes() + capacities.sizeInBytes() + totalMoves.sizeInBytes() + durations.sizeInBytes()
+                + (long) _scores.length * Double.BYTES + (long) _moves.length * Long.BYTES;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(rows);
+        variants.writeTo(out);
+        capacities.writeTo(out);
+        totalMoves.writeTo(out);
+        durations.writeTo(out);
+        for (double score : _scores) out.writeDouble(score);
+        out.writeInt(_moves.length);
+        for (long word : _moves) out.writeLong(word);
+    }
+
+    static Segment readFrom(DataInput in) throws IOException {
+        final int rows = in.readInt();
+        final PackedColumn variants = PackedColumn.readFrom(in);
+        final PackedColumn capacities = PackedColumn.readFrom(in);
+        final PackedColumn totalMoves = PackedColumn.readFrom(in);
+        final PackedColumn durations = PackedColumn.readFrom(in);
+        final double[] scores = new double[rows];
+        for (int i = 0; i < rows; i++) scores[i] = in.readDouble();
+        final long[] moves = new long[in.readInt()];
+        for (int i = 0; i < moves.length; i++) moves[i] = in.readLong();
+        return new Segment(rows, variants, capacities, totalMoves, durations, scores, moves);
+    }
+}
@@ -0,0 +1,110 @@
+package com.martialdev.game.hanoitower.core.score;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Scores of the games finished with a given capacity.
+ *  Games can be recorded by many threads at once: counters are striped adders, percentiles are kept in lock
+ *  free histograms and the best games are kept in striped copy on write arrays, so a game that doesn't reach
+ *  the top of its stripe costs a single read.  Snapshots never block the threads recording games.
+ *
+ * @see ScoreBoard
+ */
+public final class Leaderboard {
+
+    static final double SCORE_UNIT = 1_000_000d;
+
+    private final int _capacity;
+    private final int _topSize;
+    private final AtomicReferenceArray<ScoreEntry[]> _topStripes;
+    private final AtomicLong _sequence = new AtomicLong();
+    private final LongAdder _games = new LongAdder();
+    private final LongAdder _movesSum = new LongAdder();
+    private final DoubleAdder _scoreSum = new DoubleAdder();
+    private final LogHistogram _moves = new LogHistogram();
+    private final LogHistogram _scores = new LogHistogram();
+
+    /** Creates an empty leaderboard.
+     *
+     * @param capacity how many disks the games of this leaderboard have.
+     * @param topSize how many games are kept in the top of the leaderboard.
+     * @param stripes how many stripes share the recording of the best games (rounded up to a power of two).
+     * @throws IllegalArgumentException when the top or the stripes are empty.
+     */
+    public Leaderboard(int capacity, int topSize, int stripes) {
+        if (topSize < 1) throw new IllegalArgumentException("The top must keep at least one game: " + topSize);
+        if (stripes < 1) throw new IllegalArgumentException("At least one stripe is required: " + stripes);
+        _capacity = capacity;
+        _topSize = topSize;
+        int stripeCount = 1;
+        while (stripeCount < stripes) stripeCount <<= 1;
+        _topStripes = new AtomicReferenceArray<>(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            _topStripes.set(i, new ScoreEntry[0]);
+        }
+    }
+
+    /** Includes a finished game in the leaderboard.
+     *
+     * @param player who played the game.
+     * @param totalMoves how many moves the game took.
+     * @param score the score of the game.
+     */
+    public void record(String player, int totalMoves, double score) {
+        _games.increment();
+        _movesSum.add(totalMoves);
+        _scoreSum.add(score);
+        _moves.record(totalMoves);
+        _scores.record(Math.round(score * SCORE_UNIT));
+
+        final int stripe = (int) Thread.currentThread().getId() & (_topStripes.length() - 1);
+        ScoreEntry entry = null;
+        while (true) {
+            final ScoreEntry[] current = _topStripes.get(stripe);
+            if (current.length == _topSize && !isBetter(score, totalMoves, current[_topSize - 1])) return;
+            if (entry == null) entry = new ScoreEntry(player, _capacity, totalMoves, score, _sequence.getAndIncrement());
+            if (_topStripes.compareAndSet(stripe, current, insert(current, entry))) return;
+        }
+    }
+
+    private static boolean isBetter(double score, int totalMoves, ScoreEntry last) {
+        return score > last.score || (score == last.score && totalMoves < last.totalMoves);
+    }
+
+    private ScoreEntry[] insert(ScoreEntry[] current, ScoreEntry entry) {
+        int position = Arrays.binarySearch(current, entry);
+        position = position < 0 ? -position - 1 : position;
+        final ScoreEntry[] next = new ScoreEntry[Math.min(_topSize, current.length + 1)];
+        System.arraycopy(current, 0, next, 0, position);
+        next[position] = entry;
+        System.arraycopy(current, position, next, position + 1, next.length - position - 1);
+        return next;
+    }
+
+    /** Returns the capacity of the games in this leaderboard.
+     *
+     * @return how many disks the games have.
+     */
+    public int getCapacity() {
+        return _capacity;
+    }
+
+    /** Takes a picture of the leaderboard.  Games recorded while the snapshot is taken may be partially seen.
+     *
+     * @return the current state of the leaderboard.
+     */
+    public LeaderboardSnapshot snapshot() {
+        final List<ScoreEntry> top = new ArrayList<>();
+        for (int stripe = 0; stripe < _topStripes.length(); stripe++) {
+            top.addAll(Arrays.asList(_topStripes.get(stripe)));
+        }
+        top.sort(null);
+        return new LeaderboardSnapshot(_capacity, _games.sum(), _scoreSum.sum(), _movesSum.sum(),
+                top.subList(0, Math.min(_topSize, top.size())), _scores.counts(), _moves.counts());
+    }
+}
@@ -0,0 +1,90 @@
+package com.martialdev.game.hanoitower.core.score;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** An immutable picture of a leaderboard.
+ *
+ * @see Leaderboard#snapshot()
+ */
+public final class LeaderboardSnapshot {
+
+    private final int _capacity;
+    private final long _games;
+    private final double _scoreSum;
+    private final long _movesSum;
+    private final List<ScoreEntry> _top;
+    private final long[] _scoreCounts;
+    private final long[] _movesCounts;
+
+    LeaderboardSnapshot(int capacity, long games, double scoreSum, long movesSum, List<ScoreEntry> top,
+                        long[] scoreCounts, long[] movesCounts) {
+        _capacity = capacity;
+        _games = games;
+        _scoreSum = scoreSum;
+        _movesSum = movesSum;
+        _top = Collections.unmodifiableList(new ArrayList<>(top));
+        _scoreCounts = scoreCounts;
+        _movesCounts = movesCounts;
+    }
+
+    /** Returns the capacity of the games in the leaderboard.
+     *
+     * @return how many disks the games have.
+     */
+    public int getCapacity() {
+        return _capacity;
+    }
+
+    /** Returns how many games have been recorded.
+     *
+     * @return the quantity of finished games.
+     */
+    public long getGames() {
+        return _games;
+    }
+
+    /** Returns the average score of the recorded games.
+     *
+     * @return the average score or zero if no games have been recorded.
+     */
+    public double getAverageScore() {
+        return _games == 0 ? 0d : _scoreSum / _games;
+    }
+
+    /** Returns the average moves of the recorded games.
+     *
+     * @return the average moves or zero if no games have been recorded.
+     */
+    public double getAverageMoves() {
+        return _games == 0 ? 0d : (double) _movesSum / _games;
+    }
+
+    /** Returns the best games, the best one first.
+     *
+     * @return the top of the leaderboard.
+     */
+    public List<ScoreEntry> getTop() {
+        return _top;
+    }
+
+    /** Returns the score that the given percentage of the games didn't exceed, with less than 1% of error.
+     *
+     * @param percentile from 0 to 100.
+     * @return the score in the given percentile.
+     */
+    public double scorePercentile(double percentile) {
+        return LogHistogram.valueAtPercentile(_scoreCounts, percentile) / Leaderboard.SCORE_UNIT;
+    }
+
+    /** Returns the moves that the given percentage of the games didn't exceed.
+     *  Moves are exact below 256 moves and have less than 1% of error above it.
+     *
+     * @param percentile from 0 to 100.
+     * @return the moves in the given percentile.
+     */
+    public long movesPercentile(double percentile) {
+        return LogHistogram.valueAtPercentile(_movesCounts, percentile);
+    }
+}
@@ -0,0 +1,103 @@
+package com.martialdev.game.hanoitower.core.score;
+
+import com.martialdev.game.hanoitower.core.control.event.GameOverEvent;
+import com.martialdev.game.hanoitower.core.control.event.GameStartEvent;
+import com.martialdev.game.hanoitower.core.control.event.HanoiTowerListener;
+import com.martialdev.game.hanoitower.core.control.event.PinEvent;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/** Collects the scores of games played concurrently, keeping a leaderboard for each capacity.
+ *  Games are recorded without locks, so many games can finish at the same time without waiting for each other.
+ *
+ * @see Leaderboard
+ */
+public final class ScoreBoard {
+
+    private static final int DEFAULT_TOP_SIZE = 10;
+
+    private final int _topSize;
+    private final int _stripes;
+    private final ConcurrentMap<Integer, Leaderboard> _leaderboards = new ConcurrentHashMap<>();
+
+    /** Creates a score board keeping the ten best games of each capacity.
+     */
+    public ScoreBoard() {
+        this(DEFAULT_TOP_SIZE);
+    }
+
+    /** Creates a score board keeping the given quantity of best games of each capacity.
+     *
+     * @param topSize how many games are kept in the top of each leaderboard.
+     * @throws IllegalArgumentException when the top keeps no games.
+     */
+    public ScoreBoard(int topSize) {
+        if (topSize < 1) throw new IllegalArgumentException("The top must keep at least one game: " + topSize);
+        _topSize = topSize;
+        _stripes = Runtime.getRuntime().availableProcessors();
+    }
+
+    /** Creates a listener that records the games of a player.
+     *  The listener learns the capacity from the game start event, so it must be added to the controller
+     *  before the game starts.  Use a listener for each controller.
+     *
+     * @param player who plays the games.
+     * @return the listener to be added to the controller.
+     */
+    public HanoiTowerListener listener(final String player) {
+        return new HanoiTowerListener() {
+
+            private volatile int _capacity;
+
+            @Override
+            public void hanoiTowerEvent(GameOverEvent event) {
+                record(player, _capacity, event);
+            }
+
+            @Override
+            public void fireDiskRemoved(PinEvent event) {
+            }
+
+            @Override
+            public void fireDiskAdded(PinEvent event) {
+            }
+
+            @Override
+            public void hanoiTowerEvent(GameStartEvent event) {
+                _capacity = event.capacity;
+            }
+        };
+    }
+
+    /** Records a finished game.
+     *
+     * @param player who played the game.
+     * @param capacity how many disks the game had.
+     * @param event the game over event of the game.
+     */
+    public void record(String player, int capacity, GameOverEvent event) {
+        leaderboard(capacity).record(player, event.totalMoves, event.score);
+    }
+
+    /** Returns the leaderboard of the given capacity, creating it if no game has been recorded yet.
+     *
+     * @param capacity how many disks the games have.
+     * @return the leaderboard of the capacity.
+     */
+    public Leaderboard leaderboard(int capacity) {
+        final Leaderboard leaderboard = _leaderboards.get(capacity);
+        if (leaderboard != null) return leaderboard;
+        return _leaderboards.computeIfAbsent(capacity, key -> new Leaderboard(key, _topSize, _stripes));
+    }
+
+    /** Returns the capacities that have a leaderboard.
+     *
+     * @return the capacities in ascending order.
+     */
+    public Set<Integer> capacities() {
+        return new TreeSet<>(_leaderboards.keySet());
+    }
+}
@@ -0,0 +1,42 @@
+package com.martialdev.game.hanoitower.core.score;
+
+/** A finished game kept in a leaderboard.
+ *  Entries are ranked by score, then by fewer moves and then by the order they have been recorded.
+ *
+ * @see Leaderboard
+ */
+public final class ScoreEntry implements Comparable<ScoreEntry> {
+
+    public final String player;
+    public final int capacity;
+    public final int totalMoves;
+    public final double score;
+    public final long sequence;
+
+    public ScoreEntry(String player, int capacity, int totalMoves, double score, long sequence) {
+        this.player = player;
+        this.capacity = capacity;
+        this.totalMoves = totalMoves;
+        this.score = score;
+        this.sequence = sequence;
+    }
+
+    /** Returns a negative value when this entry is ranked above the given entry.
+     *
+     * @param anEntry entry to be compared.
+     * @return negative if this entry is better, positive if it's worse.
+     */
+    @Override
+    public int compareTo(ScoreEntry anEntry) {
+        int comparison = Double.compare(anEntry.score, score);
+        if (comparison != 0) return comparison;
+        comparison = Integer.compare(totalMoves, anEntry.totalMoves);
+        if (comparison != 0) return comparison;
+        return Long.compare(sequence, anEntry.sequence);
+    }
+
+    @Override
+    public String toString() {
+        return player + " scored " + score + " in " + totalMoves + " moves";
+    }
+}
@@ -0,0 +1,32 @@
+package com.martialdev.game.hanoitower.core.server;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/** Pool of direct buffers with the same size.
+ *  Used only by the reactor thread, so it needs no synchronization.
+ */
+final class BufferPool {
+
+    private final int _bufferSize;
+    private final int _maxPooled;
+    private final ArrayDeque<ByteBuffer> _buffers;
+
+    BufferPool(int bufferSize, int maxPooled) {
+        _bufferSize = bufferSize;
+        _maxPooled = maxPooled;
+        _buffers = new ArrayDeque<>();
+    }
+
+    ByteBuffer acquire() {
+        final ByteBuffer buffer = _buffers.pollFirst();
+        return buffer == null ? ByteBuffer.allocateDirect(_bufferSize) : buffer;
+    }
+
+    void release(ByteBuffer buffer) {
+        if (_buffers.size() < _maxPooled) {
+            buffer.clear();
+            _buffers.addFirst(buffer);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.martialdev.game.hanoitower.core.server;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+import com.martialdev.game.hanoitower.core.control.event.GameOverEvent;
+import com.martialdev.game.hanoitower.core.control.event.GameStartEvent;
+import com.martialdev.game.hanoitower.core.control.event.HanoiTowerListener;
+import com.martialdev.game.hanoitower.core.control.event.PinEvent;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import static com.martialdev.game.hanoitower.core.server.Protocol.FRAME_SIZE;
+
+/** A client connected to the server, playing its own game.
+ *  Requests are parsed straight from a pooled direct buffer and events are encoded in pooled direct buffers
+ *  that are sent with gathering writes.  Only the reactor thread touches a connection.
+ *  Events that can't be sent wait in the connection up to a limit.  Past it, the connection is overflowed:
+ *  no more events are kept and the server closes it.
+ */
+final class GameConnection implements HanoiTowerListener {
+
+    private static final PinPosition[] PINS = PinPosition.values();
+    private static final GameVariant[] VARIANTS = GameVariant.values();
+
+    private final SocketChannel _channel;
+    private final BufferPool _pool;
+    private final HanoiTowerControl _control;
+    private final int _maxCapacity;
+    private final int _maxPendingFrames;
+    private final ArrayDeque<ByteBuffer> _pendingWrites;
+    private int _pendingFrames;
+    private boolean _overflowed;
+    private ByteBuffer _readBuffer;
+    private ByteBuffer _eventBuffer;
+    private ByteBuffer[] _gather;
+    private boolean _gameStarted;
+
+    GameConnection(SocketChannel channel, BufferPool pool, int maxCapacity, int maxPendingFrames) {
+        _channel = channel;
+        _pool = pool;
+        _maxCapacity = maxCapacity;
+        _maxPendingFrames = maxPendingFrames;
+        _control = new HanoiTowerControl();
+        _control.addListener(this);
+        _pendingWrites = new ArrayDeque<>();
+        _readBuffer = pool.acquire();
+        _gather = new ByteBuffer[4];
+    }
+
+    /** Reads the available bytes and handles every complete frame.
+     *
+     * @return false if the client has closed the connection.
+     */
+    boolean read() throws IOException {
+        if (_channel.read(_readBuffer) < 0) return false;
+
+        _readBuffer.flip();
+        int frameStart = _readBuffer.position();
+        while (_readBuffer.limit() - frameStart >= FRAME_SIZE && !_overflowed) {
+            handle(frameStart);
+            frameStart += FRAME_SIZE;
+        }
+        _readBuffer.position(frameStart);
+        _readBuffer.compact();
+        return true;
+    }
+
+    private void handle(int frameStart) {
+        final byte opcode = Protocol.opcode(_readBuffer, frameStart);
+        final int firstPin = Protocol.firstPin(_readBuffer, frameStart);
+        final int secondPin = Protocol.secondPin(_readBuffer, frameStart);
+
+        if (opcode == Protocol.START) {
+            final int capacity = Protocol.intArgument(_readBuffer, frameStart);
+            if (firstPin < 0 || firstPin >= VARIANTS.length || capacity <= 0 || capacity > _maxCapacity) {
+                error(opcode, Protocol.INVALID_ARGUMENT);
+                return;
+            }
+            _gameStarted = true;
+            _control.restartGame(capacity, VARIANTS[firstPin]);
+            return;
+        }
+
+        if (opcode != Protocol.GRAB && opcode != Protocol.DROP && opcode != Protocol.MOVE) {
+            error(opcode, Protocol.UNKNOWN_REQUEST);
+            return;
+        }
+        if (!_gameStarted) {
+            error(opcode, Protocol.NO_GAME_STARTED);
+            return;
+        }
+        if (!isPin(firstPin) || (opcode == Protocol.MOVE && !isPin(secondPin))) {
+            error(opcode, Protocol.INVALID_ARGUMENT);
+            return;
+        }
+
+        try {
+            if (opcode == Protocol.GRAB) {
+                _control.grabDisk(PINS[firstPin]);
+            } else if (opcode == Protocol.DROP) {
+                _control.dropDisk(PINS[firstPin]);
+            } else {
+                // when the drop fails the disk stays grabbed, just like a GRAB followed by a failed DROP
+                _control.grabDisk(PINS[firstPin]);
+                _control.dropDisk(PINS[secondPin]);
+            }
+        } catch (InvalidMoveException e) {
+            error(opcode, Protocol.INVALID_MOVE);
+        }
+    }
+
+    private static boolean isPin(int pin) {
+        return pin >= 0 && pin < PINS.length;
+    }
+
+    private void error(byte requestOpcode, int errorCode) {
+        event(Protocol.ERROR, requestOpcode, 0, errorCode, 0);
+    }
+
+    private void event(byte opcode, int firstPin, int secondPin, int intArgument, long longArgument) {
+        if (_overflowed) return;
+        if (_pendingFrames >= _maxPendingFrames) {
+            _overflowed = true;
+            return;
+        }
+        _pendingFrames++;
+        if (_eventBuffer == null) {
+            _eventBuffer = _pool.acquire();
+        } else if (_eventBuffer.remaining() < FRAME_SIZE) {
+            _eventBuffer.flip();
+            _pendingWrites.addLast(_eventBuffer);
+            _eventBuffer = _pool.acquire();
+        }
+        Protocol.putFrame(_eventBuffer, opcode, firstPin, secondPin, intArgument, longArgument);
+    }
+
+    /** Sends the pending events with a single gathering write.
+     *
+     * @return true if every event has been sent.
+     */
+    boolean flush() throws IOException {
+        if (_eventBuffer != null) {
+            _eventBuffer.flip();
+            _pendingWrites.addLast(_eventBuffer);
+            _eventBuffer = null;
+        }
+        if (_pendingWrites.isEmpty()) return true;
+
+        if (_gather.length < _pendingWrites.size()) {
+            _gather = new ByteBuffer[Integer.highestOneBit(_pendingWrites.size()) << 1];
+        }
+        final int buffers = _pendingWrites.size();
+        _pendingWrites.toArray(_gather);
+        _channel.write(_gather, 0, buffers);
+        Arrays.fill(_gather, 0, buffers, null);
+
+        while (!_pendingWrites.isEmpty() && !_pendingWrites.peekFirst().hasRemaining()) {
+            final ByteBuffer written = _pendingWrites.pollFirst();
+            _pendingFrames -= written.limit() / FRAME_SIZE;
+            _pool.release(written);
+        }
+        return _pendingWrites.isEmpty();
+    }
+
+    /** Returns true when the client has let too many events pile up, so the connection must be closed.
+     */
+    boolean isOverflowed() {
+        return _overflowed;
+    }
+
+    /** Updates the interest of the key: writes are only watched while there are events waiting.
+     */
+    void updateInterest(SelectionKey key, boolean flushed) {
+        key.interestOps(flushed ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    void close() {
+        try {
+            _channel.close();
+        } catch (IOException e) {
+            // nothing else to be done, the connection is gone anyway
+        }
+        if (_readBuffer != null) _pool.release(_readBuffer);
+        if (_eventBuffer != null) _pool.release(_eventBuffer);
+        _pendingWrites.forEach(_pool::release);
+        _pendingWrites.clear();
+        _readBuffer = null;
+        _eventBuffer = null;
+    }
+
+    @Override
+    public void hanoiTowerEvent(GameOverEvent event) {
+        event(Protocol.GAME_OVER, 0, 0, event.totalMoves, Double.doubleToLongBits(event.score));
+    }
+
+    @Override
+    public void fireDiskRemoved(PinEvent event) {
+        event(Protocol.DISK_REMOVED, event.pinPosition.ordinal(), 0, event.diskMoved.getSize(), event.currentMoves);
+    }
+
+    @Override
+    public void fireDiskAdded(PinEvent event) {
+        event(Protocol.DISK_ADDED, event.pinPosition.ordinal(), 0, event.diskMoved.getSize(), event.currentMoves);
+    }
+
+    @Override
+    public void hanoiTowerEvent(GameStartEvent event) {
+        event(Protocol.GAME_STARTED, _control.getVariant().ordinal(), 0, event.capacity, 0);
+    }
+}
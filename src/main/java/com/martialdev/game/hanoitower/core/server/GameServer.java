@@ -0,0 +1,178 @@
+package com.martialdev.game.hanoitower.core.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+/** Non blocking server that lets clients play Hanoi Tower games through the binary protocol.
+ *  Each connection plays its own game.  A single reactor thread accepts connections, parses requests and
+ *  writes events, so the games need no synchronization.
+ *
+ * @see Protocol
+ */
+public final class GameServer implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * Protocol.FRAME_SIZE;
+    private static final int MAX_POOLED_BUFFERS = 1024;
+    private static final int DEFAULT_MAX_CAPACITY = 32;
+    private static final int DEFAULT_MAX_PENDING_FRAMES = 16 * 1024;
+
+    private final Selector _selector;
+    private final ServerSocketChannel _serverChannel;
+    private final BufferPool _pool;
+    private final int _maxCapacity;
+    private final int _maxPendingFrames;
+    private final Thread _reactor;
+    private volatile boolean _running;
+
+    /** Opens the server socket.  No connection is accepted until the server starts.
+     *  Games have at most 32 disk sizes and a client may leave 16384 events unread.
+     *
+     * @param address where the server listens.  Use port zero to get any free port.
+     * @throws IOException when the socket can't be opened.
+     */
+    public GameServer(InetSocketAddress address) throws IOException {
+        this(address, DEFAULT_MAX_CAPACITY, DEFAULT_MAX_PENDING_FRAMES);
+    }
+
+    /** Opens the server socket with the limits given to each client.  No connection is accepted until the
+     *  server starts.
+     *
+     * @param address where the server listens.  Use port zero to get any free port.
+     * @param maxCapacity the largest capacity of a game, larger ones are refused as invalid arguments.
+     * @param maxPendingFrames how many events may wait for a client that doesn't read them.  The connection of
+     *                         a client that lets more events pile up is closed.
+     * @throws IOException when the socket can't be opened.
+     */
+    public GameServer(InetSocketAddress address, int maxCapacity, int maxPendingFrames) throws IOException {
+        _maxCapacity = maxCapacity;
+        _maxPendingFrames = maxPendingFrames;
+        _selector = Selector.open();
+        _serverChannel = ServerSocketChannel.open();
+        _serverChannel.bind(address);
+        _serverChannel.configureBlocking(false);
+        _serverChannel.register(_selector, SelectionKey.OP_ACCEPT);
+        _pool = new BufferPool(BUFFER_SIZE, MAX_POOLED_BUFFERS);
+        _reactor = new Thread(this::run, "hanoi-tower-reactor");
+        _reactor.setDaemon(true);
+    }
+
+    /** Starts accepting connections in the reactor thread.
+     */
+    public void start() {
+        _running = true;
+        _reactor.start();
+    }
+
+    /** Returns the address the server is listening to.
+     *
+     * @return the local address of the server socket.
+     * @throws IOException when the socket is closed.
+     */
+    public SocketAddress getLocalAddress() throws IOException {
+        return _serverChannel.getLocalAddress();
+    }
+
+    private void run() {
+        try {
+            while (_running) {
+                _selector.select();
+                final Iterator<SelectionKey> keys = _selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        serve(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            _running = false;
+        } finally {
+            closeAll();
+        }
+    }
+
+    // a client that can't be set up, such as one reset before its setup or one over the limit of open files, is
+    // dropped alone; only a failure of the selector stops the reactor
+    private void accept() {
+        SocketChannel channel = null;
+        try {
+            channel = _serverChannel.accept();
+            if (channel == null) return;
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.register(_selector, SelectionKey.OP_READ, new GameConnection(channel, _pool, _maxCapacity, _maxPendingFrames));
+        } catch (IOException e) {
+            if (channel == null) return;
+            try {
+                channel.close();
+            } catch (IOException closeFailure) {
+                // the connection is dropped anyway
+            }
+        }
+    }
+
+    private void serve(SelectionKey key) {
+        final GameConnection connection = (GameConnection) key.attachment();
+        try {
+            if (key.isReadable() && !connection.read()) {
+                key.cancel();
+                connection.close();
+                return;
+            }
+            final boolean flushed = connection.flush();
+            if (connection.isOverflowed()) {
+                key.cancel();
+                connection.close();
+                return;
+            }
+            connection.updateInterest(key, flushed);
+        } catch (IOException | RuntimeException e) {
+            // a failure of a connection closes it alone, the other clients go on playing
+            key.cancel();
+            connection.close();
+        }
+    }
+
+    private void closeAll() {
+        if (!_selector.isOpen()) return;
+        for (SelectionKey key : _selector.keys()) {
+            if (key.attachment() instanceof GameConnection) {
+                ((GameConnection) key.attachment()).close();
+            }
+        }
+        try {
+            _serverChannel.close();
+            _selector.close();
+        } catch (IOException e) {
+            // the server is stopping, nothing else to be done
+        }
+    }
+
+    /** Stops the reactor, closing every connection.
+     */
+    @Override
+    public void close() {
+        if (!_running) {
+            closeAll();
+            return;
+        }
+        _running = false;
+        _selector.wakeup();
+        try {
+            _reactor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
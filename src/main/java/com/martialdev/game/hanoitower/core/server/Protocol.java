@@ -0,0 +1,114 @@
+package com.martialdev.game.hanoitower.core.server;
+
+import java.nio.ByteBuffer;
+
+/** Binary protocol of the game server.
+ *  Every message is a frame with FRAME_SIZE bytes, so frames can be read and written without any parsing
+ *  state.  Frame layout (big endian):
+ *  <pre>
+ *  byte  0     : opcode
+ *  byte  1     : first pin (or variant ordinal in START, or request opcode in ERROR)
+ *  byte  2     : second pin
+ *  byte  3     : reserved (zero)
+ *  bytes 4-7   : int argument (capacity, disk size, total moves or error code)
+ *  bytes 8-15  : long argument (moves done) or the bits of a double (score)
+ *  </pre>
+ *  Pins are sent as PinPosition ordinals.
+ *
+ * @see GameServer
+ */
+public final class Protocol {
+
+    public static final int FRAME_SIZE = 16;
+
+    // requests sent by clients
+    public static final byte START = 1;
+    public static final byte GRAB = 2;
+    public static final byte DROP = 3;
+    public static final byte MOVE = 4;
+
+    // events sent by the server
+    public static final byte GAME_STARTED = 65;
+    public static final byte DISK_REMOVED = 66;
+    public static final byte DISK_ADDED = 67;
+    public static final byte GAME_OVER = 68;
+    public static final byte ERROR = 127;
+
+    // error codes
+    public static final int INVALID_MOVE = 1;
+    public static final int UNKNOWN_REQUEST = 2;
+    public static final int NO_GAME_STARTED = 3;
+    public static final int INVALID_ARGUMENT = 4;
+
+    private Protocol() {
+    }
+
+    /** Writes a frame in the given buffer, from its current position.
+     *
+     * @param buffer where the frame is written.  Must have at least FRAME_SIZE bytes remaining.
+     * @param opcode the kind of the frame.
+     * @param firstPin first byte argument.
+     * @param secondPin second byte argument.
+     * @param intArgument int argument.
+     * @param longArgument long argument.
+     */
+    public static void putFrame(ByteBuffer buffer, byte opcode, int firstPin, int secondPin,
+                                int intArgument, long longArgument) {
+        buffer.put(opcode)
+                .put((byte) firstPin)
+                .put((byte) secondPin)
+                .put((byte) 0)
+                .putInt(intArgument)
+                .putLong(longArgument);
+    }
+
+    /** Reads the opcode of the frame starting at the given index.
+     *
+     * @param buffer buffer holding the frame.
+     * @param frameStart index of the first byte of the frame.
+     * @return the opcode.
+     */
+    public static byte opcode(ByteBuffer buffer, int frameStart) {
+        return buffer.get(frameStart);
+    }
+
+    /** Reads the first byte argument of the frame starting at the given index.
+     *
+     * @param buffer buffer holding the frame.
+     * @param frameStart index of the first byte of the frame.
+     * @return the first byte argument.
+     */
+    public static int firstPin(ByteBuffer buffer, int frameStart) {
+        return buffer.get(frameStart + 1);
+    }
+
+    /** Reads the second byte argument of the frame starting at the given index.
+     *
+     * @param buffer buffer holding the frame.
+     * @param frameStart index of the first byte of the frame.
+     * @return the second byte argument.
+     */
+    public static int secondPin(ByteBuffer buffer, int frameStart) {
+        return buffer.get(frameStart + 2);
+    }
+
+    /** Reads the int argument of the frame starting at the given index.
+     *
+     * @param buffer buffer holding the frame.
+     * @param frameStart index of the first byte of the frame.
+     * @return the int argument.
+     */
+    public static int intArgument(ByteBuffer buffer, int frameStart) {
+        return buffer.getInt(frameStart + 4);
+    }
+
+    /** Reads the long argument of the frame starting at the given index.
+     *
+     * @param buffer buffer holding the frame.
+     * @param frameStart index of the first byte of the frame.
+     * @return the long argument.
+     */
+    public static long longArgument(ByteBuffer buffer, int frameStart) {
+        return buffer.getLong(frameStart + 8);
+    }
+}
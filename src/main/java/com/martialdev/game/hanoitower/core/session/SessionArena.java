@@ -0,0 +1,164 @@
+package com.martialdev.game.hanoitower.core.session;
+
+import com.martialdev.game.hanoitower.core.control.GameSnapshot;
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Keeps idle games out of the Java heap.
+ *  Each game is a fixed size record (a game snapshot) in direct buffer slabs, so millions of idle games cost
+ *  a few bytes each and no objects.  A game becomes a controller only while it's being played: check it out
+ *  to play and check it in to write it back to its record.  Released records are reused through a free list.
+ *  All methods are synchronized, but a checked out controller must be used by one thread at a time.
+ *
+ * @see GameSnapshot
+ */
+public final class SessionArena {
+
+    private final int _recordSize;
+    private final int _recordsPerSlab;
+    private final int _maxCapacity;
+    private final List<ByteBuffer> _slabs = new ArrayList<>();
+    private final Map<Integer, HanoiTowerControl> _checkedOut = new HashMap<>();
+    private int[] _freeSlots = new int[16];
+    private int _freeCount;
+    private int _nextSlot;
+    private int _sessions;
+
+    /** Creates an empty arena.
+     *
+     * @param maxCapacity the largest capacity of the games kept in the arena.
+     * @param recordsPerSlab how many games fit in each direct buffer allocated by the arena.
+     */
+    public SessionArena(int maxCapacity, int recordsPerSlab) {
+        _maxCapacity = maxCapacity;
+        // bicolor games have the longest encoding
+        _recordSize = GameSnapshot.encodedSize(GameVariant.BICOLOR, maxCapacity);
+        _recordsPerSlab = recordsPerSlab;
+    }
+
+    /** Creates a game in the initial position.
+     *
+     * @param capacity how many disk sizes the game has.
+     * @param variant rules of the game.
+     * @return the slot of the game, used to play it later.
+     */
+    public synchronized int create(int capacity, GameVariant variant) {
+        final HanoiTowerControl control = new HanoiTowerControl();
+        control.startGame(capacity, variant);
+        return store(control.snapshot());
+    }
+
+    /** Keeps the given game in the arena.
+     *
+     * @param snapshot the state of the game.
+     * @return the slot of the game.
+     */
+    public synchronized int store(GameSnapshot snapshot) {
+        if (snapshot.capacity > _maxCapacity) {
+            throw new IllegalArgumentException("Arena holds games up to " + _maxCapacity + " disks: "
+                    + snapshot.capacity);
+        }
+        final int slot = _freeCount > 0 ? _freeSlots[--_freeCount] : _nextSlot++;
+        while (slot / _recordsPerSlab >= _slabs.size()) {
+            _slabs.add(ByteBuffer.allocateDirect(_recordSize * _recordsPerSlab));
+        }
+        snapshot.writeTo(slab(slot), offset(slot));
+        _sessions++;
+        return slot;
+    }
+
+    /** Turns the game into a controller to be played.  Checking out a game twice gives the same controller.
+     *
+     * @param slot the slot of the game.
+     * @return the controller playing the game.
+     */
+    public synchronized HanoiTowerControl checkOut(int slot) {
+        HanoiTowerControl control = _checkedOut.get(slot);
+        if (control == null) {
+            control = new HanoiTowerControl();
+            control.restore(read(slot));
+            _checkedOut.put(slot, control);
+        }
+        return control;
+    }
+
+    /** Writes the game back to its record and forgets its controller.
+     *
+     * @param slot the slot of the game.
+     */
+    public synchronized void checkIn(int slot) {
+        final HanoiTowerControl control = _checkedOut.remove(slot);
+        if (control != null) {
+            control.snapshot().writeTo(slab(slot), offset(slot));
+        }
+    }
+
+    /** Reads the state of a game.  Checked out games are read from their controllers.
+     *
+     * @param slot the slot of the game.
+     * @return the state of the game.
+     */
+    public synchronized GameSnapshot read(int slot) {
+        final HanoiTowerControl control = _checkedOut.get(slot);
+        if (control != null) return control.snapshot();
+        if (slot < 0 || slot >= _nextSlot) {
+            throw new IllegalArgumentException("There is no game in slot " + slot);
+        }
+        return GameSnapshot.readFrom(slab(slot), offset(slot));
+    }
+
+    /** Removes a game from the arena, letting its record be reused.
+     *
+     * @param slot the slot of the game.
+     */
+    public synchronized void release(int slot) {
+        read(slot);
+        _checkedOut.remove(slot);
+        // a zero first byte marks an empty record
+        slab(slot).put(offset(slot), (byte) 0);
+        if (_freeCount == _freeSlots.length) {
+            _freeSlots = Arrays.copyOf(_freeSlots, _freeCount * 2);
+        }
+        _freeSlots[_freeCount++] = slot;
+        _sessions--;
+    }
+
+    /** Returns how many games are in the arena.
+     *
+     * @return the quantity of games, checked out or not.
+     */
+    public synchronized int sessions() {
+        return _sessions;
+    }
+
+    /** Returns how many games are being played.
+     *
+     * @return the quantity of checked out games.
+     */
+    public synchronized int checkedOut() {
+        return _checkedOut.size();
+    }
+
+    /** Returns how many bytes of direct memory the arena has allocated.
+     *
+     * @return the size of the slabs.
+     */
+    public synchronized long offHeapBytes() {
+        return (long) _slabs.size() * _recordSize * _recordsPerSlab;
+    }
+
+    private ByteBuffer slab(int slot) {
+        return _slabs.get(slot / _recordsPerSlab);
+    }
+
+    private int offset(int slot) {
+        return (slot % _recordsPerSlab) * _recordSize;
+    }
+}
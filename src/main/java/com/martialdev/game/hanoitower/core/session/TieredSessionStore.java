@@ -0,0 +1,451 @@
+package com.martialdev.game.hanoitower.core.session;
+
+import com.martialdev.game.hanoitower.core.control.GameSnapshot;
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/** Keeps recently played games on the heap and spills idle games to disk.
+ *  Idle games are appended to segment files as their snapshots, and an index in memory tells where each one
+ *  is.  A spilled game is loaded back, in a new controller, by the next move of its session.  Records of
+ *  loaded or removed games are dead, and segments with few live records are compacted: their live records are
+ *  copied to the current segment and the segment file is deleted.
+ *  Segments are a spill area, not a durable store: the files of a directory are deleted when a store opens it.
+ *  Records (little endian): int length of the rest of the record, short length of the session id, the session
+ *  id in UTF-8 and the game snapshot.
+ *
+ * @see GameSnapshot
+ */
+public final class TieredSessionStore implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final class HotGame {
+        final HanoiTowerControl control;
+        volatile long lastAccess;
+        boolean spilled;
+
+        HotGame(HanoiTowerControl control, long lastAccess) {
+            this.control = control;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private static final class Location {
+        final int segment;
+        final long offset;
+        final int length;
+
+        Location(int segment, long offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private static final class Segment {
+        final int id;
+        final FileChannel channel;
+        // the spilled sessions whose live records are in the segment
+        final Set<String> sessions = new HashSet<>();
+        long size;
+        long liveBytes;
+
+        Segment(int id, FileChannel channel) {
+            this.id = id;
+            this.channel = channel;
+        }
+    }
+
+    private final Path _directory;
+    private final long _idleNanos;
+    private final long _segmentSize;
+    private final LongSupplier _clock;
+    private final BiConsumer<String, HanoiTowerControl> _prepare;
+    private final ConcurrentHashMap<String, HotGame> _hot = new ConcurrentHashMap<>();
+    // cold state is guarded by the store monitor
+    private final Map<String, Location> _index = new HashMap<>();
+    private final TreeMap<Integer, Segment> _segments = new TreeMap<>();
+    private Segment _current;
+    private ScheduledExecutorService _maintenance;
+
+    /** Opens a store in a directory, deleting any segment left in it.
+     *
+     * @param directory where the segments are written.
+     * @param idleTime how long a game stays on the heap without moves.
+     * @param unit the unit of the idle time.
+     * @param segmentSize the size of a segment before a new one is started.
+     * @param prepare called with each controller created or loaded by the store, to add its listeners.  Moves
+     *                must go through the store, a move done in the controller may be lost when it's spilled.
+     * @throws IOException when the directory can't be used.
+     */
+    public TieredSessionStore(Path directory, long idleTime, TimeUnit unit, long segmentSize,
+                              BiConsumer<String, HanoiTowerControl> prepare) throws IOException {
+        this(directory, unit.toNanos(idleTime), segmentSize, prepare, System::nanoTime);
+    }
+
+    TieredSessionStore(Path directory, long idleNanos, long segmentSize, BiConsumer<String, HanoiTowerControl> prepare,
+                       LongSupplier clock) throws IOException {
+        _directory = directory;
+        _idleNanos = idleNanos;
+        _segmentSize = segmentSize;
+        _prepare = prepare;
+        _clock = clock;
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) Files.delete(file);
+        }
+        _current = openSegment(0);
+    }
+
+    /** Starts a game in a new session.  The game is played through the store, so every move counts as an
+     *  access and a game being played is never spilled.
+     *
+     * @param sessionId id of the session.
+     * @param capacity how many disk sizes the game has.
+     * @param variant rules of the game.
+     */
+    public void create(String sessionId, int capacity, GameVariant variant) {
+        final HanoiTowerControl control = new HanoiTowerControl();
+        _prepare.accept(sessionId, control);
+        control.startGame(capacity, variant);
+        synchronized (this) {
+            if (_hot.containsKey(sessionId) || _index.containsKey(sessionId)) {
+                throw new IllegalArgumentException("Session " + sessionId + " already exists.");
+            }
+            _hot.put(sessionId, new HotGame(control, _clock.getAsLong()));
+        }
+    }
+
+    /** Grabs a disk in the game of a session, loading the game if it has been spilled.
+     *
+     * @param sessionId id of the session.
+     * @param pin where the disk is grabbed.
+     * @throws InvalidMoveException if the move is not allowed.
+     */
+    public void grabDisk(String sessionId, PinPosition pin) throws InvalidMoveException {
+        while (true) {
+            final HotGame game = load(sessionId);
+            synchronized (game) {
+                if (game.spilled) continue;
+                game.lastAccess = _clock.getAsLong();
+                game.control.grabDisk(pin);
+                return;
+            }
+        }
+    }
+
+    /** Drops the grabbed disk in the game of a session, loading the game if it has been spilled.
+     *
+     * @param sessionId id of the session.
+     * @param pin where the disk is dropped.
+     * @throws InvalidMoveException if the move is not allowed.
+     */
+    public void dropDisk(String sessionId, PinPosition pin) throws InvalidMoveException {
+        while (true) {
+            final HotGame game = load(sessionId);
+            synchronized (game) {
+                if (game.spilled) continue;
+                game.lastAccess = _clock.getAsLong();
+                game.control.dropDisk(pin);
+                return;
+            }
+        }
+    }
+
+    /** Returns the state of the game of a session, without loading it.
+     *
+     * @param sessionId id of the session.
+     * @return the snapshot of the game.
+     */
+    public GameSnapshot snapshot(String sessionId) {
+        final HotGame game = _hot.get(sessionId);
+        if (game != null) {
+            synchronized (game) {
+                if (!game.spilled) return game.control.snapshot();
+            }
+        }
+        synchronized (this) {
+            final HotGame loaded = _hot.get(sessionId);
+            if (loaded != null) return loaded.control.snapshot();
+            return read(sessionId, location(sessionId));
+        }
+    }
+
+    /** Removes a session, on the heap or spilled.
+     *
+     * @param sessionId id of the session.
+     * @return true if the session existed.
+     */
+    public synchronized boolean remove(String sessionId) {
+        final HotGame game = _hot.remove(sessionId);
+        if (game != null) {
+            synchronized (game) {
+                game.spilled = true;
+            }
+            return true;
+        }
+        return unindex(sessionId) != null;
+    }
+
+    /** Spills the games idle for longer than the idle time.
+     *
+     * @return how many games have been spilled.
+     */
+    public int spillIdle() {
+        final long now = _clock.getAsLong();
+        int spilled = 0;
+        for (Map.Entry<String, HotGame> entry : _hot.entrySet()) {
+            if (now - entry.getValue().lastAccess >= _idleNanos && spill(entry.getKey(), entry.getValue(), now)) {
+                spilled++;
+            }
+        }
+        return spilled;
+    }
+
+    /** Compacts the segments (but the current one) whose live records take less than the given ratio.
+     *
+     * @param liveRatio segments with less live bytes than this ratio of their size are compacted.
+     * @return how many segments have been deleted.
+     */
+    public int compact(double liveRatio) {
+        final List<Integer> candidates = new ArrayList<>();
+        synchronized (this) {
+            for (Segment segment : _segments.values()) {
+                if (segment != _current && segment.liveBytes < segment.size * liveRatio) candidates.add(segment.id);
+            }
+        }
+        int deleted = 0;
+        for (int id : candidates) {
+            // one segment at a time, so moves loading games don't wait for the whole compaction
+            synchronized (this) {
+                final Segment segment = _segments.get(id);
+                // removed by another compaction or by close
+                if (segment == null) continue;
+                for (String sessionId : new ArrayList<>(segment.sessions)) {
+                    index(sessionId, append(sessionId, read(sessionId, _index.get(sessionId))));
+                }
+                closeSegment(segment);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /** Spills idle games and compacts segments with less than half of live records, periodically, in a
+     *  background thread.  Failures are reported to the uncaught exception handler of the thread, and the
+     *  maintenance goes on.
+     *
+     * @param period time between runs.
+     * @param unit the unit of the period.
+     */
+    public void startMaintenance(long period, TimeUnit unit) {
+        startMaintenance(period, unit, failure -> {
+            final Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, failure);
+        });
+    }
+
+    /** Spills idle games and compacts segments with less than half of live records, periodically, in a
+     *  background thread.
+     *
+     * @param period time between runs.
+     * @param unit the unit of the period.
+     * @param onFailure receives what a run has thrown.  The next runs happen anyway.
+     */
+    public synchronized void startMaintenance(long period, TimeUnit unit, Consumer<Throwable> onFailure) {
+        if (_maintenance != null) return;
+        _maintenance = Executors.newSingleThreadScheduledExecutor(task -> {
+            final Thread thread = new Thread(task, "session-store-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        _maintenance.scheduleWithFixedDelay(() -> {
+            // an exception escaping the task would cancel every later run
+            try {
+                spillIdle();
+                compact(0.5);
+            } catch (RuntimeException e) {
+                onFailure.accept(e);
+            }
+        }, period, period, unit);
+    }
+
+    /** Returns how many games are on the heap.
+     *
+     * @return the quantity of hot games.
+     */
+    public int hotSessions() {
+        return _hot.size();
+    }
+
+    /** Returns how many games are spilled.
+     *
+     * @return the quantity of cold games.
+     */
+    public synchronized int coldSessions() {
+        return _index.size();
+    }
+
+    /** Returns how many segment files the store has.
+     *
+     * @return the quantity of segments.
+     */
+    public synchronized int segments() {
+        return _segments.size();
+    }
+
+    /** Stops the maintenance and deletes the segments.  Spilled games are lost.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (_maintenance != null) _maintenance.shutdownNow();
+        for (Iterator<Segment> segments = _segments.values().iterator(); segments.hasNext(); ) {
+            final Segment segment = segments.next();
+            segment.channel.close();
+            Files.deleteIfExists(segmentFile(segment.id));
+            segments.remove();
+        }
+        _index.clear();
+        _hot.clear();
+    }
+
+    // returns the hot game of a session, loading it if it has been spilled
+    private HotGame load(String sessionId) {
+        final HotGame game = _hot.get(sessionId);
+        if (game != null) return game;
+        synchronized (this) {
+            final HotGame loaded = _hot.get(sessionId);
+            if (loaded != null) return loaded;
+            final Location location = location(sessionId);
+            final HanoiTowerControl control = new HanoiTowerControl();
+            _prepare.accept(sessionId, control);
+            control.restore(read(sessionId, location));
+            unindex(sessionId);
+            final HotGame hot = new HotGame(control, _clock.getAsLong());
+            _hot.put(sessionId, hot);
+            return hot;
+        }
+    }
+
+    private synchronized boolean spill(String sessionId, HotGame game, long now) {
+        synchronized (game) {
+            if (game.spilled || now - game.lastAccess < _idleNanos) return false;
+            index(sessionId, append(sessionId, game.control.snapshot()));
+            game.spilled = true;
+            _hot.remove(sessionId, game);
+            return true;
+        }
+    }
+
+    private void index(String sessionId, Location location) {
+        final Location previous = _index.put(sessionId, location);
+        if (previous != null) _segments.get(previous.segment).sessions.remove(sessionId);
+        _segments.get(location.segment).sessions.add(sessionId);
+    }
+
+    private Location unindex(String sessionId) {
+        final Location location = _index.remove(sessionId);
+        if (location != null) {
+            final Segment segment = _segments.get(location.segment);
+            segment.liveBytes -= location.length;
+            segment.sessions.remove(sessionId);
+        }
+        return location;
+    }
+
+    private Location location(String sessionId) {
+        final Location location = _index.get(sessionId);
+        if (location == null) throw new IllegalArgumentException("There is no session " + sessionId);
+        return location;
+    }
+
+    private Location append(String sessionId, GameSnapshot snapshot) {
+        final byte[] id = sessionId.getBytes(StandardCharsets.UTF_8);
+        final int length = Integer.BYTES + Short.BYTES + id.length + snapshot.encodedSize();
+        final ByteBuffer record = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        record.putInt(0, length - Integer.BYTES);
+        record.putShort(Integer.BYTES, (short) id.length);
+        record.position(Integer.BYTES + Short.BYTES);
+        record.put(id);
+        snapshot.writeTo(record, Integer.BYTES + Short.BYTES + id.length);
+        record.position(0);
+        try {
+            if (_current.size >= _segmentSize) _current = openSegment(_current.id + 1);
+            final long offset = _current.size;
+            while (record.hasRemaining()) _current.channel.write(record, offset + record.position());
+            _current.size += length;
+            _current.liveBytes += length;
+            return new Location(_current.id, offset, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private GameSnapshot read(String sessionId, Location location) {
+        final ByteBuffer record = ByteBuffer.allocate(location.length).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            final FileChannel channel = _segments.get(location.segment).channel;
+            while (record.hasRemaining()) {
+                if (channel.read(record, location.offset + record.position()) < 0) {
+                    throw new IOException("Segment " + location.segment + " is truncated.");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final int idLength = record.getShort(Integer.BYTES);
+        return GameSnapshot.readFrom(record, Integer.BYTES + Short.BYTES + idLength);
+    }
+
+    private Segment openSegment(int id) throws IOException {
+        final FileChannel channel = FileChannel.open(segmentFile(id), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final Segment segment = new Segment(id, channel);
+        _segments.put(id, segment);
+        return segment;
+    }
+
+    private void closeSegment(Segment segment) {
+        _segments.remove(segment.id);
+        try {
+            segment.channel.close();
+            Files.deleteIfExists(segmentFile(segment.id));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path segmentFile(int id) {
+        return _directory.resolve(SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+    }
+}
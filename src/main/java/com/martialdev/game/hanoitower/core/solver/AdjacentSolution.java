@@ -0,0 +1,29 @@
+package com.martialdev.game.hanoitower.core.solver;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+
+/** Optimal solution of an adjacent game, where disks only move between neighbour pins.
+ *  The largest disk stops in the middle pin, so the smaller tower crosses the board three times.
+ */
+public final class AdjacentSolution extends RecursiveSolution {
+
+    private static final int CROSS = 1;
+    private static final int MIDDLE_PIN = 1;
+
+    /** Creates the optimal solution of an adjacent game with the given disks.
+     *
+     * @param disks how many disks the game has.
+     */
+    public AdjacentSolution(int disks) {
+        super(disks, GameVariant.ADJACENT.minimumMoves(disks), CROSS);
+    }
+
+    @Override
+    void expand(int type, int disks, int from, int to) {
+        push(CROSS, disks - 1, from, to);
+        pushMove(MIDDLE_PIN, to);
+        push(CROSS, disks - 1, to, from);
+        pushMove(from, MIDDLE_PIN);
+        push(CROSS, disks - 1, from, to);
+    }
+}
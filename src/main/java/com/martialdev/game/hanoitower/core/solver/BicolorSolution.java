@@ -0,0 +1,44 @@
+package com.martialdev.game.hanoitower.core.solver;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+
+/** Optimal solution of a bicolor game, where disks come in pairs and the colors must keep their order.
+ *  Moving a pair one disk at a time swaps its colors, so the largest pair is moved twice to be restored,
+ *  while the smaller pairs are moved as an unordered tower whenever their order will be restored later.
+ */
+public final class BicolorSolution extends RecursiveSolution {
+
+    private static final int ORDERED = 1;
+    private static final int UNORDERED = 2;
+
+    /** Creates the optimal solution of a bicolor game with the given disk sizes.
+     *
+     * @param sizes how many disk sizes the game has (two disks of each size).
+     */
+    public BicolorSolution(int sizes) {
+        super(sizes, GameVariant.BICOLOR.minimumMoves(sizes), ORDERED);
+    }
+
+    @Override
+    void expand(int type, int pairs, int from, int to) {
+        final int spare = other(from, to);
+        if (type == UNORDERED) {
+            push(UNORDERED, pairs - 1, spare, to);
+            pushMove(from, to);
+            pushMove(from, to);
+            push(UNORDERED, pairs - 1, from, spare);
+        } else if (pairs == 1) {
+            pushMove(spare, to);
+            pushMove(from, to);
+            pushMove(from, spare);
+        } else {
+            push(ORDERED, pairs - 1, from, to);
+            pushMove(spare, to);
+            pushMove(spare, to);
+            push(UNORDERED, pairs - 1, to, from);
+            pushMove(from, spare);
+            pushMove(from, spare);
+            push(UNORDERED, pairs - 1, from, to);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.martialdev.game.hanoitower.core.solver;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+
+/** Optimal solution of a classic game, moving the tower from the first to the third pin.
+ *  Every move is calculated straight from its index, so any move can be read without generating the
+ *  previous ones.
+ */
+public final class ClassicSolution implements MoveSequence {
+
+    private static final PinPosition[] PINS = PinPosition.values();
+
+    private final long _totalMoves;
+    private final boolean _evenDisks;
+    private long _moveIndex;
+
+    /** Creates the optimal solution of a classic game with the given disks.
+     *
+     * @param disks how many disks the game has.
+     */
+    public ClassicSolution(int disks) {
+        _totalMoves = GameVariant.CLASSIC.minimumMoves(disks);
+        _evenDisks = disks % 2 == 0;
+        _moveIndex = 0;
+    }
+
+    @Override
+    public boolean next() {
+        if (_moveIndex >= _totalMoves) return false;
+        _moveIndex++;
+        return true;
+    }
+
+    @Override
+    public PinPosition from() {
+        return PINS[fromPin(_moveIndex)];
+    }
+
+    @Override
+    public PinPosition to() {
+        return PINS[toPin(_moveIndex)];
+    }
+
+    @Override
+    public long remaining() {
+        return _totalMoves - _moveIndex;
+    }
+
+    /** Returns the ordinal of the pin where the given move grabs a disk.
+     *
+     * @param move index of the move, starting from 1.
+     * @return the ordinal of the origin pin.
+     */
+    public int fromPin(long move) {
+        return orient((int) ((move & (move - 1)) % 3));
+    }
+
+    /** Returns the ordinal of the pin where the given move drops a disk.
+     *
+     * @param move index of the move, starting from 1.
+     * @return the ordinal of the target pin.
+     */
+    public int toPin(long move) {
+        return orient((int) (((move | (move - 1)) + 1) % 3));
+    }
+
+    // the formulas move odd towers to the third pin and even towers to the second one
+    private int orient(int pin) {
+        return _evenDisks && pin != 0 ? 3 - pin : pin;
+    }
+}
@@ -0,0 +1,172 @@
+package com.martialdev.game.hanoitower.core.solver;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.PositionEncoding;
+
+/** Finds the optimal continuation of a game from any position.
+ *  To gather the disks on the third pin, the largest disk out of place must take its only possible way,
+ *  and the smaller disks must be out of its way before each of its moves.  Walking the disks from the largest
+ *  one gives the distance to the end of the game and the next move in linear time.
+ *  Bicolor games are not supported, since the order of the colors breaks this reasoning.
+ *
+ * @see HintCache
+ */
+public final class ContinuationSolver {
+
+    private static final int TARGET_PIN = 2;
+    private static final int MIDDLE_PIN = 1;
+
+    private final GameVariant _variant;
+    private final int _disks;
+    // cost of moving a whole tower of i disks one and two steps (adjacent: to the middle and end to end)
+    private final long[] _oneStep;
+    private final long[] _twoSteps;
+
+    /** Creates a solver for the games with the given rules and capacity.
+     *
+     * @param variant rules of the game.
+     * @param disks how many disks the game has.
+     * @throws UnsupportedOperationException for bicolor games.
+     */
+    public ContinuationSolver(GameVariant variant, int disks) {
+        if (variant.isBicolor()) {
+            throw new UnsupportedOperationException("Continuations of bicolor games are not supported.");
+        }
+        _variant = variant;
+        _disks = disks;
+        _oneStep = new long[disks + 1];
+        _twoSteps = new long[disks + 1];
+        for (int i = 1; i <= disks; i++) {
+            switch (variant) {
+                case CYCLIC:
+                    _oneStep[i] = 2 * _twoSteps[i - 1] + 1;
+                    _twoSteps[i] = 2 * _twoSteps[i - 1] + _oneStep[i - 1] + 2;
+                    break;
+                case ADJACENT:
+                    _twoSteps[i] = 3 * _twoSteps[i - 1] + 2;
+                    _oneStep[i] = _twoSteps[i] / 2;
+                    break;
+                default:
+                    _oneStep[i] = 2 * _oneStep[i - 1] + 1;
+                    _twoSteps[i] = _oneStep[i];
+            }
+        }
+    }
+
+    /** Decodes the pin of each disk.  A grabbed disk is considered back in the pin it came from.
+     *
+     * @param encoded the encoded position.
+     * @param heldOrigin ordinal of the pin where the grabbed disk came from, ignored when no disk is grabbed.
+     * @return the ordinal of the pin of each disk, from the smallest disk.
+     */
+    public int[] decode(long[] encoded, int heldOrigin) {
+        final int[] pins = new int[_disks];
+        for (int disk = 0; disk < _disks; disk++) {
+            final int pin = PositionEncoding.pinOf(encoded, disk);
+            pins[disk] = pin == PositionEncoding.HELD ? heldOrigin : pin;
+        }
+        return pins;
+    }
+
+    /** Returns how many moves are required to end the game from the given position.
+     *
+     * @param pins the pin of each disk, from the smallest disk.
+     * @return the minimum moves to gather every disk in the third pin.
+     */
+    public long distance(int[] pins) {
+        return distance(pins, new int[_disks], new long[_disks], _disks - 1);
+    }
+
+    /** Recalculates the distance after a disk has moved, reusing the work done for the larger disks.
+     *  The target of each disk and the moves required by each disk and the larger ones are kept in the given
+     *  arrays, which only change for the moved disk and the smaller ones.
+     *
+     * @param pins the pin of each disk, from the smallest disk.
+     * @param targets the pin each disk must reach.  Filled from the given disk down.
+     * @param moves the moves required by each disk and the larger ones.  Filled from the given disk down.
+     * @param largestChanged the largest disk that has moved since the arrays were filled.
+     * @return the minimum moves to gather every disk in the third pin.
+     */
+    long distance(int[] pins, int[] targets, long[] moves, int largestChanged) {
+        if (_disks == 0) return 0;
+        int target = largestChanged == _disks - 1 ? TARGET_PIN : targets[largestChanged];
+        long distance = largestChanged == _disks - 1 ? 0 : moves[largestChanged + 1];
+        for (int disk = largestChanged; disk >= 0; disk--) {
+            targets[disk] = target;
+            final int pin = pins[disk];
+            if (pin != target) {
+                if (isDirect(pin, target)) {
+                    // smaller disks go to the spare pin, this disk moves and the smaller tower follows it
+                    final int spare = 3 - pin - target;
+                    distance += 1 + towerCost(disk, spare, target);
+                    target = spare;
+                } else {
+                    // this disk stops in the middle, so the smaller tower goes back and forth around it
+                    distance += 2 + towerCost(disk, target, pin) + towerCost(disk, pin, target);
+                }
+            }
+            moves[disk] = distance;
+        }
+        return distance;
+    }
+
+    /** Returns the next move of the optimal continuation, packed as (from &lt;&lt; 2) | to.
+     *
+     * @param pins the pin of each disk, from the smallest disk.
+     * @return the packed move or -1 when every disk is already in the third pin.
+     */
+    public int nextMove(int[] pins) {
+        int target = TARGET_PIN;
+        int move = -1;
+        for (int disk = _disks - 1; disk >= 0; disk--) {
+            final int pin = pins[disk];
+            if (pin == target) continue;
+            if (isDirect(pin, target)) {
+                move = (pin << 2) | target;
+                target = 3 - pin - target;
+            } else {
+                move = (pin << 2) | (_variant == GameVariant.CYCLIC ? (pin + 1) % 3 : MIDDLE_PIN);
+            }
+        }
+        return move;
+    }
+
+    /** Applies a packed move, moving the smallest disk of its origin pin.
+     *
+     * @param pins the pin of each disk, from the smallest disk.  Updated by the move.
+     * @param move the packed move.
+     */
+    public void apply(int[] pins, int move) {
+        final int from = move >> 2;
+        for (int disk = 0; disk < _disks; disk++) {
+            if (pins[disk] == from) {
+                pins[disk] = move & 3;
+                return;
+            }
+        }
+    }
+
+    // true when a disk can go straight from the pin to the target
+    private boolean isDirect(int pin, int target) {
+        switch (_variant) {
+            case CYCLIC:
+                return (pin + 1) % 3 == target;
+            case ADJACENT:
+                return pin == MIDDLE_PIN || target == MIDDLE_PIN;
+            default:
+                return true;
+        }
+    }
+
+    private long towerCost(int disks, int from, int to) {
+        if (from == to) return 0;
+        switch (_variant) {
+            case CYCLIC:
+                return (from + 1) % 3 == to ? _oneStep[disks] : _twoSteps[disks];
+            case ADJACENT:
+                return from == MIDDLE_PIN || to == MIDDLE_PIN ? _oneStep[disks] : _twoSteps[disks];
+            default:
+                return _oneStep[disks];
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.martialdev.game.hanoitower.core.solver;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+
+/** Optimal solution of a cyclic game, where disks only move clockwise (first, second, third, first...).
+ *  The tower must walk two steps clockwise to reach the third pin, and moving a tower two steps requires
+ *  moving the smaller tower one step in the middle of the process.
+ */
+public final class CyclicSolution extends RecursiveSolution {
+
+    private static final int ONE_STEP = 1;
+    private static final int TWO_STEPS = 2;
+
+    /** Creates the optimal solution of a cyclic game with the given disks.
+     *
+     * @param disks how many disks the game has.
+     */
+    public CyclicSolution(int disks) {
+        super(disks, GameVariant.CYCLIC.minimumMoves(disks), TWO_STEPS);
+    }
+
+    @Override
+    void expand(int type, int disks, int from, int to) {
+        final int next = (from + 1) % 3;
+        final int afterNext = (from + 2) % 3;
+        if (type == ONE_STEP) {
+            // smaller tower two steps away, largest disk one step, smaller tower two steps again
+            push(TWO_STEPS, disks - 1, afterNext, next);
+            pushMove(from, next);
+            push(TWO_STEPS, disks - 1, from, afterNext);
+        } else {
+            // smaller tower two steps, largest disk one step, smaller tower back home,
+            // largest disk another step and smaller tower two steps again
+            push(TWO_STEPS, disks - 1, from, afterNext);
+            pushMove(next, afterNext);
+            push(ONE_STEP, disks - 1, afterNext, from);
+            pushMove(from, next);
+            push(TWO_STEPS, disks - 1, from, afterNext);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.martialdev.game.hanoitower.core.solver;
+
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+
+/** The optimal continuation of a game: how many moves are left and the first of them.
+ *  When a disk is grabbed, the continuation considers it back in the pin it came from.
+ *
+ * @see HintCache
+ */
+public final class Hint {
+
+    private static final PinPosition[] PINS = PinPosition.values();
+
+    public final long remainingMoves;
+    private final byte[] _moves;
+
+    Hint(long remainingMoves, byte[] moves) {
+        this.remainingMoves = remainingMoves;
+        _moves = moves;
+    }
+
+    /** Returns how many of the next moves are known by the hint.
+     *
+     * @return the quantity of moves in the hint.
+     */
+    public int movesAhead() {
+        return _moves.length;
+    }
+
+    /** Returns the pin where the given move grabs a disk.
+     *
+     * @param move index of the move, zero being the next move.
+     * @return the origin pin.
+     */
+    public PinPosition from(int move) {
+        return PINS[_moves[move] >> 2];
+    }
+
+    /** Returns the pin where the given move drops a disk.
+     *
+     * @param move index of the move, zero being the next move.
+     * @return the target pin.
+     */
+    public PinPosition to(int move) {
+        return PINS[_moves[move] & 3];
+    }
+}
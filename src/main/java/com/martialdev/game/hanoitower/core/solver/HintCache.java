@@ -0,0 +1,220 @@
+package com.martialdev.game.hanoitower.core.solver;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/** Bounded cache of hints, shared by every game that asks for them.
+ *  Hints are kept by the encoding of the position (and the pin of the grabbed disk, if any).  The cache is
+ *  split in segments, each one a least recently used map guarded by its own lock, and entries older than the
+ *  maximum age are computed again.
+ *
+ * @see com.martialdev.game.hanoitower.core.control.HanoiTowerControl#hint()
+ */
+public final class HintCache {
+
+    private static final int SEGMENTS = 16;
+
+    // created on the first call to shared(), so the cache takes no room in programs that never ask for hints
+    private static final class Shared {
+        static final HintCache CACHE = new HintCache(65_536, TimeUnit.MINUTES.toMillis(30), 8);
+    }
+
+    private static final class Key {
+        final GameVariant variant;
+        final int sizes;
+        final int heldOrigin;
+        final long[] position;
+        final int hash;
+
+        Key(GameVariant variant, int sizes, int heldOrigin, long[] position) {
+            this.variant = variant;
+            this.sizes = sizes;
+            this.heldOrigin = heldOrigin;
+            this.position = position;
+            int hash = Arrays.hashCode(position);
+            hash = 31 * hash + (sizes << 4 | variant.ordinal() << 2 | (heldOrigin + 1));
+            this.hash = hash ^ (hash >>> 16);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) return false;
+            final Key key = (Key) other;
+            return hash == key.hash && variant == key.variant && sizes == key.sizes
+                    && heldOrigin == key.heldOrigin && Arrays.equals(position, key.position);
+        }
+    }
+
+    private static final class CachedHint {
+        final Hint hint;
+        final long createdAt;
+
+        CachedHint(Hint hint, long createdAt) {
+            this.hint = hint;
+            this.createdAt = createdAt;
+        }
+    }
+
+    // a least recently used map, counting the entries it drops for lack of room
+    private final class Segment extends LinkedHashMap<Key, CachedHint> {
+        private static final long serialVersionUID = 1L;
+        private final int _maxEntries;
+
+        Segment(int maxEntries) {
+            super(16, 0.75f, true);
+            _maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, CachedHint> eldest) {
+            if (size() <= _maxEntries) return false;
+            _evictions.increment();
+            return true;
+        }
+    }
+
+    private final Segment[] _segments;
+    private final long _maxAgeNanos;
+    private final int _movesAhead;
+    private final LongSupplier _clock;
+    private final LongAdder _hits = new LongAdder();
+    private final LongAdder _misses = new LongAdder();
+    private final LongAdder _evictions = new LongAdder();
+
+    /** Creates a cache.
+     *
+     * @param maxEntries how many hints the cache can hold.
+     * @param maxAgeMillis how long a hint is kept.
+     * @param movesAhead how many of the next moves each hint holds.
+     */
+    public HintCache(int maxEntries, long maxAgeMillis, int movesAhead) {
+        this(maxEntries, maxAgeMillis, movesAhead, System::nanoTime);
+    }
+
+    HintCache(int maxEntries, long maxAgeMillis, int movesAhead, LongSupplier nanoClock) {
+        _maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        _movesAhead = movesAhead;
+        _clock = nanoClock;
+        _segments = new Segment[SEGMENTS];
+        final int segmentEntries = Math.max(1, (maxEntries + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            _segments[i] = new Segment(segmentEntries);
+        }
+    }
+
+    /** Returns the cache used by the controllers unless another one is given to them.  It holds up to 65,536
+     *  hints of 8 moves for 30 minutes, and it's created the first time it's asked for.
+     *
+     * @return the shared cache.
+     */
+    public static HintCache shared() {
+        return Shared.CACHE;
+    }
+
+    /** Returns the hint of a position, computing it only if it's not in the cache.
+     *
+     * @param variant rules of the game.
+     * @param sizes how many disk sizes the game has.
+     * @param position the encoded position.  It's not changed, nor kept by the cache.
+     * @param heldOrigin ordinal of the pin where the grabbed disk came from, or -1 if no disk is grabbed.
+     * @return the hint.
+     * @throws UnsupportedOperationException for bicolor games.
+     */
+    public Hint hint(GameVariant variant, int sizes, long[] position, int heldOrigin) {
+        final Key lookup = new Key(variant, sizes, heldOrigin, position);
+        final Segment segment = _segments[lookup.hash & (SEGMENTS - 1)];
+        final long now = _clock.getAsLong();
+
+        synchronized (segment) {
+            final CachedHint entry = segment.get(lookup);
+            if (entry != null) {
+                if (now - entry.createdAt <= _maxAgeNanos) {
+                    _hits.increment();
+                    return entry.hint;
+                }
+                segment.remove(lookup);
+                _evictions.increment();
+            }
+        }
+
+        _misses.increment();
+        final Hint hint = compute(variant, sizes, position, heldOrigin);
+        synchronized (segment) {
+            segment.put(new Key(variant, sizes, heldOrigin, position.clone()), new CachedHint(hint, now));
+        }
+        return hint;
+    }
+
+    private Hint compute(GameVariant variant, int sizes, long[] position, int heldOrigin) {
+        final ContinuationSolver solver = new ContinuationSolver(variant, sizes);
+        final int[] pins = solver.decode(position, heldOrigin);
+        final long distance = solver.distance(pins);
+
+        final byte[] moves = new byte[(int) Math.min(_movesAhead, distance)];
+        for (int i = 0; i < moves.length; i++) {
+            final int move = solver.nextMove(pins);
+            moves[i] = (byte) move;
+            solver.apply(pins, move);
+        }
+        return new Hint(distance, moves);
+    }
+
+    /** Returns how many hints have been found in the cache.
+     *
+     * @return the quantity of hits.
+     */
+    public long hits() {
+        return _hits.sum();
+    }
+
+    /** Returns how many hints had to be computed.
+     *
+     * @return the quantity of misses.
+     */
+    public long misses() {
+        return _misses.sum();
+    }
+
+    /** Returns how many hints have been removed for lack of room or for being too old.
+     *
+     * @return the quantity of evictions.
+     */
+    public long evictions() {
+        return _evictions.sum();
+    }
+
+    /** Returns how many hints are in the cache.
+     *
+     * @return the quantity of cached hints.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : _segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /** Removes every hint from the cache.  Statistics are kept.
+     */
+    public void clear() {
+        for (Segment segment : _segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.martialdev.game.hanoitower.core.solver;
+
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+
+/** A sequence of moves that is generated while it is read.
+ *  No move objects are created: call next() to advance and read the pins of the current move.
+ *
+ * @see Solutions
+ */
+public interface MoveSequence {
+
+    /** Advances to the next move.
+     *
+     * @return true if there is a move to be read, false when the sequence is over.
+     */
+    boolean next();
+
+    /** Returns the pin where the current move grabs a disk.
+     *
+     * @return the origin pin of the current move.
+     */
+    PinPosition from();
+
+    /** Returns the pin where the current move drops the disk.
+     *
+     * @return the target pin of the current move.
+     */
+    PinPosition to();
+
+    /** Returns how many moves are still to be read after the current one.
+     *
+     * @return the quantity of moves left.
+     */
+    long remaining();
+}
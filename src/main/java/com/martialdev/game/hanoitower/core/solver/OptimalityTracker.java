@@ -0,0 +1,77 @@
+package com.martialdev.game.hanoitower.core.solver;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+
+import java.util.Arrays;
+
+/** Keeps the distance from the current position to the end of the game while the game is played.
+ *  A move of a disk changes the target of every smaller disk, so the work done for the moved disk and the
+ *  smaller ones is done again: moving disk d costs O(d + 1), and moving the largest disk costs as much as
+ *  solving the position.  The work of the larger disks is kept, and in games close to the optimal path the
+ *  smallest disks make most of the moves, so most moves are cheap.  A move is optimal when it takes the game
+ *  one move closer to its end.
+ *
+ * @see ContinuationSolver
+ */
+public final class OptimalityTracker {
+
+    private final ContinuationSolver _solver;
+    private final int[] _pins;
+    private final int[] _targets;
+    private final long[] _moves;
+    private long _distance;
+
+    /** Creates a tracker for a game starting with every disk in the first pin.
+     *
+     * @param variant rules of the game.
+     * @param disks how many disks the game has.
+     * @throws UnsupportedOperationException for bicolor games.
+     */
+    public OptimalityTracker(GameVariant variant, int disks) {
+        this(variant, new int[disks]);
+    }
+
+    /** Creates a tracker for a game in the given position.
+     *
+     * @param variant rules of the game.
+     * @param pins the ordinal of the pin of each disk, from the smallest disk.  A grabbed disk must be
+     *             considered in the pin it came from.
+     * @throws UnsupportedOperationException for bicolor games.
+     */
+    public OptimalityTracker(GameVariant variant, int[] pins) {
+        final int disks = pins.length;
+        _solver = new ContinuationSolver(variant, disks);
+        _pins = pins.clone();
+        _targets = new int[disks];
+        _moves = new long[disks];
+        _distance = _solver.distance(_pins, _targets, _moves, disks - 1);
+    }
+
+    /** Brings every disk back to the first pin, for a new game with the same rules and disks.
+     */
+    public void reset() {
+        Arrays.fill(_pins, 0);
+        _distance = _solver.distance(_pins, _targets, _moves, _pins.length - 1);
+    }
+
+    /** Updates the distance after a disk has been dropped, in time proportional to the number of the disk.
+     *
+     * @param disk number of the disk, starting from zero for the smallest one.
+     * @param pin ordinal of the pin where the disk has been dropped.
+     * @return true if the move is on an optimal path to the end of the game.
+     */
+    public boolean diskMoved(int disk, int pin) {
+        final long previousDistance = _distance;
+        _pins[disk] = pin;
+        _distance = _solver.distance(_pins, _targets, _moves, disk);
+        return _distance == previousDistance - 1;
+    }
+
+    /** Returns how many moves are still required to end the game.
+     *
+     * @return the optimal distance to the end of the game.
+     */
+    public long distance() {
+        return _distance;
+    }
+}
@@ -0,0 +1,334 @@
+package com.martialdev.game.hanoitower.core.solver;
+
+import com.martialdev.game.hanoitower.core.control.GameSnapshot;
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.PositionEncoding;
+
+import java.util.SplittableRandom;
+
+/** Generates random positions whose distance to the end of the game is in a given range.
+ *  Positions are built from the distance, so no position is thrown away:
+ *  <ul>
+ *      <li>CLASSIC: walking the disks from the largest one, each disk out of its target pin adds 2^(i-1)
+ *      moves and changes the target of the smaller disks, so the bits of the distance tell where each disk
+ *      is.  A distance with b bits set has 2^b positions, and ranges are sampled uniformly among all the
+ *      positions in them.</li>
+ *      <li>ADJACENT: a distance is picked uniformly in the range and the position is the one found that many
+ *      moves before the end of the optimal solution, calculated from the recursion of the solution without
+ *      playing it.  The solution goes through every position of the game once, so every position may be
+ *      generated.</li>
+ *      <li>CYCLIC: the optimal solution goes through a few of the positions only, so a position of the
+ *      solution a little farther than the picked distance is the start of a random walk.  The walk tries random
+ *      moves and keeps the ones whose distance, checked by the continuation solver, stays in a band around the
+ *      picked distance; then the optimal continuation brings the position down to the picked distance.  Some
+ *      positions are never on an optimal continuation, so the walk has to end right on them.  Positions out of
+ *      the solution are generated, but they are not sampled uniformly; see {@link #coversAllPositions()}.</li>
+ *  </ul>
+ *  Bicolor games are not supported, like in the continuation solver.  Generators are seedable and not thread
+ *  safe: use one generator per thread.
+ *
+ * @see ContinuationSolver
+ */
+public final class PositionGenerator {
+
+    private static final int TARGET_PIN = 2;
+    private static final int MIDDLE_PIN = 1;
+
+    // frames of the optimal solutions: a tower moving from a pin to another
+    private static final int CLASSIC = 0;
+    private static final int ADJACENT_NEAR = 1;
+    private static final int ADJACENT_FAR = 2;
+    private static final int CYCLIC_ONE = 3;
+    private static final int CYCLIC_TWO = 4;
+    // a single move of the largest disk of a frame
+    private static final int DISK = -1;
+    // moves tried by the random walk of cyclic positions, for each disk
+    private static final int WALK_STEPS_PER_DISK = 8;
+    // how far from the wanted distance the walk may go, for each disk
+    private static final int WALK_BAND_PER_DISK = 2;
+
+    private final GameVariant _variant;
+    private final int _disks;
+    private final long _totalMoves;
+    private final SplittableRandom _random;
+    // moves of each frame type with i disks
+    private final long[][] _frameMoves = new long[5][];
+    private final int[] _pins;
+    // the random walk of cyclic positions: the solver and the work it keeps for each disk
+    private final ContinuationSolver _solver;
+    private final int[] _walkTargets;
+    private final long[] _walkMoves;
+    // segments of the frame being unranked
+    private final int[] _segmentTypes = new int[5];
+    private final int[] _segmentFrom = new int[5];
+    private final int[] _segmentTo = new int[5];
+    // classic ranges split in aligned blocks of distances, with their cumulative weights
+    private long _rangeMin = -1;
+    private long _rangeMax = -1;
+    private int _blocks;
+    private final long[] _blockStart;
+    private final int[] _blockBits;
+    private final double[] _blockWeight;
+
+    /** Creates a generator.
+     *
+     * @param variant rules of the game.
+     * @param disks how many disks the game has.
+     * @param seed seed of the random numbers, so the same seed generates the same positions.
+     * @throws UnsupportedOperationException for bicolor games.
+     * @throws IllegalArgumentException when the distances of the game don't fit in a long.
+     */
+    public PositionGenerator(GameVariant variant, int disks, long seed) {
+        if (variant.isBicolor()) {
+            throw new UnsupportedOperationException("Positions of bicolor games are not generated.");
+        }
+        if (disks < 1 || disks > 62) throw new IllegalArgumentException("Games have from 1 to 62 disks: " + disks);
+        _variant = variant;
+        _disks = disks;
+        _random = new SplittableRandom(seed);
+        _pins = new int[disks];
+        for (int type = 0; type < _frameMoves.length; type++) _frameMoves[type] = new long[disks + 1];
+        try {
+            for (int i = 1; i <= disks; i++) {
+                _frameMoves[CLASSIC][i] = Math.addExact(Math.multiplyExact(2, _frameMoves[CLASSIC][i - 1]), 1);
+                _frameMoves[ADJACENT_FAR][i] = Math.addExact(Math.multiplyExact(3, _frameMoves[ADJACENT_FAR][i - 1]), 2);
+                _frameMoves[ADJACENT_NEAR][i] = _frameMoves[ADJACENT_FAR][i] / 2;
+                _frameMoves[CYCLIC_ONE][i] = Math.addExact(Math.multiplyExact(2, _frameMoves[CYCLIC_TWO][i - 1]), 1);
+                _frameMoves[CYCLIC_TWO][i] = Math.addExact(Math.addExact(
+                        Math.multiplyExact(2, _frameMoves[CYCLIC_TWO][i - 1]), _frameMoves[CYCLIC_ONE][i - 1]), 2);
+            }
+        } catch (ArithmeticException e) {
+            // classic positions are built without frames
+            if (variant != GameVariant.CLASSIC) {
+                throw new IllegalArgumentException(variant + " distances of " + disks + " disks don't fit in a long.");
+            }
+        }
+        _totalMoves = variant.minimumMoves(disks);
+        _solver = variant == GameVariant.CYCLIC ? new ContinuationSolver(variant, disks) : null;
+        _walkTargets = new int[disks];
+        _walkMoves = new long[disks];
+        _blockStart = new long[2 * disks + 2];
+        _blockBits = new int[2 * disks + 2];
+        _blockWeight = new double[2 * disks + 2];
+    }
+
+    /** Returns the largest distance of a position in the game: the distance of the initial position.
+     *
+     * @return the minimum moves of the game.
+     */
+    public long maximumDistance() {
+        return _totalMoves;
+    }
+
+    /** Tells whether every position in a range is generated with the same chance.  Cyclic positions come from
+     *  random walks around the optimal solution, so some positions are more likely than others.
+     *
+     * @return false for cyclic games.
+     */
+    public boolean coversAllPositions() {
+        return _variant != GameVariant.CYCLIC;
+    }
+
+    /** Generates a position, writing the pin of each disk.  Nothing is allocated.
+     *
+     * @param minDistance the smallest distance wanted.
+     * @param maxDistance the largest distance wanted.
+     * @param pins where the ordinal of the pin of each disk is written, from the smallest disk.
+     * @return the distance of the generated position.
+     * @throws IllegalArgumentException when no position of the game has a distance in the range.
+     */
+    public long next(long minDistance, long maxDistance, int[] pins) {
+        final long min = Math.max(0, minDistance);
+        final long max = Math.min(_totalMoves, maxDistance);
+        if (min > max) {
+            throw new IllegalArgumentException("No position has a distance from " + minDistance + " to "
+                    + maxDistance);
+        }
+        if (_variant == GameVariant.CLASSIC) return nextClassic(min, max, pins);
+        final long distance = min == max ? min : _random.nextLong(min, max + 1);
+        if (_variant == GameVariant.CYCLIC) return nextCyclic(distance, pins);
+        unrank(_totalMoves - distance, pins);
+        return distance;
+    }
+
+    /** Generates a position, ready to be restored in a controller.
+     *
+     * @param minDistance the smallest distance wanted.
+     * @param maxDistance the largest distance wanted.
+     * @return the snapshot of a game in the generated position, with no moves done.
+     * @throws IllegalArgumentException when no position of the game has a distance in the range.
+     */
+    public GameSnapshot nextSnapshot(long minDistance, long maxDistance) {
+        next(minDistance, maxDistance, _pins);
+        final long[] encoded = new long[PositionEncoding.words(_variant, _disks)];
+        PositionEncoding.encode(_pins, encoded);
+        return new GameSnapshot(_variant, _disks, encoded, -1, 0, 0d);
+    }
+
+    private long nextClassic(long min, long max, int[] pins) {
+        if (min != _rangeMin || max != _rangeMax) splitRange(min, max);
+        // a block is picked by its weight, the quantity of positions in it
+        final double pick = _random.nextDouble() * _blockWeight[_blocks - 1];
+        int block = 0;
+        while (block < _blocks - 1 && _blockWeight[block] <= pick) block++;
+        final long prefix = _blockStart[block];
+        final int freeDisks = _blockBits[block];
+
+        int target = TARGET_PIN;
+        long distance = 0;
+        for (int disk = _disks - 1; disk >= 0; disk--) {
+            final int pin;
+            if (disk >= freeDisks) {
+                // the bit of the disk is given by the block: in the target pin, or in one of the others
+                pin = ((prefix >>> disk) & 1) == 0 ? target : (target + 1 + _random.nextInt(2)) % 3;
+            } else {
+                // the smaller disks may be anywhere, every place is a distinct position in the block
+                pin = _random.nextInt(3);
+            }
+            if (pin != target) {
+                distance += 1L << disk;
+                target = 3 - pin - target;
+            }
+            pins[disk] = pin;
+        }
+        return distance;
+    }
+
+    private long nextCyclic(long target, int[] pins) {
+        final long low = Math.max(0, target - WALK_BAND_PER_DISK * _disks);
+        final long high = Math.min(_totalMoves, target + WALK_BAND_PER_DISK * _disks);
+        long distance = target == high ? target : _random.nextLong(target, high + 1);
+        unrank(_totalMoves - distance, pins);
+        _solver.distance(pins, _walkTargets, _walkMoves, _disks - 1);
+
+        for (int step = 0; step < WALK_STEPS_PER_DISK * _disks; step++) {
+            distance = step(pins, distance, low, high);
+        }
+        // below the wanted distance, the walk goes on until it's reached or passed
+        for (int step = 0; distance < target && step < WALK_STEPS_PER_DISK * _disks; step++) {
+            distance = step(pins, distance, low, high);
+        }
+        if (distance < target) {
+            distance = target;
+            unrank(_totalMoves - distance, pins);
+        }
+        // every optimal move takes the position one move closer to the end
+        for (; distance > target; distance--) _solver.apply(pins, _solver.nextMove(pins));
+        return target;
+    }
+
+    // tries a random move, kept when the distance it leads to is in the band
+    private long step(int[] pins, long distance, long low, long high) {
+        // disks only move to the next pin; the smallest disk of the two pins is the one that may move
+        final int from = _random.nextInt(3);
+        final int to = (from + 1) % 3;
+        int disk = 0;
+        while (disk < _disks && pins[disk] != from && pins[disk] != to) disk++;
+        if (disk == _disks || pins[disk] != from) return distance;
+
+        pins[disk] = to;
+        final long moved = _solver.distance(pins, _walkTargets, _walkMoves, disk);
+        if (moved >= low && moved <= high) return moved;
+        pins[disk] = from;
+        _solver.distance(pins, _walkTargets, _walkMoves, disk);
+        return distance;
+    }
+
+    // splits the range in blocks of distances sharing their high bits; a block with k free bits and b high bits
+    // set holds 2^b * 3^k positions
+    private void splitRange(long min, long max) {
+        _blocks = 0;
+        double total = 0;
+        long start = min;
+        while (start <= max) {
+            int bits = start == 0 ? 63 : Long.numberOfTrailingZeros(start);
+            while (bits > 0 && (bits >= 63 || start + (1L << bits) - 1 > max || start + (1L << bits) - 1 < start)) {
+                bits--;
+            }
+            total += Math.pow(2, Long.bitCount(start)) * Math.pow(3, bits);
+            _blockStart[_blocks] = start;
+            _blockBits[_blocks] = bits;
+            _blockWeight[_blocks++] = total;
+            final long next = start + (1L << bits);
+            if (next <= start) break;
+            start = next;
+        }
+        _rangeMin = min;
+        _rangeMax = max;
+    }
+
+    // writes the position of the optimal solution after the given moves
+    private void unrank(long moves, int[] pins) {
+        int type = _variant == GameVariant.CYCLIC ? CYCLIC_TWO : ADJACENT_FAR;
+        int from = 0;
+        int to = TARGET_PIN;
+        long rest = moves;
+        for (int disk = _disks - 1; disk >= 0; disk--) {
+            final int segments = segments(type, from, to);
+            int pin = from;
+            for (int segment = 0; segment < segments; segment++) {
+                if (_segmentTypes[segment] == DISK) {
+                    rest--;
+                    pin = _segmentTo[segment];
+                } else {
+                    final long frameMoves = _frameMoves[_segmentTypes[segment]][disk];
+                    if (rest <= frameMoves) {
+                        // the smaller disks are inside this frame
+                        type = _segmentTypes[segment];
+                        from = _segmentFrom[segment];
+                        to = _segmentTo[segment];
+                        break;
+                    }
+                    rest -= frameMoves;
+                }
+            }
+            pins[disk] = pin;
+        }
+    }
+
+    // the recursion of each frame: the smaller disks move out of the way, the largest disk moves, and so on
+    private int segments(int type, int from, int to) {
+        final int other = 3 - from - to;
+        switch (type) {
+            case ADJACENT_FAR:
+                segment(0, ADJACENT_FAR, from, to);
+                segment(1, DISK, from, MIDDLE_PIN);
+                segment(2, ADJACENT_FAR, to, from);
+                segment(3, DISK, MIDDLE_PIN, to);
+                segment(4, ADJACENT_FAR, from, to);
+                return 5;
+            case ADJACENT_NEAR:
+                segment(0, adjacentType(from, other), from, other);
+                segment(1, DISK, from, to);
+                segment(2, adjacentType(other, to), other, to);
+                return 3;
+            case CYCLIC_ONE:
+                segment(0, CYCLIC_TWO, from, other);
+                segment(1, DISK, from, to);
+                segment(2, CYCLIC_TWO, other, to);
+                return 3;
+            case CYCLIC_TWO:
+                segment(0, CYCLIC_TWO, from, to);
+                segment(1, DISK, from, other);
+                segment(2, CYCLIC_ONE, to, from);
+                segment(3, DISK, other, to);
+                segment(4, CYCLIC_TWO, from, to);
+                return 5;
+            default:
+                segment(0, CLASSIC, from, other);
+                segment(1, DISK, from, to);
+                segment(2, CLASSIC, other, to);
+                return 3;
+        }
+    }
+
+    private void segment(int index, int type, int from, int to) {
+        _segmentTypes[index] = type;
+        _segmentFrom[index] = from;
+        _segmentTo[index] = to;
+    }
+
+    private static int adjacentType(int from, int to) {
+        return from + to == 2 && from != MIDDLE_PIN ? ADJACENT_FAR : ADJACENT_NEAR;
+    }
+}
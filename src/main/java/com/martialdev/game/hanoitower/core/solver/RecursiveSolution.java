@@ -0,0 +1,80 @@
+package com.martialdev.game.hanoitower.core.solver;
+
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+
+/** Base of the solutions described by recursions.
+ *  The recursion is unrolled in an explicit stack of frames packed in an int array, so the memory used is
+ *  proportional to the disks and the time is proportional to the moves.
+ */
+abstract class RecursiveSolution implements MoveSequence {
+
+    static final int MOVE = 0;
+
+    private static final PinPosition[] PINS = PinPosition.values();
+
+    private final int[] _frames;
+    private int _top;
+    private int _from;
+    private int _to;
+    private long _remaining;
+
+    // frames keep the disks in 8 bits, far more than the disks whose moves fit in a long
+    RecursiveSolution(int disks, long totalMoves, int firstFrame) {
+        if (disks < 0 || disks > 0xFF) throw new IllegalArgumentException("Frames can't hold " + disks + " disks.");
+        _frames = new int[8 * (disks + 1)];
+        _remaining = totalMoves;
+        _top = 0;
+        if (disks > 0) push(firstFrame, disks, 0, 2);
+    }
+
+    /** Replaces a frame with the frames it is made of.  Frames are pushed in reverse order.
+     */
+    abstract void expand(int type, int disks, int from, int to);
+
+    final void push(int type, int disks, int from, int to) {
+        if (type != MOVE && disks == 0) return;
+        _frames[_top++] = (((type << 8) | disks) << 4) | (from << 2) | to;
+    }
+
+    final void pushMove(int from, int to) {
+        push(MOVE, 1, from, to);
+    }
+
+    @Override
+    public final boolean next() {
+        while (_top > 0) {
+            final int frame = _frames[--_top];
+            final int from = (frame >> 2) & 3;
+            final int to = frame & 3;
+            final int disks = (frame >> 4) & 0xFF;
+            final int type = frame >>> 12;
+            if (type == MOVE) {
+                _from = from;
+                _to = to;
+                _remaining--;
+                return true;
+            }
+            expand(type, disks, from, to);
+        }
+        return false;
+    }
+
+    @Override
+    public final PinPosition from() {
+        return PINS[_from];
+    }
+
+    @Override
+    public final PinPosition to() {
+        return PINS[_to];
+    }
+
+    @Override
+    public final long remaining() {
+        return _remaining;
+    }
+
+    static int other(int pin1, int pin2) {
+        return 3 - pin1 - pin2;
+    }
+}
@@ -0,0 +1,36 @@
+package com.martialdev.game.hanoitower.core.solver;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+
+/** Provides the optimal solution of each game variant.
+ *  The moves are generated while they are read, so even huge games can be solved with little memory.
+ *
+ * @see GameVariant
+ */
+public final class Solutions {
+
+    private Solutions() {
+    }
+
+    /** Returns the optimal sequence of moves that takes the tower from the first pin to the third pin.
+     *
+     * @param variant rules of the game.
+     * @param sizes how many disk sizes the game has (the capacity provided when the game starts).
+     * @return the optimal moves, exactly variant.minimumMoves(sizes) of them.
+     * @throws IllegalArgumentException when sizes is negative or the moves don't fit in a long.
+     */
+    public static MoveSequence optimal(GameVariant variant, int sizes) {
+        if (sizes < 0) throw new IllegalArgumentException("A game can't have " + sizes + " disk sizes.");
+        variant.minimumMoves(sizes);
+        switch (variant) {
+            case CYCLIC:
+                return new CyclicSolution(sizes);
+            case ADJACENT:
+                return new AdjacentSolution(sizes);
+            case BICOLOR:
+                return new BicolorSolution(sizes);
+            default:
+                return new ClassicSolution(sizes);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.martialdev.game.hanoitower.core.stream;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** The buffer of events waiting for a subscriber, delivered as the subscriber requests them.
+ *  Games offer events from their own threads; the subscriber is called from the executor, by one task at a time.
+ */
+final class BufferedSubscription implements Flow.Subscription {
+
+    // an event waiting in the queue; a conflated slot has its event replaced by the next event of the session
+    private static final class Slot {
+        SessionEvent event;
+
+        Slot(SessionEvent event) {
+            this.event = event;
+        }
+    }
+
+    private final SessionEventPublisher _publisher;
+    private final Flow.Subscriber<? super SessionEvent> _subscriber;
+    private final Executor _executor;
+    private final int _capacity;
+    private final boolean _conflate;
+    private final ArrayDeque<Slot> _queue = new ArrayDeque<>();
+    private final Map<String, Slot> _pendingMoves = new HashMap<>();
+    private final AtomicLong _demand = new AtomicLong();
+    private final AtomicInteger _drainRequests = new AtomicInteger();
+    private boolean _subscribed;
+    private volatile boolean _cancelled;
+    private volatile Throwable _error;
+    private volatile boolean _completed;
+
+    BufferedSubscription(SessionEventPublisher publisher, Flow.Subscriber<? super SessionEvent> subscriber,
+                         Executor executor, int capacity, Conflation conflation) {
+        _publisher = publisher;
+        _subscriber = subscriber;
+        _executor = executor;
+        _capacity = capacity;
+        _conflate = conflation == Conflation.LATEST_PER_SESSION;
+    }
+
+    void start() {
+        drain();
+    }
+
+    void offer(SessionEvent event) {
+        if (_cancelled) return;
+        synchronized (_queue) {
+            final Slot pending = _conflate ? _pendingMoves.get(event.sessionId) : null;
+            if (pending != null) {
+                // the pending move is the last event queued for the session, so the newer event takes its place
+                pending.event = event;
+                if (!event.kind.isMove()) _pendingMoves.remove(event.sessionId);
+            } else if (_queue.size() >= _capacity && !(_conflate && evictOldest())) {
+                _error = new IllegalStateException("Subscriber buffer is full: " + _capacity + " events waiting");
+            } else {
+                final Slot slot = new Slot(event);
+                _queue.addLast(slot);
+                if (_conflate && event.kind.isMove()) _pendingMoves.put(event.sessionId, slot);
+            }
+        }
+        drain();
+    }
+
+    // makes room in a full conflated queue, dropping the oldest move or the oldest event when no move waits
+    private boolean evictOldest() {
+        for (Iterator<Slot> slots = _queue.iterator(); slots.hasNext(); ) {
+            final Slot slot = slots.next();
+            if (slot.event.kind.isMove()) {
+                slots.remove();
+                _pendingMoves.remove(slot.event.sessionId);
+                return true;
+            }
+        }
+        final Slot oldest = _queue.pollFirst();
+        return oldest != null;
+    }
+
+    void complete() {
+        _completed = true;
+        drain();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            _error = new IllegalArgumentException("Requests must be positive: " + n);
+        } else {
+            _demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+        }
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        _cancelled = true;
+        _publisher.remove(this);
+    }
+
+    private void drain() {
+        if (_drainRequests.getAndIncrement() == 0) {
+            _executor.execute(this::deliver);
+        }
+    }
+
+    // only one deliver runs at a time, and it keeps running while drain requests arrive
+    private void deliver() {
+        int requests = _drainRequests.get();
+        do {
+            if (!deliverPending()) return;
+            requests = _drainRequests.addAndGet(-requests);
+        } while (requests != 0);
+    }
+
+    private boolean deliverPending() {
+        if (!_subscribed) {
+            _subscribed = true;
+            _subscriber.onSubscribe(this);
+        }
+        while (!_cancelled) {
+            if (_error != null) {
+                terminate();
+                _subscriber.onError(_error);
+                return false;
+            }
+
+            SessionEvent event = null;
+            final boolean empty;
+            synchronized (_queue) {
+                if (_demand.get() > 0 && !_queue.isEmpty()) {
+                    final Slot slot = _queue.pollFirst();
+                    event = slot.event;
+                    if (_pendingMoves.get(event.sessionId) == slot) _pendingMoves.remove(event.sessionId);
+                }
+                empty = _queue.isEmpty();
+            }
+            if (event == null) {
+                if (empty && _completed) {
+                    terminate();
+                    _subscriber.onComplete();
+                    return false;
+                }
+                return true;
+            }
+            _demand.decrementAndGet();
+            _subscriber.onNext(event);
+        }
+        return false;
+    }
+
+    private void terminate() {
+        _cancelled = true;
+        _publisher.remove(this);
+    }
+}
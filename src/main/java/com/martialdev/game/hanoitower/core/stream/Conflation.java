@@ -0,0 +1,19 @@
+package com.martialdev.game.hanoitower.core.stream;
+
+/** What a publisher does with the events waiting for a subscriber that is slower than the games.
+ *
+ * @see SessionEventPublisher
+ */
+public enum Conflation {
+
+    /** Every event is delivered.  A subscriber whose buffer is full receives an error and is removed.
+     */
+    NONE,
+
+    /** A disk move waiting to be delivered is replaced by the next event of the same session, so the
+     *  subscriber receives the latest state of each session.  A full buffer never drops the subscriber: the
+     *  oldest waiting move makes room for the new event, or the oldest event when no move is waiting.  Game
+     *  start and game over events are only dropped when the buffer is full of them.
+     */
+    LATEST_PER_SESSION
+}
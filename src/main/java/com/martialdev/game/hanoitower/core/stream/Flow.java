@@ -0,0 +1,57 @@
+package com.martialdev.game.hanoitower.core.stream;
+
+/** Interfaces of reactive streams with backpressure.
+ *  They follow the contract of java.util.concurrent.Flow, which isn't available in Java 8.  In newer Java
+ *  versions an adapter between both is a matter of delegating each method.
+ *
+ * @see SessionEventPublisher
+ */
+public final class Flow {
+
+    private Flow() {
+    }
+
+    /** A producer of items that are received by subscribers as they request them.
+     *
+     * @param <T> the type of the items.
+     */
+    public interface Publisher<T> {
+
+        /** Adds a subscriber.  The subscriber is informed through onSubscribe and receives nothing until
+         *  it requests items.
+         *
+         * @param subscriber the subscriber.
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /** A receiver of items.
+     *
+     * @param <T> the type of the items.
+     */
+    public interface Subscriber<T> {
+
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    /** Link between a publisher and a subscriber, used to ask for items or to stop receiving them.
+     */
+    public interface Subscription {
+
+        /** Asks for more items.  A request that is not positive ends the subscription with an error.
+         *
+         * @param n how many items can still be received.
+         */
+        void request(long n);
+
+        /** Stops receiving items.  Some items may still arrive after the cancellation.
+         */
+        void cancel();
+    }
+}
@@ -0,0 +1,60 @@
+package com.martialdev.game.hanoitower.core.stream;
+
+import com.martialdev.game.hanoitower.core.control.Disk;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+
+/** An event of a game session, holding the state of the pins after the event.
+ *  Since every event holds the whole state of the pins, a subscriber that skipped some moves of a session
+ *  still knows where each disk is.
+ *
+ * @see SessionEventPublisher
+ */
+public final class SessionEvent {
+
+    /** Kinds of session events.
+     */
+    public enum Kind {
+        GAME_STARTED, DISK_REMOVED, DISK_ADDED, GAME_OVER;
+
+        /** Returns true for the events that only move disks, which can be replaced by later events.
+         *
+         * @return true for disk removed and disk added events.
+         */
+        public boolean isMove() {
+            return this == DISK_REMOVED || this == DISK_ADDED;
+        }
+    }
+
+    public final String sessionId;
+    public final Kind kind;
+    public final Disk diskMoved;
+    public final PinPosition pinPosition;
+    public final int moves;
+    public final double score;
+    private final Disk[][] _pins;
+
+    SessionEvent(String sessionId, Kind kind, Disk diskMoved, PinPosition pinPosition, int moves, double score,
+                 Disk[][] pins) {
+        this.sessionId = sessionId;
+        this.kind = kind;
+        this.diskMoved = diskMoved;
+        this.pinPosition = pinPosition;
+        this.moves = moves;
+        this.score = score;
+        this._pins = pins;
+    }
+
+    /** Returns the disks in the given pin after the event, from the bottom to the top of the pin.
+     *
+     * @param pinPosition FIRST, SECOND or THIRD.
+     * @return a copy of the disks in the pin.
+     */
+    public Disk[] getDisks(PinPosition pinPosition) {
+        return _pins[pinPosition.ordinal()].clone();
+    }
+
+    @Override
+    public String toString() {
+        return sessionId + " " + kind + " after " + moves + " moves";
+    }
+}
@@ -0,0 +1,115 @@
+package com.martialdev.game.hanoitower.core.stream;
+
+import com.martialdev.game.hanoitower.core.control.Disk;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+import com.martialdev.game.hanoitower.core.control.event.GameOverEvent;
+import com.martialdev.game.hanoitower.core.control.event.GameStartEvent;
+import com.martialdev.game.hanoitower.core.control.event.HanoiTowerListener;
+import com.martialdev.game.hanoitower.core.control.event.PinEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/** Publishes the events of many game sessions in a single stream.
+ *  Games never wait for subscribers: each subscriber has a bounded buffer, and a subscriber that can't keep up
+ *  either gets the latest state of each session (LATEST_PER_SESSION conflation, dropping the oldest moves
+ *  when the buffer is full) or is dropped with an error when its buffer is full (NONE).
+ *
+ * @see Conflation
+ */
+public final class SessionEventPublisher implements Flow.Publisher<SessionEvent> {
+
+    private static final PinPosition[] PINS = PinPosition.values();
+
+    private final Executor _executor;
+    private final int _bufferCapacity;
+    private final Conflation _conflation;
+    private final List<BufferedSubscription> _subscriptions = new CopyOnWriteArrayList<>();
+    private volatile boolean _closed;
+
+    /** Creates a publisher.
+     *
+     * @param executor runs the subscribers.  Each subscriber is called by one task at a time.
+     * @param bufferCapacity how many events can wait for each subscriber.
+     * @param conflation what is done with the events of a slow subscriber.
+     */
+    public SessionEventPublisher(Executor executor, int bufferCapacity, Conflation conflation) {
+        _executor = executor;
+        _bufferCapacity = bufferCapacity;
+        _conflation = conflation;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super SessionEvent> subscriber) {
+        final BufferedSubscription subscription =
+                new BufferedSubscription(this, subscriber, _executor, _bufferCapacity, _conflation);
+        _subscriptions.add(subscription);
+        subscription.start();
+        if (_closed) subscription.complete();
+    }
+
+    /** Publishes the events of the given game, tagged with the given session id.
+     *
+     * @param sessionId identifies the game in the stream.
+     * @param control the game.
+     * @return the listener added to the game.
+     */
+    public HanoiTowerListener attach(final String sessionId, final HanoiTowerControl control) {
+        final HanoiTowerListener listener = new HanoiTowerListener() {
+
+            @Override
+            public void hanoiTowerEvent(GameOverEvent event) {
+                publish(sessionId, control, SessionEvent.Kind.GAME_OVER, Disk.DISK_ZERO, null,
+                        event.totalMoves, event.score);
+            }
+
+            @Override
+            public void fireDiskRemoved(PinEvent event) {
+                publish(sessionId, control, SessionEvent.Kind.DISK_REMOVED, event.diskMoved, event.pinPosition,
+                        event.currentMoves, 0);
+            }
+
+            @Override
+            public void fireDiskAdded(PinEvent event) {
+                publish(sessionId, control, SessionEvent.Kind.DISK_ADDED, event.diskMoved, event.pinPosition,
+                        event.currentMoves, 0);
+            }
+
+            @Override
+            public void hanoiTowerEvent(GameStartEvent event) {
+                publish(sessionId, control, SessionEvent.Kind.GAME_STARTED, Disk.DISK_ZERO, null, 0, 0);
+            }
+        };
+        control.addListener(listener);
+        return listener;
+    }
+
+    private void publish(String sessionId, HanoiTowerControl control, SessionEvent.Kind kind, Disk disk,
+                         PinPosition pinPosition, int moves, double score) {
+        if (_closed || _subscriptions.isEmpty()) return;
+
+        final Disk[][] pins = new Disk[PINS.length][];
+        for (PinPosition pin : PINS) {
+            pins[pin.ordinal()] = control.getDisks(pin);
+        }
+        final SessionEvent event = new SessionEvent(sessionId, kind, disk, pinPosition, moves, score, pins);
+        for (BufferedSubscription subscription : _subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /** Completes the stream.  Subscribers receive the events already published and then onComplete.
+     */
+    public void close() {
+        _closed = true;
+        for (BufferedSubscription subscription : _subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    void remove(BufferedSubscription subscription) {
+        _subscriptions.remove(subscription);
+    }
+}
@@ -0,0 +1,91 @@
+package com.martialdev.game.hanoitower.core.timer;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/** A task scheduled in a timing wheel.  Timeouts are linked in the buckets of the wheel, so adding and
+ *  removing them takes constant time.
+ *
+ * @see TimingWheel#schedule(Runnable, long, java.util.concurrent.TimeUnit)
+ */
+public final class Timeout {
+
+    static final int PENDING = 0;
+    static final int CANCELLED = 1;
+    static final int EXPIRED = 2;
+
+    private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "_state");
+
+    final TimingWheel wheel;
+    final Runnable task;
+    final long deadline;
+    // links of the bucket, only touched by the thread advancing the wheel
+    Timeout previous;
+    Timeout next;
+    Bucket bucket;
+    private volatile int _state;
+
+    Timeout(TimingWheel wheel, Runnable task, long deadline) {
+        this.wheel = wheel;
+        this.task = task;
+        this.deadline = deadline;
+    }
+
+    /** Cancels the task if it has not run yet.
+     *
+     * @return true if the task will not run because of this call.
+     */
+    public boolean cancel() {
+        if (!STATE.compareAndSet(this, PENDING, CANCELLED)) return false;
+        wheel.cancelled(this);
+        return true;
+    }
+
+    /** Returns true if the timeout has been cancelled.
+     *
+     * @return true if the task has been cancelled before running.
+     */
+    public boolean isCancelled() {
+        return _state == CANCELLED;
+    }
+
+    /** Returns true if the task has run (or is running).
+     *
+     * @return true if the timeout has expired.
+     */
+    public boolean isExpired() {
+        return _state == EXPIRED;
+    }
+
+    boolean expire() {
+        return STATE.compareAndSet(this, PENDING, EXPIRED);
+    }
+
+    /** A doubly linked list of timeouts. */
+    static final class Bucket {
+        private Timeout _head;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.previous = null;
+            timeout.next = _head;
+            if (_head != null) _head.previous = timeout;
+            _head = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.previous != null) timeout.previous.next = timeout.next;
+            else _head = timeout.next;
+            if (timeout.next != null) timeout.next.previous = timeout.previous;
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        Timeout clear() {
+            final Timeout head = _head;
+            _head = null;
+            return head;
+        }
+    }
+}
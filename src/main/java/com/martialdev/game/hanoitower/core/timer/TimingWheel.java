@@ -0,0 +1,205 @@
+package com.martialdev.game.hanoitower.core.timer;
+
+import java.io.Closeable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/** Hierarchical timing wheel, shared by any number of games.
+ *  Time moves in ticks.  The wheel has four levels of 64 buckets: the first level holds the timeouts of the
+ *  next 64 ticks, and each bucket of the other levels holds 64 times the ticks of a bucket of the level below.
+ *  When the ticks reach a bucket of an upper level, its timeouts fall to the levels below, so each timeout
+ *  is moved a few times at most before it expires.  Timeouts further than the four levels wait in the last
+ *  level and fall again until they are close enough.
+ *  Scheduling and cancelling only add to lock free queues, so any thread can do it in constant time; the
+ *  buckets are only touched by the thread advancing the wheel, which also runs the expired tasks.  Tasks
+ *  should be short, handing any heavy work to other threads.
+ */
+public final class TimingWheel implements Closeable {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long _tickNanos;
+    private final LongSupplier _clock;
+    private final long _startTime;
+    private final Timeout.Bucket[][] _buckets = new Timeout.Bucket[LEVELS][SLOTS];
+    private final Queue<Timeout> _scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> _cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong _pending = new AtomicLong();
+    private long _tick;
+    private Thread _thread;
+    private volatile boolean _running;
+
+    /** Creates a wheel driven by the system clock.  Call start to advance it from its own thread.
+     *
+     * @param tickDuration the duration of a tick, the precision of the timeouts.
+     * @param unit the unit of the duration.
+     */
+    public TimingWheel(long tickDuration, TimeUnit unit) {
+        this(unit.toNanos(tickDuration), System::nanoTime);
+    }
+
+    /** Creates a wheel driven by the given clock.  Useful to advance the wheel by hand.
+     *
+     * @param tickNanos the duration of a tick in nanoseconds.
+     * @param clock the clock, in nanoseconds.
+     */
+    public TimingWheel(long tickNanos, LongSupplier clock) {
+        if (tickNanos <= 0) throw new IllegalArgumentException("Ticks must have a duration: " + tickNanos);
+        _tickNanos = tickNanos;
+        _clock = clock;
+        _startTime = clock.getAsLong();
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) _buckets[level][slot] = new Timeout.Bucket();
+        }
+    }
+
+    /** Schedules a task to run after the given delay.
+     *
+     * @param task the task.
+     * @param delay the delay, rounded up to whole ticks.
+     * @param unit the unit of the delay.
+     * @return the timeout, used to cancel the task.
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        final long elapsed = _clock.getAsLong() - _startTime + unit.toNanos(delay);
+        final Timeout timeout = new Timeout(this, task, (elapsed + _tickNanos - 1) / _tickNanos);
+        _pending.incrementAndGet();
+        _scheduled.add(timeout);
+        return timeout;
+    }
+
+    /** Returns how many timeouts are waiting to expire.
+     *
+     * @return the quantity of timeouts neither expired nor cancelled.
+     */
+    public long pending() {
+        return _pending.get();
+    }
+
+    void cancelled(Timeout timeout) {
+        _pending.decrementAndGet();
+        _cancelled.add(timeout);
+    }
+
+    /** Advances the wheel to the current time, running the expired tasks.  Only one thread may advance
+     *  the wheel: the thread started by start, or the caller when the wheel has not been started.
+     */
+    public void advance() {
+        final long now = (_clock.getAsLong() - _startTime) / _tickNanos;
+        removeCancelled();
+        addScheduled();
+        while (_tick < now) {
+            _tick++;
+            // upper levels fall first, so their timeouts can expire in this tick
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((_tick & ((1L << (BITS * level)) - 1)) == 0) {
+                    cascade(_buckets[level][(int) (_tick >>> (BITS * level)) & MASK]);
+                }
+            }
+            Timeout timeout = _buckets[0][(int) _tick & MASK].clear();
+            while (timeout != null) {
+                final Timeout next = unlink(timeout);
+                run(timeout);
+                timeout = next;
+            }
+        }
+    }
+
+    /** Starts a daemon thread advancing the wheel every tick.
+     */
+    public synchronized void start() {
+        if (_thread != null) return;
+        _running = true;
+        _thread = new Thread(() -> {
+            while (_running) {
+                advance();
+                try {
+                    TimeUnit.NANOSECONDS.sleep(_tickNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "timing-wheel");
+        _thread.setDaemon(true);
+        _thread.start();
+    }
+
+    /** Stops the thread advancing the wheel.  Pending timeouts are kept.
+     */
+    @Override
+    public synchronized void close() {
+        _running = false;
+        if (_thread != null) {
+            _thread.interrupt();
+            _thread = null;
+        }
+    }
+
+    private void addScheduled() {
+        Timeout timeout;
+        while ((timeout = _scheduled.poll()) != null) {
+            if (timeout.isCancelled()) continue;
+            if (timeout.deadline <= _tick) run(timeout);
+            else place(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = _cancelled.poll()) != null) {
+            if (timeout.bucket != null) timeout.bucket.remove(timeout);
+        }
+    }
+
+    // the lowest level where the deadline is less than a whole round of buckets ahead of the current tick
+    private void place(Timeout timeout) {
+        for (int level = 0; level < LEVELS; level++) {
+            final long bucket = timeout.deadline >>> (BITS * level);
+            if (bucket - (_tick >>> (BITS * level)) < SLOTS) {
+                _buckets[level][(int) bucket & MASK].add(timeout);
+                return;
+            }
+        }
+        // too far: wait in the last bucket to fall before the last level goes round
+        final int top = BITS * (LEVELS - 1);
+        _buckets[LEVELS - 1][(int) ((_tick >>> top) + MASK) & MASK].add(timeout);
+    }
+
+    private void cascade(Timeout.Bucket bucket) {
+        Timeout timeout = bucket.clear();
+        while (timeout != null) {
+            final Timeout next = unlink(timeout);
+            // cancelled timeouts are dropped, their cancellation finds them in no bucket
+            if (!timeout.isCancelled()) {
+                if (timeout.deadline <= _tick) run(timeout);
+                else place(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+    // detaches a timeout from a cleared bucket, returning the next timeout of the bucket
+    private static Timeout unlink(Timeout timeout) {
+        final Timeout next = timeout.next;
+        timeout.bucket = null;
+        timeout.next = null;
+        timeout.previous = null;
+        return next;
+    }
+
+    private void run(Timeout timeout) {
+        if (!timeout.expire()) return;
+        _pending.decrementAndGet();
+        try {
+            timeout.task.run();
+        } catch (RuntimeException e) {
+            // a failing task must not stop the other timeouts
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.martialdev.game.hanoitower.core.actor;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+import com.martialdev.game.hanoitower.core.control.event.GameOverEvent;
+import com.martialdev.game.hanoitower.core.control.event.GameStartEvent;
+import com.martialdev.game.hanoitower.core.control.event.HanoiTowerListener;
+import com.martialdev.game.hanoitower.core.control.event.PinEvent;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import com.martialdev.game.hanoitower.core.solver.MoveSequence;
+import com.martialdev.game.hanoitower.core.solver.Solutions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.FIRST_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.SECOND_PIN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActorSystemTest {
+
+    private static final int SESSIONS = 2000;
+    private static final int PRODUCERS = 4;
+
+    @Test
+    @DisplayName("Sessions are played concurrently without locks")
+    public void playSessions() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        ActorSystem system = new ActorSystem(pool, 8, 4, (session, failure) -> failures.add(failure));
+        CountDownLatch gamesOver = new CountDownLatch(SESSIONS);
+        AtomicInteger overlaps = new AtomicInteger();
+
+        for (int session = 0; session < SESSIONS; session++) {
+            system.spawn("session-" + session, new HanoiTowerListener() {
+                // not synchronized: the actor calls listeners one at a time
+                private int _inside;
+
+                @Override
+                public void hanoiTowerEvent(GameOverEvent event) {
+                    gamesOver.countDown();
+                }
+
+                @Override
+                public void fireDiskRemoved(PinEvent event) {
+                    if (++_inside != 1) overlaps.incrementAndGet();
+                    _inside--;
+                }
+
+                @Override
+                public void fireDiskAdded(PinEvent event) {
+                    if (++_inside != 1) overlaps.incrementAndGet();
+                    _inside--;
+                }
+
+                @Override
+                public void hanoiTowerEvent(GameStartEvent event) {
+                }
+            });
+        }
+        assertEquals(SESSIONS, system.size());
+
+        List<Thread> producers = new ArrayList<>();
+        for (int producer = 0; producer < PRODUCERS; producer++) {
+            final int first = producer;
+            Thread thread = new Thread(() -> {
+                for (int session = first; session < SESSIONS; session += PRODUCERS) {
+                    String sessionId = "session-" + session;
+                    GameVariant variant = GameVariant.values()[session % 3];
+                    send(system, sessionId, control -> control.startGame(4, variant));
+                    MoveSequence solution = Solutions.optimal(variant, 4);
+                    while (solution.next()) {
+                        final PinPosition from = solution.from();
+                        final PinPosition to = solution.to();
+                        send(system, sessionId, control -> {
+                            control.grabDisk(from);
+                            control.dropDisk(to);
+                        });
+                    }
+                }
+            });
+            producers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : producers) thread.join();
+
+        assertTrue(gamesOver.await(30, TimeUnit.SECONDS));
+        assertTrue(failures.isEmpty(), () -> failures.peek().getMessage());
+        assertEquals(0, overlaps.get());
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Full mailboxes refuse commands and actors run in batches")
+    public void backpressure() {
+        Queue<Runnable> scheduled = new ArrayDeque<>();
+        List<Throwable> failures = new ArrayList<>();
+        ActorSystem system = new ActorSystem(scheduled::add, 4, 3, (session, failure) -> failures.add(failure));
+        SessionActor actor = system.spawn("session");
+        assertThrows(IllegalArgumentException.class, () -> system.spawn("session"));
+        AtomicInteger executed = new AtomicInteger();
+
+        assertTrue(actor.tell(control -> control.startGame(3)));
+        assertTrue(actor.tell(control -> executed.incrementAndGet()));
+        assertTrue(actor.tell(control -> control.dropDisk(SECOND_PIN)));
+        assertTrue(actor.tell(control -> control.grabDisk(FIRST_PIN)));
+        assertFalse(actor.tell(control -> executed.incrementAndGet()));
+        assertEquals(4, actor.backlog());
+        // the actor is scheduled once, whatever the commands waiting
+        assertEquals(1, scheduled.size());
+
+        scheduled.poll().run();
+        assertEquals(1, actor.backlog());
+        assertEquals(1, executed.get());
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0) instanceof InvalidMoveException);
+        assertEquals(1, scheduled.size());
+
+        scheduled.poll().run();
+        assertEquals(0, actor.backlog());
+        assertTrue(scheduled.isEmpty());
+        assertTrue(system.tell("session", control -> control.dropDisk(SECOND_PIN)));
+        scheduled.poll().run();
+        assertEquals(1, failures.size());
+        assertEquals(actor, system.stop("session"));
+        assertThrows(IllegalArgumentException.class, () -> system.tell("session", control -> { }));
+    }
+
+    @Test
+    @DisplayName("Actors refused by the executor are run by a later command")
+    public void rejectedActors() {
+        Queue<Runnable> scheduled = new ArrayDeque<>();
+        AtomicInteger rejections = new AtomicInteger(1);
+        ActorSystem system = new ActorSystem(actor -> {
+            if (rejections.getAndDecrement() > 0) throw new RejectedExecutionException("Saturated");
+            scheduled.add(actor);
+        }, 4, 8, (session, failure) -> { });
+        SessionActor actor = system.spawn("session");
+        AtomicInteger executed = new AtomicInteger();
+
+        assertThrows(RejectedExecutionException.class, () -> actor.tell(control -> executed.incrementAndGet()));
+        assertEquals(1, actor.backlog());
+        assertTrue(actor.tell(control -> executed.incrementAndGet()));
+        assertEquals(1, scheduled.size());
+        scheduled.poll().run();
+        assertEquals(2, executed.get());
+        assertEquals(0, actor.backlog());
+    }
+
+    private static void send(ActorSystem system, String sessionId, SessionCommand command) {
+        // backpressure: wait while the mailbox is full
+        while (!system.tell(sessionId, command)) Thread.yield();
+    }
+}
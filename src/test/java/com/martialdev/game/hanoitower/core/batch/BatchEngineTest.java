@@ -0,0 +1,99 @@
+package com.martialdev.game.hanoitower.core.batch;
+
+import com.martialdev.game.hanoitower.core.control.Disk;
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import com.martialdev.game.hanoitower.core.solver.ClassicSolution;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchEngineTest {
+
+    @Test
+    @DisplayName("Optimal moves finish every game of the batch")
+    public void playOptimalGames() {
+        final int games = 1000;
+        final int disks = 8;
+        BatchEngine engine = new BatchEngine(games, GameVariant.CLASSIC);
+        engine.resetAll(disks);
+        ClassicSolution solution = new ClassicSolution(disks);
+        byte[] from = new byte[games];
+        byte[] to = new byte[games];
+        byte[] results = new byte[games];
+
+        for (long move = 1; move <= 255; move++) {
+            for (int game = 0; game < games; game++) {
+                from[game] = (byte) solution.fromPin(move);
+                to[game] = (byte) solution.toPin(move);
+            }
+            assertEquals(games, engine.step(from, to, results));
+        }
+        assertEquals(games, engine.countGamesOver());
+        assertEquals(BatchEngine.FINISHED, results[0]);
+        assertEquals(255, engine.movesDone(games - 1));
+
+        assertEquals(0, engine.step(from, to, results));
+        assertEquals(BatchEngine.OVER, results[0]);
+    }
+
+    @Test
+    @DisplayName("Batch games follow the same rules of the controller")
+    public void compareWithController() throws InvalidMoveException {
+        for (GameVariant variant : new GameVariant[] {GameVariant.CLASSIC, GameVariant.CYCLIC, GameVariant.ADJACENT}) {
+            final int games = 16;
+            Random random = new Random(33);
+            BatchEngine engine = new BatchEngine(games, variant);
+            HanoiTowerControl[] controls = new HanoiTowerControl[games];
+            for (int game = 0; game < games; game++) {
+                engine.reset(game, game % 4 + 1);
+                controls[game] = new HanoiTowerControl();
+                controls[game].startGame(game % 4 + 1, variant);
+            }
+            byte[] from = new byte[games];
+            byte[] to = new byte[games];
+            byte[] results = new byte[games];
+
+            for (int step = 0; step < 500; step++) {
+                for (int game = 0; game < games; game++) {
+                    from[game] = (byte) random.nextInt(3);
+                    to[game] = (byte) random.nextInt(3);
+                }
+                engine.step(from, to, results);
+                for (int game = 0; game < games; game++) {
+                    if (results[game] == BatchEngine.MOVED || results[game] == BatchEngine.FINISHED) {
+                        controls[game].grabDisk(PinPosition.values()[from[game]]);
+                        controls[game].dropDisk(PinPosition.values()[to[game]]);
+                    }
+                    for (PinPosition pin : PinPosition.values()) {
+                        assertEquals(mask(controls[game].getDisks(pin)), engine.pinMask(game, pin));
+                    }
+                }
+            }
+            assertTrue(engine.countGamesOver() > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Bicolor games and huge towers are refused")
+    public void checkLimits() {
+        assertThrows(UnsupportedOperationException.class, () -> new BatchEngine(1, GameVariant.BICOLOR));
+        BatchEngine engine = new BatchEngine(1, GameVariant.CLASSIC);
+        assertThrows(IllegalArgumentException.class, () -> engine.reset(0, BatchEngine.MAX_DISKS + 1));
+    }
+
+    private static long mask(Disk[] disks) {
+        long mask = 0;
+        for (Disk disk : disks) {
+            if (disk.getSize() > 0) mask |= 1L << (disk.getSize() - 1);
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,119 @@
+package com.martialdev.game.hanoitower.core.broadcast;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import com.martialdev.game.hanoitower.core.solver.MoveSequence;
+import com.martialdev.game.hanoitower.core.solver.Solutions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameBroadcastTest {
+
+    @Test
+    @DisplayName("Spectators rebuild the game from keyframes and deltas")
+    public void followTheGame() throws InvalidMoveException {
+        for (GameVariant variant : GameVariant.values()) {
+            HanoiTowerControl control = new HanoiTowerControl();
+            GameBroadcast broadcast = new GameBroadcast(control, 64, 8);
+            Spectator early = broadcast.watch();
+            control.startGame(5, variant);
+
+            Spectator late = null;
+            HanoiTowerControl earlyView = new HanoiTowerControl();
+            HanoiTowerControl lateView = new HanoiTowerControl();
+            MoveSequence solution = Solutions.optimal(variant, 5);
+            int moves = 0;
+            while (solution.next()) {
+                control.grabDisk(solution.from());
+                control.dropDisk(solution.to());
+                if (++moves == 13) late = broadcast.watch();
+                replay(early, earlyView);
+                if (late != null) replay(late, lateView);
+                assertEquals(control.positionHash(), earlyView.positionHash());
+            }
+            assertEquals(control.positionHash(), lateView.positionHash());
+            assertEquals(control.snapshot().movesDone, lateView.snapshot().movesDone);
+            assertFalse(early.isShed());
+            assertEquals(0, late.lag());
+        }
+    }
+
+    @Test
+    @DisplayName("Frames are shared by all spectators")
+    public void shareFrames() throws InvalidMoveException {
+        HanoiTowerControl control = new HanoiTowerControl();
+        control.startGame(3);
+        GameBroadcast broadcast = new GameBroadcast(control, 16, 4);
+        Spectator first = broadcast.watch();
+        Spectator second = broadcast.watch();
+        control.grabDisk(HanoiTowerControl.PinPosition.FIRST_PIN);
+
+        Frame keyframe = first.poll();
+        assertSame(keyframe, second.poll());
+        assertEquals(Frame.KEYFRAME, keyframe.type);
+        Frame grab = first.poll();
+        assertSame(grab, second.poll());
+        assertEquals(Frame.GRAB, grab.type);
+        assertEquals(1, grab.disk().getSize());
+
+        ByteBuffer data = grab.data();
+        assertTrue(data.isReadOnly());
+        assertEquals(Frame.HEADER_SIZE + Integer.BYTES, data.remaining());
+        assertEquals(grab.sequence, data.getLong(8));
+        assertNull(first.poll());
+        assertThrows(IllegalArgumentException.class, () -> new GameBroadcast(control, 12, 2));
+    }
+
+    @Test
+    @DisplayName("Slow spectators are shed without stopping the player")
+    public void shedSlowSpectators() throws InvalidMoveException {
+        HanoiTowerControl control = new HanoiTowerControl();
+        GameBroadcast broadcast = new GameBroadcast(control, 8, 2);
+        control.startGame(6);
+        Spectator slow = broadcast.watch();
+        assertEquals(Frame.KEYFRAME, slow.poll().type);
+
+        MoveSequence solution = Solutions.optimal(GameVariant.CLASSIC, 6);
+        while (solution.next()) {
+            control.grabDisk(solution.from());
+            control.dropDisk(solution.to());
+        }
+        assertNull(slow.poll());
+        assertTrue(slow.isShed());
+
+        // watching again starts from the latest keyframe
+        Spectator again = broadcast.watch();
+        HanoiTowerControl view = new HanoiTowerControl();
+        replay(again, view);
+        assertEquals(control.positionHash(), view.positionHash());
+    }
+
+    private static void replay(Spectator spectator, HanoiTowerControl view) throws InvalidMoveException {
+        Frame frame;
+        while ((frame = spectator.poll()) != null) {
+            switch (frame.type) {
+                case Frame.KEYFRAME:
+                    view.restore(frame.snapshot());
+                    break;
+                case Frame.GRAB:
+                    view.grabDisk(frame.from());
+                    break;
+                case Frame.MOVE:
+                    view.dropDisk(frame.to());
+                    break;
+                default:
+                    assertEquals(1d, frame.score());
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.martialdev.game.hanoitower.core.cluster;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.FIRST_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.SECOND_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.THIRD_PIN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterTest {
+
+    private static final int SESSIONS = 3000;
+
+    @Test
+    @DisplayName("Sessions are spread evenly and only the needed ones move")
+    public void spreadSessions() {
+        HashRing ring = new HashRing(128);
+        for (int node = 0; node < 4; node++) ring.add("node-" + node);
+        Map<String, Integer> owned = new HashMap<>();
+        Map<String, String> owners = new HashMap<>();
+        for (int session = 0; session < SESSIONS; session++) {
+            String owner = ring.owner("session-" + session);
+            owners.put("session-" + session, owner);
+            owned.merge(owner, 1, Integer::sum);
+        }
+        assertEquals(4, owned.size());
+        for (int count : owned.values()) {
+            assertTrue(count > SESSIONS / 8 && count < SESSIONS * 3 / 8, "unbalanced ring: " + owned);
+        }
+
+        ring.add("node-4");
+        assertEquals(5, ring.size());
+        for (Map.Entry<String, String> entry : owners.entrySet()) {
+            String owner = ring.owner(entry.getKey());
+            // a session either stays or goes to the new node
+            assertTrue(owner.equals(entry.getValue()) || owner.equals("node-4"));
+        }
+        ring.remove("node-4");
+        for (Map.Entry<String, String> entry : owners.entrySet()) {
+            assertEquals(entry.getValue(), ring.owner(entry.getKey()));
+        }
+    }
+
+    @Test
+    @DisplayName("Games are handed off when nodes join and leave")
+    public void handOffGames() throws InvalidMoveException {
+        Cluster cluster = new Cluster(64);
+        assertThrows(IllegalStateException.class, () -> cluster.route("session"));
+        LocalNode firstNode = new LocalNode("node-0");
+        cluster.join(firstNode);
+        cluster.join(new LocalNode("node-1"));
+        cluster.join(new LocalNode("node-2"));
+
+        Map<String, Long> hashes = new HashMap<>();
+        for (int session = 0; session < SESSIONS; session++) {
+            String sessionId = "session-" + session;
+            cluster.startGame(sessionId, 4, GameVariant.values()[session % 4]);
+            cluster.grabDisk(sessionId, FIRST_PIN);
+            cluster.dropDisk(sessionId, SECOND_PIN);
+            // odd sessions are handed off with a grabbed disk
+            if (session % 2 == 1) cluster.grabDisk(sessionId, SECOND_PIN);
+            hashes.put(sessionId, game(cluster, sessionId).positionHash());
+        }
+
+        LocalNode newNode = new LocalNode("node-3");
+        int moved = cluster.join(newNode);
+        assertEquals(moved, newNode.sessions().size());
+        assertTrue(moved > 0 && moved < SESSIONS / 2);
+        assertEquals(SESSIONS, sessions(cluster));
+
+        int leaving = firstNode.sessions().size();
+        assertEquals(leaving, cluster.leave("node-0"));
+        assertTrue(firstNode.sessions().isEmpty());
+        assertEquals(3, cluster.nodes().size());
+        assertEquals(SESSIONS, sessions(cluster));
+
+        for (int session = 0; session < SESSIONS; session++) {
+            String sessionId = "session-" + session;
+            assertSame(cluster.route(sessionId), owner(cluster, sessionId));
+            assertEquals(hashes.get(sessionId), game(cluster, sessionId).positionHash());
+            if (session % 2 == 1) {
+                cluster.dropDisk(sessionId, THIRD_PIN);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("The last node can't leave with sessions")
+    public void keepTheLastNode() {
+        Cluster cluster = new Cluster(8);
+        cluster.join(new LocalNode("single"));
+        assertThrows(IllegalArgumentException.class, () -> cluster.join(new LocalNode("single")));
+        cluster.startGame("session", 3, GameVariant.CLASSIC);
+        assertThrows(IllegalStateException.class, () -> cluster.leave("single"));
+        assertNull(cluster.route("session").handOff("other"));
+    }
+
+    @Test
+    @DisplayName("Ended sessions are forgotten by the cluster")
+    public void endGames() {
+        Cluster cluster = new Cluster(64);
+        LocalNode first = new LocalNode("node-0");
+        cluster.join(first);
+        for (int session = 0; session < 100; session++) {
+            cluster.startGame("session-" + session, 3, GameVariant.CLASSIC);
+        }
+        for (int session = 0; session < 50; session++) {
+            assertTrue(cluster.endGame("session-" + session));
+        }
+        assertFalse(cluster.endGame("session-0"));
+        assertEquals(50, sessions(cluster));
+        assertEquals(50, cluster.indexedSessions());
+
+        // games ended in their node are forgotten when a join looks for them
+        for (int session = 50; session < 60; session++) {
+            assertTrue(first.endGame("session-" + session));
+        }
+        for (int node = 1; node < 4; node++) {
+            cluster.join(new LocalNode("node-" + node));
+        }
+        assertEquals(40, sessions(cluster));
+        assertTrue(cluster.indexedSessions() < 50 && cluster.indexedSessions() >= 40);
+    }
+
+    @Test
+    @DisplayName("Games refused by a joining node go back to their nodes")
+    public void refuseGames() throws InvalidMoveException {
+        Cluster cluster = new Cluster(64);
+        cluster.join(new LocalNode("node-0"));
+        cluster.join(new LocalNode("node-1"));
+        for (int session = 0; session < 200; session++) {
+            cluster.startGame("session-" + session, 3, GameVariant.CLASSIC);
+            cluster.grabDisk("session-" + session, FIRST_PIN);
+        }
+
+        RefusingNode broken = new RefusingNode(new LocalNode("broken"), 5);
+        assertThrows(IllegalStateException.class, () -> cluster.join(broken));
+        assertTrue(broken.sessions().isEmpty());
+        assertEquals(2, cluster.nodes().size());
+        assertEquals(200, sessions(cluster));
+        for (int session = 0; session < 200; session++) {
+            assertSame(cluster.route("session-" + session), owner(cluster, "session-" + session));
+            cluster.dropDisk("session-" + session, SECOND_PIN);
+        }
+    }
+
+    // a node that refuses one of the games it takes over
+    private static final class RefusingNode implements ClusterNode {
+
+        private final LocalNode _node;
+        private final int _refused;
+        private int _games;
+
+        RefusingNode(LocalNode node, int refused) {
+            _node = node;
+            _refused = refused;
+        }
+
+        @Override
+        public String getId() {
+            return _node.getId();
+        }
+
+        @Override
+        public void startGame(String sessionId, int capacity, GameVariant variant) {
+            _node.startGame(sessionId, capacity, variant);
+        }
+
+        @Override
+        public void grabDisk(String sessionId, PinPosition pin) throws InvalidMoveException {
+            _node.grabDisk(sessionId, pin);
+        }
+
+        @Override
+        public void dropDisk(String sessionId, PinPosition pin) throws InvalidMoveException {
+            _node.dropDisk(sessionId, pin);
+        }
+
+        @Override
+        public boolean endGame(String sessionId) {
+            return _node.endGame(sessionId);
+        }
+
+        @Override
+        public byte[] handOff(String sessionId) {
+            return _node.handOff(sessionId);
+        }
+
+        @Override
+        public void takeOver(String sessionId, byte[] game) {
+            if (++_games == _refused) throw new IllegalStateException("No room for " + sessionId);
+            _node.takeOver(sessionId, game);
+        }
+
+        @Override
+        public Set<String> sessions() {
+            return _node.sessions();
+        }
+    }
+
+    private static int sessions(Cluster cluster) {
+        return cluster.nodes().stream().mapToInt(node -> node.sessions().size()).sum();
+    }
+
+    private static ClusterNode owner(Cluster cluster, String sessionId) {
+        for (ClusterNode node : cluster.nodes()) {
+            if (node.sessions().contains(sessionId)) return node;
+        }
+        return null;
+    }
+
+    private static HanoiTowerControl game(Cluster cluster, String sessionId) {
+        return ((LocalNode) cluster.route(sessionId)).getGame(sessionId);
+    }
+}
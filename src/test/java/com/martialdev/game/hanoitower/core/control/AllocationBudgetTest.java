@@ -0,0 +1,191 @@
+package com.martialdev.game.hanoitower.core.control;
+
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+import com.martialdev.game.hanoitower.core.control.event.EventType;
+import com.martialdev.game.hanoitower.core.control.event.HanoiTowerListener;
+import com.martialdev.game.hanoitower.core.control.event.PinEvent;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import com.martialdev.game.hanoitower.core.solver.MoveSequence;
+import com.martialdev.game.hanoitower.core.solver.Solutions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/** Plays scripted games and checks the bytes allocated by the moves against the budgets below.
+ *  Allocations are read from the thread, so the games run in the test thread after a warmup.
+ */
+class AllocationBudgetTest {
+
+    // declared budgets, in bytes per operation
+    private static final long GRAB_BUDGET = 0;
+    private static final long DROP_BUDGET = 0;
+    private static final long DROP_WITH_LISTENER_BUDGET = 64;
+    private static final long RESTART_BUDGET = 0;
+    // a game over event, in bytes per game
+    private static final long GAME_OVER_BUDGET = 32;
+    // a few objects allocated once in a measure, such as a deoptimization, are not counted against the budgets
+    private static final long SLACK = 4096;
+
+    private static final int DISKS = 8;
+    private static final int WARMUP_GAMES = 2000;
+    private static final int MEASURED_GAMES = 500;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeAll
+    static void allocationCounters() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        // reading the counter may allocate until it's compiled, so it's warmed up before the overhead is measured
+        for (int i = 0; i < 20_000; i++) allocatedBytes();
+    }
+
+    @Test
+    @DisplayName("Grabbing and dropping disks allocates nothing without listeners")
+    public void movesWithoutListeners() throws InvalidMoveException {
+        for (GameVariant variant : GameVariant.values()) {
+            Script script = new Script(variant, DISKS);
+            HanoiTowerControl control = new HanoiTowerControl();
+            control.startGame(DISKS, variant);
+
+            script.play(control, WARMUP_GAMES);
+            Measure measure = script.measure(control, MEASURED_GAMES);
+
+            assertWithinBudget(variant + " grabDisk", measure.grabBytes, measure.moves, GRAB_BUDGET);
+            assertWithinBudget(variant + " dropDisk", measure.dropBytes, measure.moves, DROP_BUDGET);
+            assertWithinBudget(variant + " restartGame", measure.restartBytes, MEASURED_GAMES, RESTART_BUDGET);
+        }
+    }
+
+    @Test
+    @DisplayName("Events nobody wants are not allocated")
+    public void movesWithGameOverSubscriber() throws InvalidMoveException {
+        Script script = new Script(GameVariant.CLASSIC, DISKS);
+        HanoiTowerControl control = new HanoiTowerControl();
+        AtomicInteger gamesOver = new AtomicInteger();
+        control.subscribe(EventType.GAME_OVER, event -> gamesOver.incrementAndGet());
+        control.startGame(DISKS);
+
+        script.play(control, WARMUP_GAMES);
+        Measure measure = script.measure(control, MEASURED_GAMES);
+
+        assertEquals(WARMUP_GAMES + MEASURED_GAMES, gamesOver.get());
+        assertWithinBudget("grabDisk", measure.grabBytes, measure.moves, GRAB_BUDGET);
+        // the last drop of every game creates the game over event, and no other drop creates anything
+        assertWithinBudget("dropDisk", measure.dropBytes - GAME_OVER_BUDGET * MEASURED_GAMES, measure.moves,
+                DROP_BUDGET);
+    }
+
+    @Test
+    @DisplayName("Dropping a disk with a listener allocates only its event")
+    public void dropsWithListener() throws InvalidMoveException {
+        Script script = new Script(GameVariant.CLASSIC, DISKS);
+        HanoiTowerControl control = new HanoiTowerControl();
+        AtomicInteger added = new AtomicInteger();
+        control.addListener(new HanoiTowerListener() {
+            @Override
+            public void fireDiskAdded(PinEvent event) {
+                added.incrementAndGet();
+            }
+        }, EventType.DISK_ADDED.mask);
+        control.startGame(DISKS);
+
+        script.play(control, WARMUP_GAMES);
+        Measure measure = script.measure(control, MEASURED_GAMES);
+
+        assertEquals((WARMUP_GAMES + MEASURED_GAMES) * script.moves(), added.get());
+        assertWithinBudget("grabDisk", measure.grabBytes, measure.moves, GRAB_BUDGET);
+        assertWithinBudget("dropDisk", measure.dropBytes, measure.moves, DROP_WITH_LISTENER_BUDGET);
+    }
+
+    private static void assertWithinBudget(String operation, long bytes, long operations, long budget) {
+        assertTrue(bytes <= budget * operations + SLACK, operation + " allocated " + bytes + " bytes in "
+                + operations + " calls, over the budget of " + budget + " bytes per call");
+    }
+
+    // the least a pair of readings allocates, so no allocation of the games is hidden by the overhead
+    private static long counterOverhead() {
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 100; i++) {
+            overhead = Math.min(overhead, -allocatedBytes() + allocatedBytes());
+        }
+        return overhead;
+    }
+
+    private static long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static final class Measure {
+        long grabBytes;
+        long dropBytes;
+        long restartBytes;
+        long moves;
+    }
+
+    // the optimal moves of a game, read before playing so the script allocates nothing while it runs
+    private static final class Script {
+
+        private final GameVariant _variant;
+        private final int _disks;
+        private final PinPosition[] _from;
+        private final PinPosition[] _to;
+
+        Script(GameVariant variant, int disks) {
+            _variant = variant;
+            _disks = disks;
+            MoveSequence solution = Solutions.optimal(variant, disks);
+            int moves = (int) variant.minimumMoves(disks);
+            _from = new PinPosition[moves];
+            _to = new PinPosition[moves];
+            for (int i = 0; solution.next(); i++) {
+                _from[i] = solution.from();
+                _to[i] = solution.to();
+            }
+        }
+
+        int moves() {
+            return _from.length;
+        }
+
+        void play(HanoiTowerControl control, int games) throws InvalidMoveException {
+            for (int game = 0; game < games; game++) {
+                control.restartGame(_disks, _variant);
+                for (int i = 0; i < _from.length; i++) {
+                    control.grabDisk(_from[i]);
+                    control.dropDisk(_to[i]);
+                }
+            }
+        }
+
+        // every operation is measured apart, the cost of reading the counter is taken out
+        Measure measure(HanoiTowerControl control, int games) throws InvalidMoveException {
+            final long overhead = counterOverhead();
+            final Measure measure = new Measure();
+            for (int game = 0; game < games; game++) {
+                long start = allocatedBytes();
+                control.restartGame(_disks, _variant);
+                measure.restartBytes += allocatedBytes() - start - overhead;
+                for (int i = 0; i < _from.length; i++) {
+                    start = allocatedBytes();
+                    control.grabDisk(_from[i]);
+                    measure.grabBytes += allocatedBytes() - start - overhead;
+                    start = allocatedBytes();
+                    control.dropDisk(_to[i]);
+                    measure.dropBytes += allocatedBytes() - start - overhead;
+                }
+                measure.moves += _from.length;
+            }
+            return measure;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.martialdev.game.hanoitower.core.control;
+
+import com.martialdev.game.hanoitower.core.control.event.GameOverEvent;
+import com.martialdev.game.hanoitower.core.control.event.GameStartEvent;
+import com.martialdev.game.hanoitower.core.control.event.HanoiTowerListener;
+import com.martialdev.game.hanoitower.core.control.event.PinEvent;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import com.martialdev.game.hanoitower.core.solver.MoveSequence;
+import com.martialdev.game.hanoitower.core.solver.Solutions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class GameSnapshotTest {
+
+    private GameOverEvent _gameOverEvent;
+
+    private final HanoiTowerListener _listener = new HanoiTowerListener() {
+
+        @Override
+        public void hanoiTowerEvent(GameOverEvent event) {
+            _gameOverEvent = event;
+        }
+
+        @Override
+        public void fireDiskRemoved(PinEvent event) {
+        }
+
+        @Override
+        public void fireDiskAdded(PinEvent event) {
+        }
+
+        @Override
+        public void hanoiTowerEvent(GameStartEvent event) {
+        }
+    };
+
+    @Test
+    @DisplayName("Games restored in the middle of a move can be finished")
+    public void restoreInTheMiddleOfGames() {
+        for (GameVariant variant : GameVariant.values()) {
+            HanoiTowerControl control = new HanoiTowerControl();
+            control.startGame(4, variant);
+            MoveSequence solution = Solutions.optimal(variant, 4);
+            try {
+                while (solution.next()) {
+                    control.grabDisk(solution.from());
+
+                    // the game goes through its binary form into a new controller
+                    GameSnapshot snapshot = control.snapshot();
+                    ByteBuffer buffer = ByteBuffer.allocate(snapshot.encodedSize() + 3);
+                    assertEquals(snapshot.encodedSize(), snapshot.writeTo(buffer, 3));
+                    GameSnapshot copy = GameSnapshot.readFrom(buffer, 3);
+
+                    HanoiTowerControl restored = new HanoiTowerControl();
+                    restored.addListener(_listener);
+                    restored.restore(copy);
+                    assertEquals(control.positionHash(), restored.positionHash());
+                    assertArrayEquals(control.encodePosition(), restored.encodePosition());
+                    for (HanoiTowerControl.PinPosition pin : HanoiTowerControl.PinPosition.values()) {
+                        assertArrayEquals(control.getDisks(pin), restored.getDisks(pin));
+                    }
+
+                    restored.dropDisk(solution.to());
+                    control = restored;
+                }
+            } catch (InvalidMoveException e) {
+                fail(variant + " restored game refused a move: " + e.getMessage());
+            }
+            assertNotNull(_gameOverEvent);
+            assertEquals(1d, _gameOverEvent.score);
+            _gameOverEvent = null;
+        }
+    }
+
+    @Test
+    @DisplayName("Invalid snapshots are refused")
+    public void refuseInvalidSnapshots() {
+        HanoiTowerControl control = new HanoiTowerControl();
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.readFrom(ByteBuffer.allocate(32), 0));
+        // a capacity out of range, and a grabbed disk from a pin that doesn't exist
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        new GameSnapshot(GameVariant.CLASSIC, 3, new long[] {0}, -1, 0, 0).writeTo(buffer, 0);
+        buffer.putShort(2, (short) -3);
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.readFrom(buffer, 0));
+        buffer.putShort(2, (short) 3);
+        buffer.put(1, (byte) 4);
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.readFrom(buffer, 0));
+        // a position with words missing
+        assertThrows(IllegalArgumentException.class,
+                () -> control.restore(new GameSnapshot(GameVariant.BICOLOR, 2, new long[] {0}, -1, 0, 0)));
+        // no disks, and a grabbed disk from a pin that doesn't exist
+        assertThrows(IllegalArgumentException.class,
+                () -> control.restore(new GameSnapshot(GameVariant.CLASSIC, 0, new long[0], -1, 0, 0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> control.restore(new GameSnapshot(GameVariant.CLASSIC, 2, new long[] {0b11}, 3, 0, 0)));
+        // a grabbed disk without the pin it came from
+        assertThrows(IllegalArgumentException.class,
+                () -> control.restore(new GameSnapshot(GameVariant.CLASSIC, 2, new long[] {0b11}, -1, 0, 0)));
+    }
+}
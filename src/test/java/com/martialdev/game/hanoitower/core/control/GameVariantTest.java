@@ -0,0 +1,148 @@
+package com.martialdev.game.hanoitower.core.control;
+
+import com.martialdev.game.hanoitower.core.control.event.GameOverEvent;
+import com.martialdev.game.hanoitower.core.control.event.GameStartEvent;
+import com.martialdev.game.hanoitower.core.control.event.HanoiTowerListener;
+import com.martialdev.game.hanoitower.core.control.event.PinEvent;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import com.martialdev.game.hanoitower.core.solver.Solutions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.FIRST_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.SECOND_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.THIRD_PIN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class GameVariantTest {
+
+    private HanoiTowerControl _matchTest;
+    private GameOverEvent _gameOverEvent;
+
+    private final HanoiTowerListener _listener = new HanoiTowerListener() {
+
+        @Override
+        public void hanoiTowerEvent(GameOverEvent event) {
+            _gameOverEvent = event;
+        }
+
+        @Override
+        public void fireDiskRemoved(PinEvent event) {
+        }
+
+        @Override
+        public void fireDiskAdded(PinEvent event) {
+        }
+
+        @Override
+        public void hanoiTowerEvent(GameStartEvent event) {
+        }
+    };
+
+    @BeforeEach
+    public void setupTest() {
+        _matchTest = new HanoiTowerControl();
+        _matchTest.addListener(_listener);
+        _gameOverEvent = null;
+    }
+
+    @Test
+    @DisplayName("Minimum moves of each variant")
+    public void checkMinimumMoves() {
+        assertEquals(7, GameVariant.CLASSIC.minimumMoves(3));
+        assertEquals(26, GameVariant.ADJACENT.minimumMoves(3));
+        assertEquals(2, GameVariant.CYCLIC.minimumMoves(1));
+        assertEquals(7, GameVariant.CYCLIC.minimumMoves(2));
+        assertEquals(21, GameVariant.CYCLIC.minimumMoves(3));
+        assertEquals(3, GameVariant.BICOLOR.minimumMoves(1));
+        assertEquals(27, GameVariant.BICOLOR.minimumMoves(3));
+    }
+
+    @Test
+    @DisplayName("Games whose moves don't fit in a long are refused")
+    public void checkMovesOverflow() {
+        assertEquals(Long.MAX_VALUE, GameVariant.CLASSIC.minimumMoves(63));
+        assertThrows(IllegalArgumentException.class, () -> GameVariant.CLASSIC.minimumMoves(64));
+        assertThrows(IllegalArgumentException.class, () -> GameVariant.ADJACENT.minimumMoves(40));
+        assertThrows(IllegalArgumentException.class, () -> GameVariant.CYCLIC.minimumMoves(64));
+        assertThrows(IllegalArgumentException.class, () -> GameVariant.BICOLOR.minimumMoves(61));
+        assertThrows(IllegalArgumentException.class, () -> Solutions.optimal(GameVariant.CYCLIC, 300));
+
+        _matchTest.startGame(3);
+        assertThrows(IllegalArgumentException.class, () -> _matchTest.restartGame(64));
+        assertEquals(3, _matchTest.getDisks(FIRST_PIN).length);
+    }
+
+    @Test
+    @DisplayName("Classic is the default variant")
+    public void checkDefaultVariant() {
+        _matchTest.startGame(3);
+        assertEquals(GameVariant.CLASSIC, _matchTest.getVariant());
+    }
+
+    @Test
+    @DisplayName("Restarting a game keeps the variant")
+    public void checkRestartKeepsVariant() {
+        _matchTest.startGame(3, GameVariant.CYCLIC);
+        _matchTest.restartGame(4);
+        assertEquals(GameVariant.CYCLIC, _matchTest.getVariant());
+    }
+
+    @Test
+    @DisplayName("Cyclic games don't allow counterclockwise moves")
+    public void checkCyclicMoves() {
+        _matchTest.startGame(3, GameVariant.CYCLIC);
+        try {
+            _matchTest.grabDisk(FIRST_PIN);
+            assertThrows(InvalidMoveException.class, () -> _matchTest.dropDisk(THIRD_PIN));
+            _matchTest.dropDisk(SECOND_PIN);
+        } catch (InvalidMoveException e) {
+            fail("Unexpected exception: " + e);
+        }
+    }
+
+    @Test
+    @DisplayName("Adjacent games don't allow moves between first and third pins")
+    public void checkAdjacentMoves() {
+        _matchTest.startGame(3, GameVariant.ADJACENT);
+        try {
+            _matchTest.grabDisk(FIRST_PIN);
+            assertThrows(InvalidMoveException.class, () -> _matchTest.dropDisk(THIRD_PIN));
+            _matchTest.dropDisk(SECOND_PIN);
+            _matchTest.grabDisk(SECOND_PIN);
+            _matchTest.dropDisk(THIRD_PIN);
+        } catch (InvalidMoveException e) {
+            fail("Unexpected exception: " + e);
+        }
+    }
+
+    @Test
+    @DisplayName("Bicolor game only ends when the colors are in the original order")
+    public void checkBicolorGameOver() {
+        _matchTest.startGame(1, GameVariant.BICOLOR);
+        try {
+            move(FIRST_PIN, THIRD_PIN);
+            move(FIRST_PIN, THIRD_PIN);
+            assertNull(_gameOverEvent, "Colors are swapped, the game must go on.");
+
+            move(THIRD_PIN, SECOND_PIN);
+            move(THIRD_PIN, FIRST_PIN);
+            move(SECOND_PIN, THIRD_PIN);
+            move(FIRST_PIN, THIRD_PIN);
+            assertEquals(6, _gameOverEvent.totalMoves);
+            assertEquals(0.5d, _gameOverEvent.score);
+        } catch (InvalidMoveException e) {
+            fail("Unexpected exception: " + e);
+        }
+    }
+
+    private void move(PinPosition pin1, PinPosition pin2) throws InvalidMoveException {
+        _matchTest.grabDisk(pin1);
+        _matchTest.dropDisk(pin2);
+    }
+}
@@ -0,0 +1,97 @@
+package com.martialdev.game.hanoitower.core.control;
+
+import com.martialdev.game.hanoitower.core.control.event.EventType;
+import com.martialdev.game.hanoitower.core.control.event.GameOverEvent;
+import com.martialdev.game.hanoitower.core.control.event.HanoiTowerListener;
+import com.martialdev.game.hanoitower.core.control.event.ListenerRegistration;
+import com.martialdev.game.hanoitower.core.control.event.PinEvent;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import com.martialdev.game.hanoitower.core.solver.MoveSequence;
+import com.martialdev.game.hanoitower.core.solver.Solutions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.FIRST_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.SECOND_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.THIRD_PIN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ListenerRegistrationTest {
+
+    @Test
+    @DisplayName("Subscriptions receive only their type of event")
+    public void subscribeToEventTypes() throws InvalidMoveException {
+        HanoiTowerControl control = new HanoiTowerControl();
+        List<GameOverEvent> gamesOver = new ArrayList<>();
+        List<PinEvent> removed = new ArrayList<>();
+        AtomicInteger added = new AtomicInteger();
+        control.subscribe(EventType.GAME_OVER, gamesOver::add);
+        control.subscribe(EventType.DISK_REMOVED, removed::add);
+        control.addListener(new HanoiTowerListener() {
+            @Override
+            public void fireDiskAdded(PinEvent event) {
+                added.incrementAndGet();
+            }
+
+            @Override
+            public void fireDiskRemoved(PinEvent event) {
+                throw new AssertionError("the listener is not interested in removed disks");
+            }
+        }, EventType.mask(EventType.DISK_ADDED));
+
+        control.startGame(3);
+        MoveSequence solution = Solutions.optimal(GameVariant.CLASSIC, 3);
+        while (solution.next()) {
+            control.grabDisk(solution.from());
+            control.dropDisk(solution.to());
+        }
+        assertEquals(1, gamesOver.size());
+        assertEquals(1d, gamesOver.get(0).score);
+        assertEquals(7, removed.size());
+        assertEquals(7, added.get());
+    }
+
+    @Test
+    @DisplayName("Listeners can be removed while events are broadcast")
+    public void removeListeners() throws InvalidMoveException {
+        HanoiTowerControl control = new HanoiTowerControl();
+        AtomicInteger first = new AtomicInteger();
+        AtomicInteger second = new AtomicInteger();
+        ListenerRegistration[] registration = new ListenerRegistration[1];
+        registration[0] = control.subscribe(EventType.DISK_ADDED, event -> {
+            first.incrementAndGet();
+            registration[0].remove();
+        });
+        HanoiTowerListener listener = new HanoiTowerListener() {
+            @Override
+            public void fireDiskAdded(PinEvent event) {
+                second.incrementAndGet();
+            }
+        };
+        control.addListener(listener);
+
+        control.startGame(3);
+        control.grabDisk(FIRST_PIN);
+        control.dropDisk(THIRD_PIN);
+        assertEquals(1, first.get());
+        assertEquals(1, second.get());
+
+        control.grabDisk(FIRST_PIN);
+        control.dropDisk(SECOND_PIN);
+        assertEquals(1, first.get());
+        assertEquals(2, second.get());
+
+        registration[0].remove();
+        assertTrue(control.removeListener(listener));
+        assertFalse(control.removeListener(listener));
+        control.grabDisk(THIRD_PIN);
+        control.dropDisk(SECOND_PIN);
+        assertEquals(2, second.get());
+    }
+}
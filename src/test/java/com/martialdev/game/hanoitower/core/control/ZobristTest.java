@@ -0,0 +1,104 @@
+package com.martialdev.game.hanoitower.core.control;
+
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import com.martialdev.game.hanoitower.core.solver.MoveSequence;
+import com.martialdev.game.hanoitower.core.solver.Solutions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.FIRST_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.SECOND_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.THIRD_PIN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ZobristTest {
+
+    @Test
+    @DisplayName("Incremental hash is always the hash of the encoded position")
+    public void checkIncrementalHash() {
+        for (GameVariant variant : GameVariant.values()) {
+            HanoiTowerControl control = new HanoiTowerControl();
+            control.startGame(4, variant);
+            assertEquals(Zobrist.hash(PositionEncoding.initial(variant, 4), variant, 4), Zobrist.initial(variant, 4));
+            Set<Long> hashes = new HashSet<>();
+            MoveSequence solution = Solutions.optimal(variant, 4);
+            try {
+                while (solution.next()) {
+                    control.grabDisk(solution.from());
+                    assertEquals(Zobrist.hash(control.encodePosition(), variant, 4), control.positionHash());
+                    control.dropDisk(solution.to());
+                    assertEquals(Zobrist.hash(control.encodePosition(), variant, 4), control.positionHash());
+                    hashes.add(control.positionHash());
+                }
+            } catch (InvalidMoveException e) {
+                fail("Unexpected exception: " + e);
+            }
+            if (variant != GameVariant.BICOLOR) {
+                // optimal solutions of these variants never repeat a position
+                assertEquals(variant.minimumMoves(4), hashes.size());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Same positions reached by different moves have the same hash")
+    public void checkTransposition() throws InvalidMoveException {
+        HanoiTowerControl first = new HanoiTowerControl();
+        HanoiTowerControl second = new HanoiTowerControl();
+        first.startGame(3);
+        second.startGame(3);
+        long initialHash = first.positionHash();
+
+        move(first, FIRST_PIN, SECOND_PIN);
+        move(first, FIRST_PIN, THIRD_PIN);
+        move(second, FIRST_PIN, THIRD_PIN);
+        assertNotEquals(first.positionHash(), second.positionHash());
+        assertFalse(first.matchesPosition(second.encodePosition()));
+
+        move(second, THIRD_PIN, SECOND_PIN);
+        move(second, FIRST_PIN, THIRD_PIN);
+        assertEquals(first.positionHash(), second.positionHash());
+        assertTrue(first.matchesPosition(second.encodePosition()));
+
+        first.restartGame(3);
+        assertEquals(initialHash, first.positionHash());
+        first.restartGame(4);
+        assertNotEquals(initialHash, first.positionHash());
+    }
+
+    @Test
+    @DisplayName("Order of the disks of the same size matters in bicolor games")
+    public void checkBicolorOrder() throws InvalidMoveException {
+        HanoiTowerControl control = new HanoiTowerControl();
+        control.startGame(1, GameVariant.BICOLOR);
+        long initialHash = control.positionHash();
+        long[] initial = control.encodePosition();
+
+        move(control, FIRST_PIN, SECOND_PIN);
+        move(control, FIRST_PIN, SECOND_PIN);
+        move(control, SECOND_PIN, FIRST_PIN);
+        move(control, SECOND_PIN, FIRST_PIN);
+        assertEquals(initialHash, control.positionHash());
+        assertTrue(control.matchesPosition(initial));
+
+        move(control, FIRST_PIN, SECOND_PIN);
+        move(control, FIRST_PIN, THIRD_PIN);
+        move(control, SECOND_PIN, FIRST_PIN);
+        move(control, THIRD_PIN, FIRST_PIN);
+        assertNotEquals(initialHash, control.positionHash());
+        assertFalse(control.matchesPosition(initial));
+    }
+
+    private static void move(HanoiTowerControl control, HanoiTowerControl.PinPosition from,
+                             HanoiTowerControl.PinPosition to) throws InvalidMoveException {
+        control.grabDisk(from);
+        control.dropDisk(to);
+    }
+}
@@ -0,0 +1,100 @@
+package com.martialdev.game.hanoitower.core.export;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.event.EventType;
+import com.martialdev.game.hanoitower.core.control.event.GameOverEvent;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import com.martialdev.game.hanoitower.core.solver.MoveSequence;
+import com.martialdev.game.hanoitower.core.solver.Solutions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SolutionExporterTest {
+
+    @TempDir
+    Path _directory;
+
+    @Test
+    @DisplayName("Exported solutions are read back and finish the game")
+    public void exportAndPlay() throws IOException, InvalidMoveException {
+        for (GameVariant variant : GameVariant.values()) {
+            Path file = _directory.resolve(variant + ".sol");
+            long moves = SolutionExporter.export(variant, 7, file);
+            assertEquals(variant.minimumMoves(7), moves);
+            assertEquals(SolutionFormat.fileSize(moves), Files.size(file));
+
+            try (SolutionReader reader = new SolutionReader(file)) {
+                assertEquals(variant, reader.getVariant());
+                assertEquals(7, reader.getDisks());
+                assertEquals(moves, reader.totalMoves());
+                MoveSequence solution = Solutions.optimal(variant, 7);
+                while (solution.next()) {
+                    reader.next();
+                    assertEquals(solution.from(), reader.from());
+                    assertEquals(solution.to(), reader.to());
+                    assertEquals(solution.remaining(), reader.remaining());
+                }
+                assertFalse(reader.next());
+            }
+
+            HanoiTowerControl control = new HanoiTowerControl();
+            List<GameOverEvent> gamesOver = new ArrayList<>();
+            control.subscribe(EventType.GAME_OVER, gamesOver::add);
+            control.startGame(7, variant);
+            try (SolutionReader reader = new SolutionReader(file)) {
+                assertEquals(10, reader.play(control, 10));
+                assertEquals(moves - 10, reader.play(control, Long.MAX_VALUE));
+            }
+            assertEquals(1, gamesOver.size());
+            assertEquals(1d, gamesOver.get(0).score);
+        }
+    }
+
+    @Test
+    @DisplayName("Large solutions are packed in 3 bits per move")
+    public void packLargeSolutions() throws IOException {
+        Path file = _directory.resolve("classic.sol");
+        SolutionExporter.main(new String[] {"20", file.toString()});
+        long moves = (1L << 20) - 1;
+        assertEquals(32 + (moves + 20) / 21 * 8, Files.size(file));
+        try (SolutionReader reader = new SolutionReader(file)) {
+            MoveSequence solution = Solutions.optimal(GameVariant.CLASSIC, 20);
+            long differences = 0;
+            while (solution.next() && reader.next()) {
+                if (solution.from() != reader.from() || solution.to() != reader.to()) differences++;
+            }
+            assertEquals(0, differences);
+            assertEquals(0, reader.remaining());
+        }
+    }
+
+    @Test
+    @DisplayName("Other files are refused")
+    public void refuseOtherFiles() throws IOException {
+        Path file = _directory.resolve("other.sol");
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> new SolutionReader(file));
+        Files.write(file, new byte[3]);
+        assertThrows(IOException.class, () -> new SolutionReader(file));
+
+        // a solution file with a variant that doesn't exist
+        SolutionExporter.export(GameVariant.CLASSIC, 3, file);
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).order(SolutionFormat.ORDER).putInt(12, 42);
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> new SolutionReader(file));
+    }
+}
@@ -0,0 +1,240 @@
+package com.martialdev.game.hanoitower.core.history;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition;
+import com.martialdev.game.hanoitower.core.control.event.EventType;
+import com.martialdev.game.hanoitower.core.control.event.GameOverEvent;
+import com.martialdev.game.hanoitower.core.control.event.GameRestoredEvent;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import com.martialdev.game.hanoitower.core.solver.MoveSequence;
+import com.martialdev.game.hanoitower.core.solver.Solutions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.FIRST_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.SECOND_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.THIRD_PIN;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameHistoryTest {
+
+    @TempDir
+    Path _directory;
+
+    @Test
+    @DisplayName("Games played in a controller are recorded and queried")
+    public void recordGames() throws InvalidMoveException {
+        GameHistory history = new GameHistory(2);
+        HanoiTowerControl control = new HanoiTowerControl();
+        history.record(control);
+
+        control.startGame(3);
+        playOptimal(control, GameVariant.CLASSIC, 3, 0);
+        for (int i = 0; i < 2; i++) {
+            // the smallest disk goes to the third pin through the second one
+            control.restartGame(3);
+            move(control, FIRST_PIN, SECOND_PIN);
+            move(control, SECOND_PIN, THIRD_PIN);
+            playOptimal(control, GameVariant.CLASSIC, 3, 1);
+        }
+        history.append(new GameRecord(GameVariant.ADJACENT, 1, moves(FIRST_PIN, SECOND_PIN, SECOND_PIN, THIRD_PIN), 1d, 10));
+
+        assertEquals(4, history.size());
+        assertEquals(2, history.segments());
+
+        SortedMap<Integer, long[]> distribution = history.scoreDistribution(GameVariant.CLASSIC, 10);
+        assertEquals(1, distribution.size());
+        long[] counts = distribution.get(3);
+        assertEquals(1, counts[9]);
+        assertEquals(2, counts[8]);
+
+        List<Deviation> deviations = history.firstDeviations(GameVariant.CLASSIC, 3);
+        assertEquals(1, deviations.size());
+        assertEquals(1, deviations.get(0).moveNumber);
+        assertEquals(FIRST_PIN, deviations.get(0).from);
+        assertEquals(SECOND_PIN, deviations.get(0).to);
+        assertEquals(2, deviations.get(0).games);
+
+        assertEquals(1, history.scoreDistribution(GameVariant.ADJACENT, 1).get(1)[0]);
+        assertTrue(history.firstDeviations(GameVariant.ADJACENT, 1).isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> history.firstDeviations(GameVariant.BICOLOR, 3));
+    }
+
+    @Test
+    @DisplayName("Games restored from a snapshot are not recorded")
+    public void skipRestoredGames() throws InvalidMoveException {
+        GameHistory history = new GameHistory(10);
+        HanoiTowerControl control = new HanoiTowerControl();
+        history.record(control);
+        List<Object> events = new ArrayList<>();
+        control.subscribe(EventType.GAME_RESTORED, events::add);
+        control.subscribe(EventType.GAME_OVER, events::add);
+        HanoiTowerControl other = new HanoiTowerControl();
+        other.startGame(2, GameVariant.ADJACENT);
+
+        control.startGame(3);
+        move(control, FIRST_PIN, THIRD_PIN);
+        control.restore(other.snapshot());
+        playOptimal(control, GameVariant.ADJACENT, 2, 0);
+        assertEquals(2, events.size());
+        assertTrue(events.get(0) instanceof GameRestoredEvent);
+        assertTrue(events.get(1) instanceof GameOverEvent);
+        assertEquals(0, history.size());
+
+        control.restartGame(3, GameVariant.CLASSIC);
+        playOptimal(control, GameVariant.CLASSIC, 3, 0);
+        assertEquals(1, history.size());
+        assertEquals(1, history.scoreDistribution(GameVariant.CLASSIC, 1).get(3)[0]);
+        assertTrue(history.firstDeviations(GameVariant.CLASSIC, 3).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Segments written in a directory are read when it's opened again")
+    public void reopenHistory() throws IOException {
+        Random random = new Random(42);
+        try (GameHistory history = new GameHistory(_directory, 4)) {
+            for (int i = 0; i < 10; i++) {
+                history.append(randomGame(random, 2 + i % 3));
+            }
+        }
+
+        try (GameHistory history = new GameHistory(_directory, 4)) {
+            assertEquals(10, history.size());
+            assertEquals(3, history.segments());
+            GameHistory expected = new GameHistory(4);
+            random = new Random(42);
+            for (int i = 0; i < 10; i++) {
+                expected.append(randomGame(random, 2 + i % 3));
+            }
+            SortedMap<Integer, long[]> distribution = history.scoreDistribution(GameVariant.CLASSIC, 4);
+            assertEquals(expected.scoreDistribution(GameVariant.CLASSIC, 4).keySet(), distribution.keySet());
+            for (int capacity : distribution.keySet()) {
+                assertArrayEquals(expected.scoreDistribution(GameVariant.CLASSIC, 4).get(capacity), distribution.get(capacity));
+            }
+            assertEquals(expected.firstDeviations(GameVariant.CLASSIC, 3).toString(),
+                    history.firstDeviations(GameVariant.CLASSIC, 3).toString());
+
+            history.append(randomGame(random, 2));
+            history.flush();
+            assertEquals(4, history.segments());
+        }
+    }
+
+    @Test
+    @DisplayName("Failures writing segments are reported and don't reach the games")
+    public void reportWriteFailures() throws IOException {
+        // the temporary file of the first segment can't be created
+        Files.createDirectories(_directory.resolve("games-0.seg.tmp"));
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        try (GameHistory history = new GameHistory(_directory, 2, failures::add)) {
+            Random random = new Random(3);
+            for (int i = 0; i < 4; i++) history.append(randomGame(random, 3));
+            assertEquals(2, history.segments());
+            assertEquals(4, history.size());
+        }
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0) instanceof UncheckedIOException);
+        assertTrue(Files.exists(_directory.resolve("games-1.seg")));
+
+        Files.createFile(_directory.resolve("games-x.seg"));
+        assertThrows(IOException.class, () -> new GameHistory(_directory, 2));
+    }
+
+    @Test
+    @DisplayName("Moves take half a byte and small numbers take the bits they need")
+    public void compressColumns() {
+        GameHistory history = new GameHistory(1000);
+        byte[] moves = new byte[(int) GameVariant.CLASSIC.minimumMoves(10)];
+        MoveSequence solution = Solutions.optimal(GameVariant.CLASSIC, 10);
+        for (int i = 0; solution.next(); i++) {
+            moves[i] = GameRecord.move(solution.from(), solution.to());
+        }
+        for (int i = 0; i < 1000; i++) {
+            history.append(new GameRecord(GameVariant.CLASSIC, 10, moves, 1d, 60_000 + i));
+        }
+
+        assertEquals(1, history.segments());
+        assertTrue(history.sizeInBytes() < 1000L * (moves.length / 2 + Double.BYTES + 4));
+        assertTrue(history.firstDeviations(GameVariant.CLASSIC, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Packed columns give back the values they were built from")
+    public void packColumns() {
+        Random random = new Random(7);
+        long[] values = new long[3000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1_000_000 + random.nextInt(5000);
+        }
+        PackedColumn column = PackedColumn.pack(values, values.length);
+        assertEquals(13, column.bits);
+
+        long[] batch = new long[Segment.BATCH];
+        column.unpack(1000, Segment.BATCH, batch);
+        for (int i = 0; i < Segment.BATCH; i++) {
+            assertEquals(values[1000 + i], batch[i]);
+        }
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], column.get(i));
+        }
+
+        PackedColumn constant = PackedColumn.pack(new long[]{5, 5, 5}, 3);
+        assertEquals(0, constant.bits);
+        assertEquals(5, constant.get(2));
+    }
+
+    private static GameRecord randomGame(Random random, int capacity) {
+        byte[] moves = new byte[(int) GameVariant.CLASSIC.minimumMoves(capacity)];
+        MoveSequence solution = Solutions.optimal(GameVariant.CLASSIC, capacity);
+        for (int i = 0; solution.next(); i++) {
+            moves[i] = GameRecord.move(solution.from(), solution.to());
+        }
+        // some games start with the smallest disk on the wrong pin and bring it back
+        if (random.nextBoolean()) {
+            byte[] deviated = new byte[moves.length + 2];
+            PinPosition wrong = capacity % 2 == 0 ? THIRD_PIN : SECOND_PIN;
+            deviated[0] = GameRecord.move(FIRST_PIN, wrong);
+            deviated[1] = GameRecord.move(wrong, FIRST_PIN);
+            System.arraycopy(moves, 0, deviated, 2, moves.length);
+            return new GameRecord(GameVariant.CLASSIC, capacity, deviated, (double) moves.length / deviated.length,
+                    random.nextInt(100_000));
+        }
+        return new GameRecord(GameVariant.CLASSIC, capacity, moves, 1d, random.nextInt(100_000));
+    }
+
+    private static byte[] moves(PinPosition... pins) {
+        byte[] moves = new byte[pins.length / 2];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = GameRecord.move(pins[2 * i], pins[2 * i + 1]);
+        }
+        return moves;
+    }
+
+    private static void playOptimal(HanoiTowerControl control, GameVariant variant, int disks, int skip)
+            throws InvalidMoveException {
+        MoveSequence solution = Solutions.optimal(variant, disks);
+        for (int i = 0; solution.next(); i++) {
+            if (i >= skip) move(control, solution.from(), solution.to());
+        }
+    }
+
+    private static void move(HanoiTowerControl control, PinPosition from, PinPosition to) throws InvalidMoveException {
+        control.grabDisk(from);
+        control.dropDisk(to);
+    }
+}
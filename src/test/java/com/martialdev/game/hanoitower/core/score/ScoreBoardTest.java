@@ -0,0 +1,108 @@
+package com.martialdev.game.hanoitower.core.score;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.event.GameOverEvent;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import com.martialdev.game.hanoitower.core.solver.MoveSequence;
+import com.martialdev.game.hanoitower.core.solver.Solutions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ScoreBoardTest {
+
+    @Test
+    @DisplayName("Leaderboards keep the best games of each capacity")
+    public void checkTopGames() {
+        ScoreBoard scoreBoard = new ScoreBoard(3);
+        for (int moves = 20; moves >= 7; moves--) {
+            scoreBoard.record("player" + moves, 3, new GameOverEvent(moves, 7d / moves));
+        }
+        scoreBoard.record("other", 4, new GameOverEvent(15, 1d));
+
+        LeaderboardSnapshot snapshot = scoreBoard.leaderboard(3).snapshot();
+        assertEquals(14, snapshot.getGames());
+        assertEquals(3, snapshot.getTop().size());
+        assertEquals("player7", snapshot.getTop().get(0).player);
+        assertEquals("player8", snapshot.getTop().get(1).player);
+        assertEquals("player9", snapshot.getTop().get(2).player);
+        assertEquals(13.5d, snapshot.getAverageMoves());
+        assertEquals(7, snapshot.movesPercentile(0));
+        assertEquals(13, snapshot.movesPercentile(50));
+        assertEquals(20, snapshot.movesPercentile(100));
+        assertEquals(1d, snapshot.scorePercentile(100), 0.01d);
+        assertEquals(0.35d, snapshot.scorePercentile(0), 0.01d);
+        assertEquals(2, scoreBoard.capacities().size());
+
+        assertThrows(IllegalArgumentException.class, () -> new ScoreBoard(0));
+        assertThrows(IllegalArgumentException.class, () -> new Leaderboard(3, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Leaderboard(3, 1, 0));
+    }
+
+    @Test
+    @DisplayName("Listener records the capacity of the game")
+    public void checkListener() {
+        ScoreBoard scoreBoard = new ScoreBoard();
+        HanoiTowerControl control = new HanoiTowerControl();
+        control.addListener(scoreBoard.listener("solver"));
+        control.startGame(4);
+        MoveSequence solution = Solutions.optimal(GameVariant.CLASSIC, 4);
+        try {
+            while (solution.next()) {
+                control.grabDisk(solution.from());
+                control.dropDisk(solution.to());
+            }
+        } catch (InvalidMoveException e) {
+            fail("Unexpected exception: " + e);
+        }
+
+        LeaderboardSnapshot snapshot = scoreBoard.leaderboard(4).snapshot();
+        assertEquals(1, snapshot.getGames());
+        assertEquals("solver", snapshot.getTop().get(0).player);
+        assertEquals(15, snapshot.getTop().get(0).totalMoves);
+    }
+
+    @Test
+    @DisplayName("Games recorded by many threads are all counted")
+    public void checkConcurrentRecording() throws InterruptedException {
+        final ScoreBoard scoreBoard = new ScoreBoard(5);
+        final int threads = 8;
+        final int gamesPerThread = 10_000;
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < gamesPerThread; i++) {
+                    int moves = 7 + (i + thread) % 50;
+                    scoreBoard.record("player" + thread, 3, new GameOverEvent(moves, 7d / moves));
+                    if (i % 1000 == 0) scoreBoard.leaderboard(3).snapshot();
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+
+        LeaderboardSnapshot snapshot = scoreBoard.leaderboard(3).snapshot();
+        assertEquals(threads * gamesPerThread, snapshot.getGames());
+        assertEquals(5, snapshot.getTop().size());
+        snapshot.getTop().forEach(entry -> assertEquals(7, entry.totalMoves));
+        assertTrue(snapshot.getAverageScore() > 0 && snapshot.getAverageScore() < 1);
+    }
+}
@@ -0,0 +1,226 @@
+package com.martialdev.game.hanoitower.core.server;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.solver.MoveSequence;
+import com.martialdev.game.hanoitower.core.solver.Solutions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GameServerTest {
+
+    private GameServer _server;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        _server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        _server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        _server.close();
+    }
+
+    @Test
+    @DisplayName("A client plays a whole game through the server")
+    public void playGame() throws IOException {
+        try (SocketChannel client = SocketChannel.open(_server.getLocalAddress())) {
+            send(client, Protocol.START, GameVariant.CLASSIC.ordinal(), 0, 3);
+            ByteBuffer frame = receive(client);
+            assertEquals(Protocol.GAME_STARTED, frame.get(0));
+            assertEquals(3, frame.getInt(4));
+
+            MoveSequence solution = Solutions.optimal(GameVariant.CLASSIC, 3);
+            int moves = 0;
+            while (solution.next()) {
+                moves++;
+                send(client, Protocol.MOVE, solution.from().ordinal(), solution.to().ordinal(), 0);
+                frame = receive(client);
+                assertEquals(Protocol.DISK_REMOVED, frame.get(0));
+                assertEquals(solution.from().ordinal(), frame.get(1));
+                frame = receive(client);
+                assertEquals(Protocol.DISK_ADDED, frame.get(0));
+                assertEquals(solution.to().ordinal(), frame.get(1));
+                assertEquals(moves, frame.getLong(8));
+            }
+
+            frame = receive(client);
+            assertEquals(Protocol.GAME_OVER, frame.get(0));
+            assertEquals(7, frame.getInt(4));
+            assertEquals(1d, Double.longBitsToDouble(frame.getLong(8)));
+        }
+    }
+
+    @Test
+    @DisplayName("Invalid requests are answered with errors")
+    public void checkErrors() throws IOException {
+        try (SocketChannel client = SocketChannel.open(_server.getLocalAddress())) {
+            send(client, Protocol.GRAB, 0, 0, 0);
+            assertError(receive(client), Protocol.GRAB, Protocol.NO_GAME_STARTED);
+
+            send(client, Protocol.START, GameVariant.ADJACENT.ordinal(), 0, 3);
+            assertEquals(Protocol.GAME_STARTED, receive(client).get(0));
+
+            send(client, Protocol.DROP, 1, 0, 0);
+            assertError(receive(client), Protocol.DROP, Protocol.INVALID_MOVE);
+
+            send(client, Protocol.GRAB, 7, 0, 0);
+            assertError(receive(client), Protocol.GRAB, Protocol.INVALID_ARGUMENT);
+
+            send(client, (byte) 42, 0, 0, 0);
+            assertError(receive(client), (byte) 42, Protocol.UNKNOWN_REQUEST);
+
+            send(client, Protocol.MOVE, 0, 2, 0);
+            assertEquals(Protocol.DISK_REMOVED, receive(client).get(0));
+            assertError(receive(client), Protocol.MOVE, Protocol.INVALID_MOVE);
+        }
+    }
+
+    @Test
+    @DisplayName("Many clients play at the same time")
+    public void checkManyClients() throws IOException {
+        SocketChannel[] clients = new SocketChannel[20];
+        try {
+            for (int i = 0; i < clients.length; i++) {
+                clients[i] = SocketChannel.open(_server.getLocalAddress());
+                send(clients[i], Protocol.START, GameVariant.CLASSIC.ordinal(), 0, i % 5 + 1);
+            }
+            for (int i = 0; i < clients.length; i++) {
+                ByteBuffer frame = receive(clients[i]);
+                assertEquals(Protocol.GAME_STARTED, frame.get(0));
+                assertEquals(i % 5 + 1, frame.getInt(4));
+            }
+        } finally {
+            for (SocketChannel client : clients) {
+                if (client != null) client.close();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Games larger than the server allows are refused")
+    public void refuseLargeGames() throws IOException {
+        try (SocketChannel client = SocketChannel.open(_server.getLocalAddress());
+             SocketChannel other = SocketChannel.open(_server.getLocalAddress())) {
+            send(client, Protocol.START, GameVariant.CLASSIC.ordinal(), 0, 2_000_000_000);
+            assertError(receive(client), Protocol.START, Protocol.INVALID_ARGUMENT);
+
+            send(other, Protocol.START, GameVariant.CLASSIC.ordinal(), 0, 5);
+            assertEquals(Protocol.GAME_STARTED, receive(other).get(0));
+            send(client, Protocol.START, GameVariant.CLASSIC.ordinal(), 0, 5);
+            assertEquals(Protocol.GAME_STARTED, receive(client).get(0));
+        }
+    }
+
+    @Test
+    @DisplayName("Clients reset while they connect don't stop the server")
+    public void resetClients() throws IOException {
+        try (SocketChannel client = SocketChannel.open(_server.getLocalAddress())) {
+            for (int i = 0; i < 50; i++) {
+                SocketChannel reset = SocketChannel.open(_server.getLocalAddress());
+                reset.setOption(StandardSocketOptions.SO_LINGER, 0);
+                reset.close();
+            }
+            try (SocketChannel other = SocketChannel.open(_server.getLocalAddress())) {
+                send(other, Protocol.START, GameVariant.CLASSIC.ordinal(), 0, 4);
+                assertEquals(Protocol.GAME_STARTED, receive(other).get(0));
+            }
+            send(client, Protocol.START, GameVariant.CLASSIC.ordinal(), 0, 3);
+            assertEquals(Protocol.GAME_STARTED, receive(client).get(0));
+        }
+    }
+
+    @Test
+    @DisplayName("A failure in a connection closes only that connection")
+    public void closeFailedConnection() throws IOException {
+        try (GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 100, 64)) {
+            server.start();
+            try (SocketChannel client = SocketChannel.open(server.getLocalAddress());
+                 SocketChannel other = SocketChannel.open(server.getLocalAddress())) {
+                // the moves of 70 disks don't fit in a long, so the game can't be started
+                send(client, Protocol.START, GameVariant.CLASSIC.ordinal(), 0, 70);
+                assertThrows(IOException.class, () -> receive(client));
+
+                send(other, Protocol.START, GameVariant.CLASSIC.ordinal(), 0, 5);
+                assertEquals(Protocol.GAME_STARTED, receive(other).get(0));
+            }
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("A client that doesn't read its events is dropped")
+    public void dropClientNotReading() throws IOException {
+        try (GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 32, 64)) {
+            server.start();
+            try (SocketChannel client = SocketChannel.open()) {
+                client.setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+                client.connect(server.getLocalAddress());
+                // every request is answered with an error that the client never reads
+                ByteBuffer requests = ByteBuffer.allocate(64 * Protocol.FRAME_SIZE);
+                boolean closed = false;
+                for (int i = 0; i < 100_000 && !closed; i++) {
+                    requests.clear();
+                    while (requests.hasRemaining()) Protocol.putFrame(requests, Protocol.GRAB, 0, 0, 0, 0);
+                    requests.flip();
+                    try {
+                        while (requests.hasRemaining()) client.write(requests);
+                    } catch (IOException e) {
+                        closed = true;
+                    }
+                }
+                if (!closed) {
+                    // the events sent before the connection was closed are still readable, then it ends
+                    ByteBuffer events = ByteBuffer.allocate(64 * 1024);
+                    int read;
+                    do {
+                        events.clear();
+                        read = client.read(events);
+                    } while (read >= 0);
+                }
+            } catch (IOException e) {
+                // a reset connection is closed too
+            }
+
+            try (SocketChannel other = SocketChannel.open(server.getLocalAddress())) {
+                send(other, Protocol.START, GameVariant.CLASSIC.ordinal(), 0, 5);
+                assertEquals(Protocol.GAME_STARTED, receive(other).get(0));
+            }
+        }
+    }
+
+    private static void assertError(ByteBuffer frame, byte request, int errorCode) {
+        assertEquals(Protocol.ERROR, frame.get(0));
+        assertEquals(request, frame.get(1));
+        assertEquals(errorCode, frame.getInt(4));
+    }
+
+    private static void send(SocketChannel client, byte opcode, int firstPin, int secondPin, int argument)
+            throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(Protocol.FRAME_SIZE);
+        Protocol.putFrame(frame, opcode, firstPin, secondPin, argument, 0);
+        frame.flip();
+        while (frame.hasRemaining()) client.write(frame);
+    }
+
+    private static ByteBuffer receive(SocketChannel client) throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(Protocol.FRAME_SIZE);
+        while (frame.hasRemaining()) {
+            if (client.read(frame) < 0) throw new IOException("Connection closed by the server");
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,65 @@
+package com.martialdev.game.hanoitower.core.session;
+
+import com.martialdev.game.hanoitower.core.control.GameSnapshot;
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.FIRST_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.SECOND_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.THIRD_PIN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SessionArenaTest {
+
+    @Test
+    @DisplayName("Games keep their state between check outs")
+    public void checkOutAndIn() throws InvalidMoveException {
+        SessionArena arena = new SessionArena(10, 128);
+        int slot = arena.create(5, GameVariant.CLASSIC);
+
+        HanoiTowerControl control = arena.checkOut(slot);
+        assertSame(control, arena.checkOut(slot));
+        control.grabDisk(FIRST_PIN);
+        control.dropDisk(THIRD_PIN);
+        control.grabDisk(FIRST_PIN);
+        long hash = control.positionHash();
+        arena.checkIn(slot);
+        assertEquals(0, arena.checkedOut());
+
+        HanoiTowerControl again = arena.checkOut(slot);
+        assertNotSame(control, again);
+        assertEquals(hash, again.positionHash());
+        again.dropDisk(SECOND_PIN);
+        assertEquals(2, arena.read(slot).movesDone);
+    }
+
+    @Test
+    @DisplayName("Released slots are reused")
+    public void reuseSlots() {
+        SessionArena arena = new SessionArena(20, 1000);
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, arena.create(i % 20 + 1, GameVariant.values()[i % 4]));
+        }
+        assertEquals(10_000, arena.sessions());
+        long bytes = arena.offHeapBytes();
+
+        arena.release(42);
+        arena.release(4242);
+        assertThrows(IllegalArgumentException.class, () -> arena.release(42));
+        assertEquals(4242, arena.create(3, GameVariant.CYCLIC));
+        assertEquals(42, arena.create(3, GameVariant.CYCLIC));
+        assertEquals(10_000, arena.sessions());
+        assertEquals(bytes, arena.offHeapBytes());
+
+        GameSnapshot snapshot = arena.read(9_999);
+        assertEquals(GameVariant.BICOLOR, snapshot.variant);
+        assertEquals(20, snapshot.capacity);
+        assertThrows(IllegalArgumentException.class, () -> arena.create(21, GameVariant.CLASSIC));
+    }
+}
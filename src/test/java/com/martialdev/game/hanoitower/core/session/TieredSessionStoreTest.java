@@ -0,0 +1,122 @@
+package com.martialdev.game.hanoitower.core.session;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.event.EventType;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import com.martialdev.game.hanoitower.core.solver.Hint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.FIRST_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.SECOND_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.THIRD_PIN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TieredSessionStoreTest {
+
+    private static final int SESSIONS = 300;
+
+    @TempDir
+    Path _directory;
+
+    private final AtomicLong _now = new AtomicLong();
+
+    @Test
+    @DisplayName("Idle games are spilled and loaded back by their next move")
+    public void spillAndLoad() throws IOException, InvalidMoveException {
+        AtomicInteger gamesOver = new AtomicInteger();
+        try (TieredSessionStore store = new TieredSessionStore(_directory, 100, 4096,
+                (session, control) -> control.subscribe(EventType.GAME_OVER, event -> gamesOver.incrementAndGet()),
+                _now::get)) {
+            for (int session = 0; session < SESSIONS; session++) {
+                store.create("session-" + session, 5, GameVariant.values()[session % 3]);
+                store.grabDisk("session-" + session, FIRST_PIN);
+                if (session % 2 == 0) store.dropDisk("session-" + session, SECOND_PIN);
+            }
+            _now.addAndGet(50);
+            // sessions played recently stay on the heap
+            store.grabDisk("session-0", FIRST_PIN);
+            _now.addAndGet(60);
+            assertEquals(SESSIONS - 1, store.spillIdle());
+            assertEquals(1, store.hotSessions());
+            assertEquals(SESSIONS - 1, store.coldSessions());
+            assertTrue(store.segments() > 1);
+            assertEquals(0, store.snapshot("session-3").movesDone);
+
+            // odd sessions were spilled with a grabbed disk
+            for (int session = 1; session < SESSIONS; session += 2) {
+                store.dropDisk("session-" + session, SECOND_PIN);
+            }
+            assertEquals(SESSIONS / 2 + 1, store.hotSessions());
+            assertEquals(SESSIONS / 2 - 1, store.coldSessions());
+
+            // half of the records are dead: segments are compacted
+            int segments = store.segments();
+            assertTrue(store.compact(0.6) > 0);
+            assertTrue(store.segments() < segments);
+            assertEquals(SESSIONS / 2 - 1, store.coldSessions());
+
+            // every game is finished through the store
+            store.dropDisk("session-0", THIRD_PIN);
+            for (int session = 0; session < SESSIONS; session++) {
+                String sessionId = "session-" + session;
+                HanoiTowerControl check = new HanoiTowerControl();
+                check.restore(store.snapshot(sessionId));
+                // follow the hints of a controller restored from the stored position
+                while (check.hint().remainingMoves > 0) {
+                    Hint next = check.hint();
+                    check.grabDisk(next.from(0));
+                    check.dropDisk(next.to(0));
+                    store.grabDisk(sessionId, next.from(0));
+                    store.dropDisk(sessionId, next.to(0));
+                }
+            }
+            assertEquals(SESSIONS, gamesOver.get());
+
+            assertTrue(store.remove("session-7"));
+            assertFalse(store.remove("session-7"));
+            assertThrows(IllegalArgumentException.class, () -> store.grabDisk("session-7", FIRST_PIN));
+            assertThrows(IllegalArgumentException.class, () -> store.create("session-8", 3, GameVariant.CLASSIC));
+        }
+    }
+
+    @Test
+    @DisplayName("Maintenance goes on spilling games after a run fails")
+    public void runMaintenance() throws IOException, InterruptedException {
+        AtomicInteger clockCalls = new AtomicInteger();
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        // the clock fails while the maintenance reads it for the first time
+        LongSupplier clock = () -> {
+            if (clockCalls.incrementAndGet() == 2) throw new IllegalStateException("clock failure");
+            return _now.get();
+        };
+        try (TieredSessionStore store = new TieredSessionStore(_directory, 100, 4096, (session, control) -> { },
+                clock)) {
+            store.create("session", 3, GameVariant.CLASSIC);
+            _now.addAndGet(200);
+            store.startMaintenance(5, TimeUnit.MILLISECONDS, failures::add);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (store.coldSessions() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(1, store.coldSessions());
+            assertEquals(1, failures.size());
+            assertTrue(failures.get(0) instanceof IllegalStateException);
+        }
+    }
+}
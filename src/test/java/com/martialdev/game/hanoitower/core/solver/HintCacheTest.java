@@ -0,0 +1,158 @@
+package com.martialdev.game.hanoitower.core.solver;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.FIRST_PIN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HintCacheTest {
+
+    private static final GameVariant[] SOLVABLE = {GameVariant.CLASSIC, GameVariant.CYCLIC, GameVariant.ADJACENT};
+
+    @Test
+    @DisplayName("Following the hints gives a flawless victory")
+    public void followHints() throws InvalidMoveException {
+        for (GameVariant variant : SOLVABLE) {
+            HanoiTowerControl control = new HanoiTowerControl();
+            control.setHintCache(new HintCache(100, 60_000, 1));
+            assertThrows(IllegalStateException.class, control::hint);
+            control.startGame(4, variant);
+            assertEquals(variant.minimumMoves(4), control.hint().remainingMoves);
+
+            Hint hint = control.hint();
+            while (hint.remainingMoves > 0) {
+                control.grabDisk(hint.from(0));
+                assertEquals(hint.remainingMoves, control.hint().remainingMoves, "Grabbed disk is considered back.");
+                control.dropDisk(hint.to(0));
+                hint = control.hint();
+            }
+            assertEquals(0, hint.movesAhead());
+        }
+    }
+
+    @Test
+    @DisplayName("Distances from every position are the shortest ones")
+    public void checkDistancesAgainstSearch() {
+        final int disks = 4;
+        final int states = 81;
+        for (GameVariant variant : SOLVABLE) {
+            ContinuationSolver solver = new ContinuationSolver(variant, disks);
+            for (int state = 0; state < states; state++) {
+                int[] pins = decode(state, disks);
+                assertEquals(shortestDistance(variant, state, disks), solver.distance(pins),
+                        variant + " distance from " + Arrays.toString(pins));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Hints are computed once and counted as hits afterwards")
+    public void checkStatistics() throws InvalidMoveException {
+        HintCache cache = new HintCache(100, 60_000, 4);
+        HanoiTowerControl first = new HanoiTowerControl();
+        HanoiTowerControl second = new HanoiTowerControl();
+        first.setHintCache(cache);
+        second.setHintCache(cache);
+        first.startGame(5);
+        second.startGame(5);
+
+        Hint hint = first.hint();
+        assertSame(hint, second.hint());
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+        assertEquals(4, hint.movesAhead());
+
+        first.grabDisk(FIRST_PIN);
+        first.hint();
+        assertEquals(2, cache.misses());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Old and least recently used hints are evicted")
+    public void checkEviction() {
+        AtomicLong clock = new AtomicLong();
+        HintCache cache = new HintCache(16, 1_000, 2, clock::get);
+        long[] start = new long[1];
+
+        Hint hint = cache.hint(GameVariant.CLASSIC, 3, start, -1);
+        clock.addAndGet(999_000_000L);
+        assertSame(hint, cache.hint(GameVariant.CLASSIC, 3, start, -1));
+        clock.addAndGet(2_000_000L);
+        cache.hint(GameVariant.CLASSIC, 3, start, -1);
+        assertEquals(2, cache.misses());
+        assertEquals(1, cache.evictions());
+
+        for (int position = 0; position < 1000; position++) {
+            cache.hint(GameVariant.CLASSIC, 5, new long[] {position}, -1);
+        }
+        assertTrue(cache.size() <= 16);
+        assertTrue(cache.evictions() > 900);
+    }
+
+    @Test
+    @DisplayName("Bicolor games have no hints")
+    public void checkBicolor() {
+        HanoiTowerControl control = new HanoiTowerControl();
+        control.startGame(2, GameVariant.BICOLOR);
+        assertThrows(UnsupportedOperationException.class, control::hint);
+    }
+
+    private static int[] decode(int state, int disks) {
+        int[] pins = new int[disks];
+        for (int disk = 0; disk < disks; disk++) {
+            pins[disk] = state % 3;
+            state /= 3;
+        }
+        return pins;
+    }
+
+    private static int encode(int[] pins) {
+        int state = 0;
+        for (int disk = pins.length - 1; disk >= 0; disk--) state = state * 3 + pins[disk];
+        return state;
+    }
+
+    // breadth first search over every position
+    private static long shortestDistance(GameVariant variant, int start, int disks) {
+        int goal = encode(new int[] {2, 2, 2, 2});
+        int[] distance = new int[81];
+        Arrays.fill(distance, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        distance[start] = 0;
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            if (state == goal) return distance[state];
+            int[] pins = decode(state, disks);
+            int[] tops = {disks, disks, disks};
+            for (int disk = disks - 1; disk >= 0; disk--) tops[pins[disk]] = disk;
+            for (int from = 0; from < 3; from++) {
+                for (int to = 0; to < 3; to++) {
+                    if (from == to || tops[from] == disks || tops[from] > tops[to]) continue;
+                    if (!variant.allowsTransfer(HanoiTowerControl.PinPosition.values()[from],
+                            HanoiTowerControl.PinPosition.values()[to])) continue;
+                    int[] next = pins.clone();
+                    next[tops[from]] = to;
+                    int nextState = encode(next);
+                    if (distance[nextState] < 0) {
+                        distance[nextState] = distance[state] + 1;
+                        queue.add(nextState);
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+}
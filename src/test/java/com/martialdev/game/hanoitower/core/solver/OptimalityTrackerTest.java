@@ -0,0 +1,129 @@
+package com.martialdev.game.hanoitower.core.solver;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.event.GameOverEvent;
+import com.martialdev.game.hanoitower.core.control.event.GameStartEvent;
+import com.martialdev.game.hanoitower.core.control.event.HanoiTowerListener;
+import com.martialdev.game.hanoitower.core.control.event.PinEvent;
+import com.martialdev.game.hanoitower.core.control.event.ProgressEvent;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.FIRST_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.SECOND_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.THIRD_PIN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OptimalityTrackerTest {
+
+    private final List<ProgressEvent> _progress = new ArrayList<>();
+
+    private final HanoiTowerListener _listener = new HanoiTowerListener() {
+
+        @Override
+        public void hanoiTowerEvent(GameOverEvent event) {
+        }
+
+        @Override
+        public void fireDiskRemoved(PinEvent event) {
+        }
+
+        @Override
+        public void fireDiskAdded(PinEvent event) {
+        }
+
+        @Override
+        public void hanoiTowerEvent(GameStartEvent event) {
+        }
+
+        @Override
+        public void hanoiTowerEvent(ProgressEvent event) {
+            _progress.add(event);
+        }
+    };
+
+    @Test
+    @DisplayName("Tracked distance is always the distance calculated from scratch")
+    public void checkRandomGames() {
+        Random random = new Random(26);
+        for (GameVariant variant : new GameVariant[] {GameVariant.CLASSIC, GameVariant.CYCLIC, GameVariant.ADJACENT}) {
+            final int disks = 6;
+            ContinuationSolver solver = new ContinuationSolver(variant, disks);
+            OptimalityTracker tracker = new OptimalityTracker(variant, disks);
+            int[] pins = new int[disks];
+            assertEquals(variant.minimumMoves(disks), tracker.distance());
+
+            for (int move = 0; move < 2000; move++) {
+                int from = random.nextInt(3);
+                int to = random.nextInt(3);
+                int disk = top(pins, from);
+                if (from == to || disk < 0 || (top(pins, to) >= 0 && top(pins, to) < disk)) continue;
+                if (!variant.allowsTransfer(HanoiTowerControl.PinPosition.values()[from],
+                        HanoiTowerControl.PinPosition.values()[to])) continue;
+
+                long previous = tracker.distance();
+                pins[disk] = to;
+                boolean optimal = tracker.diskMoved(disk, to);
+                long expected = solver.distance(pins.clone());
+                assertEquals(expected, tracker.distance());
+                assertEquals(expected == previous - 1, optimal);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Controller reports progress on every drop")
+    public void checkProgressEvents() throws InvalidMoveException {
+        HanoiTowerControl control = new HanoiTowerControl();
+        control.addListener(_listener);
+        control.startGame(3);
+
+        move(control, FIRST_PIN, SECOND_PIN);
+        ProgressEvent event = _progress.get(0);
+        assertFalse(event.optimalMove);
+        assertEquals(7, event.remainingMoves);
+        assertEquals(1, event.extraMoves);
+        assertEquals(7d / 8d, event.efficiency);
+
+        move(control, SECOND_PIN, THIRD_PIN);
+        event = _progress.get(1);
+        assertTrue(event.optimalMove);
+        assertEquals(6, event.remainingMoves);
+        assertEquals(1, event.extraMoves);
+
+        _progress.clear();
+        control.restartGame(3);
+        MoveSequence solution = Solutions.optimal(GameVariant.CLASSIC, 3);
+        while (solution.next()) {
+            move(control, solution.from(), solution.to());
+        }
+        assertEquals(7, _progress.size());
+        _progress.forEach(progress -> {
+            assertTrue(progress.optimalMove);
+            assertEquals(0, progress.extraMoves);
+            assertEquals(1d, progress.efficiency);
+        });
+        assertEquals(0, _progress.get(6).remainingMoves);
+    }
+
+    private static int top(int[] pins, int pin) {
+        for (int disk = 0; disk < pins.length; disk++) {
+            if (pins[disk] == pin) return disk;
+        }
+        return -1;
+    }
+
+    private static void move(HanoiTowerControl control, HanoiTowerControl.PinPosition from,
+                             HanoiTowerControl.PinPosition to) throws InvalidMoveException {
+        control.grabDisk(from);
+        control.dropDisk(to);
+    }
+}
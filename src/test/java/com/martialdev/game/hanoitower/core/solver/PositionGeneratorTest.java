@@ -0,0 +1,119 @@
+package com.martialdev.game.hanoitower.core.solver;
+
+import com.martialdev.game.hanoitower.core.control.GameSnapshot;
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PositionGeneratorTest {
+
+    @Test
+    @DisplayName("Generated positions are at the wanted distance")
+    public void generateAtDistance() {
+        Random random = new Random(11);
+        for (GameVariant variant : new GameVariant[] {GameVariant.CLASSIC, GameVariant.CYCLIC, GameVariant.ADJACENT}) {
+            for (int disks = 1; disks <= 10; disks++) {
+                PositionGenerator generator = new PositionGenerator(variant, disks, 5);
+                ContinuationSolver solver = new ContinuationSolver(variant, disks);
+                assertEquals(variant.minimumMoves(disks), generator.maximumDistance());
+                int[] pins = new int[disks];
+                for (int i = 0; i < 500; i++) {
+                    long min = (long) (random.nextDouble() * generator.maximumDistance());
+                    long max = min + (long) (random.nextDouble() * (generator.maximumDistance() - min));
+                    long distance = generator.next(min, max, pins);
+                    assertTrue(distance >= min && distance <= max);
+                    assertEquals(solver.distance(pins), distance, variant + " " + Arrays.toString(pins));
+                }
+            }
+        }
+        // the initial position and the end of the game
+        assertArrayEquals(new int[5], pins(GameVariant.ADJACENT, 5, 242));
+        assertArrayEquals(new int[] {2, 2, 2, 2, 2}, pins(GameVariant.CYCLIC, 5, 0));
+        assertArrayEquals(new int[] {2, 2, 2, 2, 2}, pins(GameVariant.CLASSIC, 5, 0));
+    }
+
+    @Test
+    @DisplayName("Classic positions are sampled uniformly")
+    public void sampleUniformly() {
+        PositionGenerator generator = new PositionGenerator(GameVariant.CLASSIC, 3, 99);
+        Map<String, Integer> counts = new HashMap<>();
+        int[] pins = new int[3];
+        for (int i = 0; i < 27_000; i++) {
+            generator.next(0, 7, pins);
+            counts.merge(Arrays.toString(pins), 1, Integer::sum);
+        }
+        assertEquals(27, counts.size());
+        for (int count : counts.values()) assertTrue(count > 800 && count < 1200, counts.toString());
+
+        // distance 5 (binary 101) has 4 positions
+        counts.clear();
+        for (int i = 0; i < 1000; i++) {
+            generator.next(5, 5, pins);
+            counts.merge(Arrays.toString(pins), 1, Integer::sum);
+        }
+        assertEquals(4, counts.size());
+    }
+
+    @Test
+    @DisplayName("Generators reach all the positions, cyclic ones without the same chance")
+    public void coverPositions() {
+        PositionGenerator generator = new PositionGenerator(GameVariant.ADJACENT, 3, 13);
+        assertTrue(generator.coversAllPositions());
+        Set<String> positions = new HashSet<>();
+        int[] pins = new int[3];
+        for (int i = 0; i < 5000; i++) {
+            generator.next(0, 26, pins);
+            positions.add(Arrays.toString(pins));
+        }
+        assertEquals(27, positions.size());
+
+        // most cyclic distances have a single position but the walk leaves the optimal solution
+        PositionGenerator cyclic = new PositionGenerator(GameVariant.CYCLIC, 3, 13);
+        assertFalse(cyclic.coversAllPositions());
+        positions.clear();
+        for (int i = 0; i < 5000; i++) {
+            cyclic.next(0, cyclic.maximumDistance(), pins);
+            positions.add(Arrays.toString(pins));
+        }
+        assertEquals(27, positions.size());
+        assertTrue(new PositionGenerator(GameVariant.CLASSIC, 3, 13).coversAllPositions());
+    }
+
+    @Test
+    @DisplayName("Generated positions load in the controller")
+    public void loadPositions() {
+        PositionGenerator generator = new PositionGenerator(GameVariant.CYCLIC, 12, 2024);
+        PositionGenerator sameSeed = new PositionGenerator(GameVariant.CYCLIC, 12, 2024);
+        HanoiTowerControl control = new HanoiTowerControl();
+        for (int i = 0; i < 100; i++) {
+            GameSnapshot snapshot = generator.nextSnapshot(1000, 2000);
+            assertArrayEquals(snapshot.position(), sameSeed.nextSnapshot(1000, 2000).position());
+            control.restore(snapshot);
+            long remaining = control.hint().remainingMoves;
+            assertTrue(remaining >= 1000 && remaining <= 2000);
+        }
+        assertThrows(IllegalArgumentException.class, () -> generator.next(-10, -1, new int[12]));
+        assertThrows(UnsupportedOperationException.class, () -> new PositionGenerator(GameVariant.BICOLOR, 3, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PositionGenerator(GameVariant.ADJACENT, 50, 1));
+    }
+
+    private static int[] pins(GameVariant variant, int disks, long distance) {
+        int[] pins = new int[disks];
+        new PositionGenerator(variant, disks, 1).next(distance, distance, pins);
+        return pins;
+    }
+}
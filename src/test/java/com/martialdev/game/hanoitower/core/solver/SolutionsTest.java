@@ -0,0 +1,111 @@
+package com.martialdev.game.hanoitower.core.solver;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.event.GameOverEvent;
+import com.martialdev.game.hanoitower.core.control.event.GameStartEvent;
+import com.martialdev.game.hanoitower.core.control.event.HanoiTowerListener;
+import com.martialdev.game.hanoitower.core.control.event.PinEvent;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class SolutionsTest {
+
+    private GameOverEvent _gameOverEvent;
+
+    private final HanoiTowerListener _listener = new HanoiTowerListener() {
+
+        @Override
+        public void hanoiTowerEvent(GameOverEvent event) {
+            _gameOverEvent = event;
+        }
+
+        @Override
+        public void fireDiskRemoved(PinEvent event) {
+        }
+
+        @Override
+        public void fireDiskAdded(PinEvent event) {
+        }
+
+        @Override
+        public void hanoiTowerEvent(GameStartEvent event) {
+        }
+    };
+
+    @Test
+    @DisplayName("Optimal solutions of every variant must give a flawless victory")
+    public void playOptimalSolutions() {
+        for (GameVariant variant : GameVariant.values()) {
+            for (int sizes = 1; sizes <= 7; sizes++) {
+                playSolution(variant, sizes);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Classic solution moves can be read in any order")
+    public void checkClassicRandomAccess() {
+        for (int disks = 1; disks <= 10; disks++) {
+            // the textbook recursion, independent from the formulas of the solution
+            List<int[]> expected = new ArrayList<>();
+            recursiveMoves(disks, 0, 2, 1, expected);
+            ClassicSolution solution = new ClassicSolution(disks);
+            assertEquals(expected.size(), GameVariant.CLASSIC.minimumMoves(disks));
+
+            // moves are read out of order, from the last one
+            for (int move = expected.size(); move >= 1; move--) {
+                assertEquals(expected.get(move - 1)[0], solution.fromPin(move), disks + " disks, move " + move);
+                assertEquals(expected.get(move - 1)[1], solution.toPin(move), disks + " disks, move " + move);
+            }
+            ClassicSolution sequence = new ClassicSolution(disks);
+            for (int[] move : expected) {
+                assertTrue(sequence.next());
+                assertEquals(move[0], sequence.from().ordinal());
+                assertEquals(move[1], sequence.to().ordinal());
+            }
+            assertFalse(sequence.next());
+        }
+    }
+
+    private static void recursiveMoves(int disks, int from, int to, int spare, List<int[]> moves) {
+        if (disks == 0) return;
+        recursiveMoves(disks - 1, from, spare, to, moves);
+        moves.add(new int[] {from, to});
+        recursiveMoves(disks - 1, spare, to, from, moves);
+    }
+
+    private void playSolution(GameVariant variant, int sizes) {
+        HanoiTowerControl control = new HanoiTowerControl();
+        control.addListener(_listener);
+        control.startGame(sizes, variant);
+        _gameOverEvent = null;
+
+        MoveSequence solution = Solutions.optimal(variant, sizes);
+        long expectedRemaining = variant.minimumMoves(sizes);
+        try {
+            while (solution.next()) {
+                expectedRemaining--;
+                assertEquals(expectedRemaining, solution.remaining());
+                control.grabDisk(solution.from());
+                control.dropDisk(solution.to());
+            }
+        } catch (InvalidMoveException e) {
+            fail(variant + " solution with " + sizes + " sizes made an invalid move: " + e.getMessage());
+        }
+
+        assertNotNull(_gameOverEvent, variant + " solution with " + sizes + " sizes didn't finish the game.");
+        assertEquals(variant.minimumMoves(sizes), _gameOverEvent.totalMoves);
+        assertEquals(1d, _gameOverEvent.score);
+    }
+}
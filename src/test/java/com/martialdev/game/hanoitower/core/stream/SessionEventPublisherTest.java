@@ -0,0 +1,194 @@
+package com.martialdev.game.hanoitower.core.stream;
+
+import com.martialdev.game.hanoitower.core.control.GameVariant;
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import com.martialdev.game.hanoitower.core.solver.MoveSequence;
+import com.martialdev.game.hanoitower.core.solver.Solutions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.FIRST_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.SECOND_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.THIRD_PIN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class SessionEventPublisherTest {
+
+    private static class RecordingSubscriber implements Flow.Subscriber<SessionEvent> {
+
+        final List<SessionEvent> events = new ArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+        boolean completed;
+        private final long _initialRequest;
+
+        RecordingSubscriber(long initialRequest) {
+            _initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (_initialRequest > 0) subscription.request(_initialRequest);
+        }
+
+        @Override
+        public void onNext(SessionEvent item) {
+            events.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    @Test
+    @DisplayName("Subscriber with demand receives every event of every session")
+    public void receiveAllEvents() {
+        SessionEventPublisher publisher = new SessionEventPublisher(Runnable::run, 100, Conflation.NONE);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+
+        HanoiTowerControl first = new HanoiTowerControl();
+        HanoiTowerControl second = new HanoiTowerControl();
+        publisher.attach("first", first);
+        publisher.attach("second", second);
+        first.startGame(2);
+        second.startGame(3);
+        play(first, 2);
+
+        assertEquals(2 + 3 * 2 + 1, subscriber.events.size());
+        assertEquals("second", subscriber.events.get(1).sessionId);
+        assertEquals(SessionEvent.Kind.DISK_REMOVED, subscriber.events.get(2).kind);
+        assertEquals(SessionEvent.Kind.GAME_OVER, subscriber.events.get(8).kind);
+        assertEquals(1d, subscriber.events.get(8).score);
+
+        publisher.close();
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    @DisplayName("Slow subscriber receives only the latest pins of each session")
+    public void conflateMoves() throws InvalidMoveException {
+        SessionEventPublisher publisher = new SessionEventPublisher(Runnable::run, 100,
+                Conflation.LATEST_PER_SESSION);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        publisher.subscribe(subscriber);
+
+        HanoiTowerControl first = new HanoiTowerControl();
+        HanoiTowerControl second = new HanoiTowerControl();
+        publisher.attach("first", first);
+        publisher.attach("second", second);
+        first.startGame(3);
+        second.startGame(3);
+        play(first, 3);
+        second.grabDisk(FIRST_PIN);
+        second.dropDisk(SECOND_PIN);
+        second.grabDisk(FIRST_PIN);
+        second.dropDisk(THIRD_PIN);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(4, subscriber.events.size());
+        assertEquals(SessionEvent.Kind.GAME_STARTED, subscriber.events.get(0).kind);
+        assertEquals(SessionEvent.Kind.GAME_STARTED, subscriber.events.get(1).kind);
+        assertEquals(SessionEvent.Kind.GAME_OVER, subscriber.events.get(2).kind);
+        assertEquals(3, subscriber.events.get(2).getDisks(THIRD_PIN)[0].getSize());
+
+        SessionEvent latest = subscriber.events.get(3);
+        assertEquals("second", latest.sessionId);
+        assertEquals(2, latest.moves);
+        assertEquals(1, latest.getDisks(SECOND_PIN)[0].getSize());
+        assertEquals(2, latest.getDisks(THIRD_PIN)[0].getSize());
+    }
+
+    @Test
+    @DisplayName("Slow subscriber of more sessions than its buffer holds is never dropped")
+    public void conflateManySessions() throws InvalidMoveException {
+        SessionEventPublisher publisher = new SessionEventPublisher(Runnable::run, 4,
+                Conflation.LATEST_PER_SESSION);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        publisher.subscribe(subscriber);
+
+        HanoiTowerControl[] games = new HanoiTowerControl[10];
+        for (int i = 0; i < games.length; i++) {
+            games[i] = new HanoiTowerControl();
+            publisher.attach("game-" + i, games[i]);
+            games[i].startGame(3);
+        }
+        for (int round = 0; round < 3; round++) {
+            for (HanoiTowerControl game : games) {
+                game.grabDisk(round % 2 == 0 ? FIRST_PIN : THIRD_PIN);
+                game.dropDisk(round % 2 == 0 ? THIRD_PIN : SECOND_PIN);
+            }
+            // the subscriber takes a single event in each round
+            subscriber.subscription.request(1);
+        }
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertNull(subscriber.error);
+        // one event in each round, then the three left of the four the buffer held
+        assertEquals(3 + 3, subscriber.events.size());
+        // the buffer kept the latest state of the last sessions that moved
+        SessionEvent latest = subscriber.events.get(subscriber.events.size() - 1);
+        assertEquals("game-9", latest.sessionId);
+        assertEquals(SessionEvent.Kind.DISK_ADDED, latest.kind);
+        assertEquals(3, latest.moves);
+
+        games[9].grabDisk(FIRST_PIN);
+        assertEquals(SessionEvent.Kind.DISK_REMOVED, subscriber.events.get(subscriber.events.size() - 1).kind);
+    }
+
+    @Test
+    @DisplayName("Subscriber that doesn't keep up without conflation is dropped with an error")
+    public void overflowBuffer() {
+        SessionEventPublisher publisher = new SessionEventPublisher(Runnable::run, 4, Conflation.NONE);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        publisher.subscribe(subscriber);
+
+        HanoiTowerControl control = new HanoiTowerControl();
+        publisher.attach("game", control);
+        control.startGame(3);
+        play(control, 3);
+
+        assertTrue(subscriber.error instanceof IllegalStateException);
+        assertTrue(subscriber.events.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Requests must be positive")
+    public void requestNothing() {
+        SessionEventPublisher publisher = new SessionEventPublisher(Runnable::run, 4, Conflation.NONE);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        publisher.subscribe(subscriber);
+        assertNull(subscriber.error);
+
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+    }
+
+    private static void play(HanoiTowerControl control, int disks) {
+        MoveSequence solution = Solutions.optimal(GameVariant.CLASSIC, disks);
+        try {
+            while (solution.next()) {
+                control.grabDisk(solution.from());
+                control.dropDisk(solution.to());
+            }
+        } catch (InvalidMoveException e) {
+            fail("Unexpected exception: " + e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.martialdev.game.hanoitower.core.timer;
+
+import com.martialdev.game.hanoitower.core.control.HanoiTowerControl;
+import com.martialdev.game.hanoitower.core.control.event.GameOverEvent;
+import com.martialdev.game.hanoitower.core.control.event.GameStartEvent;
+import com.martialdev.game.hanoitower.core.control.event.HanoiTowerListener;
+import com.martialdev.game.hanoitower.core.control.event.PinEvent;
+import com.martialdev.game.hanoitower.core.control.event.TimeoutEvent;
+import com.martialdev.game.hanoitower.core.control.exception.InvalidMoveException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.FIRST_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.SECOND_PIN;
+import static com.martialdev.game.hanoitower.core.control.HanoiTowerControl.PinPosition.THIRD_PIN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    private final AtomicLong _now = new AtomicLong();
+    private final List<TimeoutEvent> _timeouts = new ArrayList<>();
+
+    private final HanoiTowerListener _listener = new HanoiTowerListener() {
+
+        @Override
+        public void hanoiTowerEvent(GameOverEvent event) {
+        }
+
+        @Override
+        public void fireDiskRemoved(PinEvent event) {
+        }
+
+        @Override
+        public void fireDiskAdded(PinEvent event) {
+        }
+
+        @Override
+        public void hanoiTowerEvent(GameStartEvent event) {
+        }
+
+        @Override
+        public void hanoiTowerEvent(TimeoutEvent event) {
+            _timeouts.add(event);
+        }
+    };
+
+    @Test
+    @DisplayName("Timeouts expire in their tick, in every level")
+    public void expireInTime() {
+        TimingWheel wheel = new TimingWheel(1, _now::get);
+        Random random = new Random(37);
+        int count = 5000;
+        long[] deadlines = new long[count];
+        long[] expiredAt = new long[count];
+        Timeout[] timeouts = new Timeout[count];
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            // delays spread through the first three levels
+            long delay = 1 + (long) Math.pow(2, random.nextDouble() * 18);
+            deadlines[i] = _now.get() + delay;
+            timeouts[i] = wheel.schedule(() -> expiredAt[index] = _now.get(), delay, TimeUnit.NANOSECONDS);
+            if (i % 10 == 0) tick(wheel, random.nextInt(20));
+        }
+        // a timeout beyond the four levels
+        Timeout far = wheel.schedule(() -> { }, 1L << 25, TimeUnit.NANOSECONDS);
+        long farDeadline = _now.get() + (1L << 25);
+        // cancelled timeouts never run
+        for (int i = 0; i < count; i += 7) {
+            if (!timeouts[i].isExpired()) assertTrue(timeouts[i].cancel());
+        }
+
+        tick(wheel, 300_000);
+        for (int i = 0; i < count; i++) {
+            if (timeouts[i].isCancelled()) assertEquals(0, expiredAt[i]);
+            else assertEquals(deadlines[i], expiredAt[i]);
+        }
+        assertEquals(1, wheel.pending());
+
+        tick(wheel, farDeadline - _now.get() - 1);
+        assertFalse(far.isExpired());
+        tick(wheel, 1);
+        assertTrue(far.isExpired());
+        assertFalse(far.cancel());
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    @DisplayName("Timed games end when their time is over")
+    public void timeGames() throws InvalidMoveException {
+        TimingWheel wheel = new TimingWheel(1, _now::get);
+        HanoiTowerControl control = new HanoiTowerControl();
+        control.addListener(_listener);
+        control.setTimeLimits(wheel, 1000, 100, 30, TimeUnit.NANOSECONDS);
+        control.startGame(3);
+
+        tick(wheel, 40);
+        assertEquals(1, _timeouts.size());
+        assertEquals(TimeoutEvent.Kind.IDLE, _timeouts.get(0).kind);
+        control.grabDisk(FIRST_PIN);
+        control.dropDisk(THIRD_PIN);
+
+        // every move restarts the move clock
+        for (int i = 0; i < 4; i++) {
+            tick(wheel, 90);
+            control.grabDisk(i % 2 == 0 ? THIRD_PIN : SECOND_PIN);
+            control.dropDisk(i % 2 == 0 ? SECOND_PIN : THIRD_PIN);
+        }
+        assertFalse(control.isTimeOver());
+        tick(wheel, 100);
+        assertTrue(control.isTimeOver());
+        TimeoutEvent last = _timeouts.get(_timeouts.size() - 1);
+        assertEquals(TimeoutEvent.Kind.MOVE, last.kind);
+        assertEquals(5, last.movesDone);
+        assertThrows(InvalidMoveException.class, () -> control.grabDisk(FIRST_PIN));
+
+        // restarting clears the timeouts, and the game limit ends the game
+        _timeouts.clear();
+        control.setTimeLimits(wheel, 50, 0, 0, TimeUnit.NANOSECONDS);
+        control.restartGame(3);
+        assertFalse(control.isTimeOver());
+        tick(wheel, 1000);
+        assertEquals(1, _timeouts.size());
+        assertEquals(TimeoutEvent.Kind.GAME, _timeouts.get(0).kind);
+        assertTrue(control.isTimeOver());
+        assertEquals(0, wheel.pending());
+    }
+
+    private void tick(TimingWheel wheel, long ticks) {
+        for (long i = 0; i < ticks; i++) {
+            _now.incrementAndGet();
+            wheel.advance();
+        }
+    }
+}